@@ -1,11 +1,19 @@
 package com.example.genielogicielmeteoconsommation.controller;
 
+import com.example.genielogicielmeteoconsommation.dto.ColumnarOverviewResponse;
 import com.example.genielogicielmeteoconsommation.dto.DashboardOverviewResponse;
+import com.example.genielogicielmeteoconsommation.dto.EstimateBatchRequest;
+import com.example.genielogicielmeteoconsommation.dto.EstimateBatchResponse;
 import com.example.genielogicielmeteoconsommation.dto.EstimateRequest;
 import com.example.genielogicielmeteoconsommation.dto.EstimateResponse;
+import com.example.genielogicielmeteoconsommation.dto.OverviewSection;
 import com.example.genielogicielmeteoconsommation.service.DashboardService;
 import com.example.genielogicielmeteoconsommation.support.GrandEstReference;
+import com.example.genielogicielmeteoconsommation.support.OverviewSeriesEncoder;
+import com.example.genielogicielmeteoconsommation.support.WeightedLruCache;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -15,7 +23,9 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/dashboard")
@@ -33,9 +43,51 @@ public class DashboardController {
             @RequestParam(name = "startDate", required = false)
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(name = "endDate", required = false)
-            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(name = "maxPoints", required = false) Integer maxPoints,
+            @RequestParam(name = "include", required = false) String include
     ) {
-        return dashboardService.buildOverview(parseDepartments(departments), startDate, endDate);
+        return dashboardService.buildOverview(
+                parseDepartments(departments),
+                startDate,
+                endDate,
+                maxPoints,
+                parseSections(include)
+        );
+    }
+
+    /**
+     * Meme synthese en colonnes, choisie par {@code Accept: application/vnd.meteo.columnar+json}.
+     */
+    @GetMapping(value = "/overview", produces = ColumnarOverviewResponse.MEDIA_TYPE)
+    public ColumnarOverviewResponse overviewColumnar(
+            @RequestParam(name = "departments", required = false) String departments,
+            @RequestParam(name = "startDate", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(name = "endDate", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(name = "maxPoints", required = false) Integer maxPoints,
+            @RequestParam(name = "include", required = false) String include
+    ) {
+        return ColumnarOverviewResponse.from(overview(departments, startDate, endDate, maxPoints, include));
+    }
+
+    /**
+     * Series journalieres et nuage de points en binaire, choisis par
+     * {@code Accept: application/vnd.meteo.series} (format decrit dans {@link OverviewSeriesEncoder}).
+     */
+    @GetMapping(value = "/overview", produces = OverviewSeriesEncoder.MEDIA_TYPE)
+    public byte[] overviewSeries(
+            @RequestParam(name = "departments", required = false) String departments,
+            @RequestParam(name = "startDate", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(name = "endDate", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(name = "maxPoints", required = false) Integer maxPoints,
+            @RequestParam(name = "include", required = false) String include
+    ) {
+        String seriesSections = include != null ? include : "dailyTrends,scatterPoints";
+        return OverviewSeriesEncoder.encode(overview(departments, startDate, endDate, maxPoints, seriesSections));
     }
 
     @GetMapping("/departments")
@@ -50,6 +102,21 @@ public class DashboardController {
         return dashboardService.estimate(request);
     }
 
+    @PostMapping("/estimate/batch")
+    public EstimateBatchResponse estimateBatch(@RequestBody(required = false) EstimateBatchRequest request) {
+        return dashboardService.estimateBatch(request);
+    }
+
+    @GetMapping("/cache")
+    public WeightedLruCache.Stats cacheStats() {
+        return dashboardService.overviewCacheStats();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> requeteInvalide(IllegalArgumentException exception) {
+        return ResponseEntity.badRequest().body(exception.getMessage());
+    }
+
     private List<String> parseDepartments(String rawDepartments) {
         if (rawDepartments == null || rawDepartments.isBlank()) {
             return GrandEstReference.defaultDepartments();
@@ -60,6 +127,22 @@ public class DashboardController {
                 .toList();
     }
 
+    /**
+     * Parametre absent: toutes les sections. Parametre vide: filtres, resume et couverture seulement.
+     */
+    private Set<OverviewSection> parseSections(String rawSections) {
+        if (rawSections == null) {
+            return null;
+        }
+        Set<OverviewSection> sections = EnumSet.noneOf(OverviewSection.class);
+        Arrays.stream(rawSections.split(","))
+                .map(String::trim)
+                .filter(value -> !value.isBlank())
+                .map(OverviewSection::fromFieldName)
+                .forEach(sections::add);
+        return sections;
+    }
+
     public record DepartmentOption(String code, String label) {
     }
 }
@@ -1,10 +1,19 @@
 package com.example.genielogicielmeteoconsommation.controller;
 
+import com.example.genielogicielmeteoconsommation.dto.ImportJobStatus;
 import com.example.genielogicielmeteoconsommation.dto.ImportSummary;
 import com.example.genielogicielmeteoconsommation.service.DashboardService;
 import com.example.genielogicielmeteoconsommation.service.ImportDonneesService;
+import com.example.genielogicielmeteoconsommation.service.ImportJobService;
 import com.example.genielogicielmeteoconsommation.service.ImportMeteoService;
+import com.example.genielogicielmeteoconsommation.service.ImportProgress;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -15,18 +24,26 @@ import org.springframework.web.multipart.MultipartFile;
 @RequestMapping("/api/donnees")
 public class ImportController {
 
+    private static final String ELECTRICITE_MESSAGE =
+            "Import electricite termine : %d lignes valides ajoutees, %d lignes ignorees.";
+    private static final String METEO_MESSAGE =
+            "Import meteo termine : %d fichiers traites, %d lignes valides ajoutees, %d lignes ignorees.";
+
     private final ImportDonneesService importService;
     private final ImportMeteoService importMeteoService;
     private final DashboardService dashboardService;
+    private final ImportJobService importJobService;
 
     public ImportController(
             ImportDonneesService importService,
             ImportMeteoService importMeteoService,
-            DashboardService dashboardService
+            DashboardService dashboardService,
+            ImportJobService importJobService
     ) {
         this.importService = importService;
         this.importMeteoService = importMeteoService;
         this.dashboardService = dashboardService;
+        this.importJobService = importJobService;
     }
 
     @PostMapping("/importer-electricite")
@@ -34,8 +51,7 @@ public class ImportController {
         try {
             ImportSummary summary = importService.importerFichierRte(file);
             dashboardService.clearOverviewCache();
-            String message = "Import electricite termine : %d lignes valides ajoutees, %d lignes ignorees."
-                    .formatted(summary.insertedRows(), summary.skippedRows());
+            String message = ELECTRICITE_MESSAGE.formatted(summary.insertedRows(), summary.skippedRows());
             return ResponseEntity.ok(message);
         } catch (IllegalArgumentException exception) {
             return ResponseEntity.badRequest().body(exception.getMessage());
@@ -58,8 +74,7 @@ public class ImportController {
             }
 
             dashboardService.clearOverviewCache();
-            String message = "Import meteo termine : %d fichiers traites, %d lignes valides ajoutees, %d lignes ignorees."
-                    .formatted(files.length, insertedRows, skippedRows);
+            String message = METEO_MESSAGE.formatted(files.length, insertedRows, skippedRows);
             return ResponseEntity.ok(message);
         } catch (IllegalArgumentException exception) {
             return ResponseEntity.badRequest().body(exception.getMessage());
@@ -68,4 +83,69 @@ public class ImportController {
                     .body("Erreur lors de l'import meteo : " + exception.getMessage());
         }
     }
+
+    /**
+     * Variante sans multipart: le corps de la requete est le CSV lui-meme et il est analyse
+     * au fil de la reception, sans copie prealable sur disque.
+     */
+    @PostMapping(value = "/flux/electricite", consumes = {"text/csv", "text/plain", "application/octet-stream"})
+    public ResponseEntity<String> importerFluxElectricite(
+            @RequestParam(name = "fileName", required = false) String fileName,
+            HttpServletRequest request
+    ) {
+        try {
+            ImportSummary summary = importService.remplacerDonneesRte(fileName, request.getInputStream(), ImportProgress.NONE);
+            dashboardService.clearOverviewCache();
+            String message = ELECTRICITE_MESSAGE.formatted(summary.insertedRows(), summary.skippedRows());
+            return ResponseEntity.ok(message);
+        } catch (IllegalArgumentException exception) {
+            return ResponseEntity.badRequest().body(exception.getMessage());
+        } catch (Exception exception) {
+            return ResponseEntity.internalServerError()
+                    .body("Erreur lors de l'import electricite : " + exception.getMessage());
+        }
+    }
+
+    @PostMapping(value = "/flux/meteo", consumes = {"text/csv", "text/plain", "application/octet-stream"})
+    public ResponseEntity<String> importerFluxMeteo(
+            @RequestParam(name = "fileName", required = false) String fileName,
+            HttpServletRequest request
+    ) {
+        try {
+            ImportSummary summary = importMeteoService.importerFluxMeteo(fileName, request.getInputStream());
+            dashboardService.clearOverviewCache();
+            String message = METEO_MESSAGE.formatted(1, summary.insertedRows(), summary.skippedRows());
+            return ResponseEntity.ok(message);
+        } catch (IllegalArgumentException exception) {
+            return ResponseEntity.badRequest().body(exception.getMessage());
+        } catch (Exception exception) {
+            return ResponseEntity.internalServerError()
+                    .body("Erreur lors de l'import meteo : " + exception.getMessage());
+        }
+    }
+
+    @PostMapping("/jobs/electricite")
+    public ResponseEntity<ImportJobStatus> soumettreImportElectricite(@RequestParam("file") MultipartFile file) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(importJobService.soumettreImportElectricite(file));
+    }
+
+    @PostMapping("/jobs/meteo")
+    public ResponseEntity<ImportJobStatus> soumettreImportMeteo(@RequestParam("files") MultipartFile[] files) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(importJobService.soumettreImportMeteo(files));
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<ImportJobStatus> statutImport(@PathVariable("id") String id) {
+        return ResponseEntity.of(importJobService.consulter(id));
+    }
+
+    @DeleteMapping("/jobs/{id}")
+    public ResponseEntity<ImportJobStatus> annulerImport(@PathVariable("id") String id) {
+        return ResponseEntity.of(importJobService.annuler(id));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> requeteInvalide(IllegalArgumentException exception) {
+        return ResponseEntity.badRequest().body(exception.getMessage());
+    }
 }
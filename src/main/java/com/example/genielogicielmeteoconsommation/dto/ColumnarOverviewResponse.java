@@ -0,0 +1,123 @@
+package com.example.genielogicielmeteoconsommation.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Variante colonnes de {@link DashboardOverviewResponse} (type {@value #MEDIA_TYPE}): les
+ * series journalieres et le nuage de points deviennent un tableau par champ au lieu d'un
+ * objet par point, ce qui evite de repeter les noms de champs. Les autres sections sont
+ * identiques a la reponse JSON habituelle.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ColumnarOverviewResponse(
+        DashboardOverviewResponse.FilterSelection filters,
+        DashboardOverviewResponse.Summary summary,
+        DashboardOverviewResponse.DataCoverage coverage,
+        List<String> narrativeHighlights,
+        DailyTrendColumns dailyTrends,
+        List<DashboardOverviewResponse.DepartmentProfile> departmentProfiles,
+        List<DashboardOverviewResponse.DepartmentMonthlyPoint> departmentMonthlyTrends,
+        List<DashboardOverviewResponse.TemperatureBucketPoint> temperatureBuckets,
+        ScatterColumns scatterPoints,
+        List<DashboardOverviewResponse.SeasonalPoint> seasonalComparisons,
+        DashboardOverviewResponse.RegressionModel regressionModel,
+        DashboardOverviewResponse.Transparency transparency
+) {
+
+    public static final String MEDIA_TYPE = "application/vnd.meteo.columnar+json";
+
+    public static ColumnarOverviewResponse from(DashboardOverviewResponse response) {
+        return new ColumnarOverviewResponse(
+                response.filters(),
+                response.summary(),
+                response.coverage(),
+                response.narrativeHighlights(),
+                response.dailyTrends() == null ? null : DailyTrendColumns.from(response.dailyTrends()),
+                response.departmentProfiles(),
+                response.departmentMonthlyTrends(),
+                response.temperatureBuckets(),
+                response.scatterPoints() == null ? null : ScatterColumns.from(response.scatterPoints()),
+                response.seasonalComparisons(),
+                response.regressionModel(),
+                response.transparency()
+        );
+    }
+
+    /**
+     * Jours exprimes en jours depuis le 1970-01-01; {@code null} quand la mesure manque.
+     */
+    public record DailyTrendColumns(
+            long[] epochDay,
+            double[] averageConsumptionMw,
+            double[] peakConsumptionMw,
+            Double[] averageTemperature,
+            Double[] averageHumidity,
+            Double[] averageWind,
+            Double[] totalPrecipitations
+    ) {
+
+        static DailyTrendColumns from(List<DashboardOverviewResponse.DailyTrendPoint> points) {
+            int size = points.size();
+            DailyTrendColumns columns = new DailyTrendColumns(
+                    new long[size],
+                    new double[size],
+                    new double[size],
+                    new Double[size],
+                    new Double[size],
+                    new Double[size],
+                    new Double[size]
+            );
+            for (int index = 0; index < size; index++) {
+                DashboardOverviewResponse.DailyTrendPoint point = points.get(index);
+                columns.epochDay[index] = point.date().toEpochDay();
+                columns.averageConsumptionMw[index] = point.averageConsumptionMw();
+                columns.peakConsumptionMw[index] = point.peakConsumptionMw();
+                columns.averageTemperature[index] = point.averageTemperature();
+                columns.averageHumidity[index] = point.averageHumidity();
+                columns.averageWind[index] = point.averageWind();
+                columns.totalPrecipitations[index] = point.totalPrecipitations();
+            }
+            return columns;
+        }
+    }
+
+    /**
+     * La saison de chaque point est un index dans {@code seasonLabels}.
+     */
+    public record ScatterColumns(
+            String[] timestamp,
+            double[] temperature,
+            double[] consumptionMw,
+            List<String> seasonLabels,
+            int[] season,
+            long[] observationCount
+    ) {
+
+        static ScatterColumns from(List<DashboardOverviewResponse.ScatterPoint> points) {
+            int size = points.size();
+            List<String> seasonLabels = points.stream()
+                    .map(DashboardOverviewResponse.ScatterPoint::season)
+                    .distinct()
+                    .toList();
+            ScatterColumns columns = new ScatterColumns(
+                    new String[size],
+                    new double[size],
+                    new double[size],
+                    seasonLabels,
+                    new int[size],
+                    new long[size]
+            );
+            for (int index = 0; index < size; index++) {
+                DashboardOverviewResponse.ScatterPoint point = points.get(index);
+                columns.timestamp[index] = point.timestamp();
+                columns.temperature[index] = point.temperature();
+                columns.consumptionMw[index] = point.consumptionMw();
+                columns.season[index] = seasonLabels.indexOf(point.season());
+                columns.observationCount[index] = point.observationCount();
+            }
+            return columns;
+        }
+    }
+}
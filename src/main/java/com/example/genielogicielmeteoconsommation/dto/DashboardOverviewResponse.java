@@ -1,9 +1,16 @@
 package com.example.genielogicielmeteoconsommation.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Synthese du tableau de bord. Les sections non demandees ({@link OverviewSection}) valent
+ * {@code null} et n'apparaissent pas dans le JSON.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record DashboardOverviewResponse(
         FilterSelection filters,
         Summary summary,
@@ -99,11 +106,17 @@ public record DashboardOverviewResponse(
     ) {
     }
 
+    /**
+     * Un point par heure jointe ou, apres sous-echantillonnage, par cellule de la grille
+     * temperature x consommation: moyenne de la cellule, saison majoritaire et nombre d'heures
+     * regroupees. L'horodatage n'est renseigne que pour un point isole.
+     */
     public record ScatterPoint(
             String timestamp,
             double temperature,
             double consumptionMw,
-            String season
+            String season,
+            long observationCount
     ) {
     }
 
@@ -0,0 +1,40 @@
+package com.example.genielogicielmeteoconsommation.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Plusieurs estimations sur le meme modele: soit une liste de scenarios, soit une grille
+ * (produit cartesien des axes). Une variable sans valeur reprend la moyenne du modele.
+ */
+public record EstimateBatchRequest(
+        List<String> departments,
+        LocalDate startDate,
+        LocalDate endDate,
+        List<Scenario> scenarios,
+        Grid grid
+) {
+
+    public record Scenario(
+            Double temperature,
+            Double humidity,
+            Double wind,
+            Double precipitations
+    ) {
+    }
+
+    public record Grid(
+            Axis temperature,
+            Axis humidity,
+            Axis wind,
+            Axis precipitations
+    ) {
+    }
+
+    /**
+     * Valeurs de {@code from} a {@code to} inclus par pas de {@code step}; sans pas, seule
+     * la valeur {@code from} est utilisee.
+     */
+    public record Axis(Double from, Double to, Double step) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.genielogicielmeteoconsommation.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimations en tableau dense. Pour une grille, {@code axes} donne les valeurs de chaque
+ * variable et l'index d'une combinaison vaut
+ * {@code ((iTemperature * nHumidity + iHumidity) * nWind + iWind) * nPrecipitations + iPrecipitations}.
+ * Pour une liste de scenarios, les estimations suivent l'ordre des scenarios.
+ */
+public record EstimateBatchResponse(
+        boolean modelReady,
+        String message,
+        Double intercept,
+        Map<String, Double> coefficients,
+        Double rSquared,
+        Long observationsUsed,
+        Map<String, List<Double>> axes,
+        double[] estimatedConsumptionMw
+) {
+}
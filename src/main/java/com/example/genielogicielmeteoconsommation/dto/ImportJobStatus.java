@@ -0,0 +1,31 @@
+package com.example.genielogicielmeteoconsommation.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record ImportJobStatus(
+        String id,
+        String source,
+        State state,
+        List<String> fileNames,
+        long totalBytes,
+        long readBytes,
+        long readRows,
+        long insertedRows,
+        long skippedRows,
+        double rowsPerSecond,
+        Long etaSeconds,
+        Instant submittedAt,
+        Instant startedAt,
+        Instant finishedAt,
+        String message
+) {
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED,
+        CANCELLED
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.genielogicielmeteoconsommation.dto;
+
+import java.util.Arrays;
+
+/**
+ * Sections facultatives de {@link DashboardOverviewResponse}, designees par le nom du champ
+ * correspondant dans le parametre {@code include}. Les filtres, le resume et la couverture
+ * sont toujours renvoyes.
+ */
+public enum OverviewSection {
+    NARRATIVE_HIGHLIGHTS("narrativeHighlights"),
+    DAILY_TRENDS("dailyTrends"),
+    DEPARTMENT_PROFILES("departmentProfiles"),
+    DEPARTMENT_MONTHLY_TRENDS("departmentMonthlyTrends"),
+    TEMPERATURE_BUCKETS("temperatureBuckets"),
+    SCATTER_POINTS("scatterPoints"),
+    SEASONAL_COMPARISONS("seasonalComparisons"),
+    REGRESSION_MODEL("regressionModel"),
+    TRANSPARENCY("transparency");
+
+    private final String fieldName;
+
+    OverviewSection(String fieldName) {
+        this.fieldName = fieldName;
+    }
+
+    public String fieldName() {
+        return fieldName;
+    }
+
+    public static OverviewSection fromFieldName(String fieldName) {
+        return Arrays.stream(values())
+                .filter(section -> section.fieldName.equalsIgnoreCase(fieldName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Section inconnue: " + fieldName));
+    }
+}
@@ -1,19 +1,28 @@
 package com.example.genielogicielmeteoconsommation.model;
 
+import com.example.genielogicielmeteoconsommation.support.EpochMinute;
 import jakarta.persistence.*;
 import java.time.LocalDate;
 import java.time.LocalTime;
 
+/**
+ * Valeur RTE d'un creneau. En base (table releve_consommation) la region est un smallint et
+ * le couple date/heure un horodatage en minutes ({@link EpochMinute}).
+ */
 @Entity
-@Table(name = "consommation_electrique")
+@Table(name = "releve_consommation")
 public class ConsommationElectrique {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Transient
     private LocalDate date;
+    @Transient
     private LocalTime heure;
+
+    @Convert(converter = RegionConverter.class)
     private String region;
 
     @Column(name = "consommation_mw")
@@ -26,6 +35,17 @@ public class ConsommationElectrique {
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
+    @Access(AccessType.PROPERTY)
+    @Column(name = "horodatage")
+    public Integer getHorodatage() {
+        return date == null || heure == null ? null : EpochMinute.of(date, heure);
+    }
+
+    public void setHorodatage(Integer horodatage) {
+        this.date = horodatage == null ? null : EpochMinute.date(horodatage);
+        this.heure = horodatage == null ? null : EpochMinute.time(horodatage);
+    }
+
     public LocalDate getDate() { return date; }
     public void setDate(LocalDate date) { this.date = date; }
 
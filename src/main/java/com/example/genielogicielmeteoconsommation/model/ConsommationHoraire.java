@@ -0,0 +1,51 @@
+package com.example.genielogicielmeteoconsommation.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Agregat de consommation par creneau et par region, recalcule a chaque import RTE.
+ */
+@Entity
+@Table(
+        name = "consommation_horaire",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"region", "date", "heure"})
+)
+public class ConsommationHoraire {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String region;
+    private LocalDate date;
+    private LocalTime heure;
+
+    private Long nombreLignes;
+    private Double consommationSomme;
+    private Long consommationNombre;
+
+    public ConsommationHoraire() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getRegion() { return region; }
+    public void setRegion(String region) { this.region = region; }
+
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+
+    public LocalTime getHeure() { return heure; }
+    public void setHeure(LocalTime heure) { this.heure = heure; }
+
+    public Long getNombreLignes() { return nombreLignes; }
+    public void setNombreLignes(Long nombreLignes) { this.nombreLignes = nombreLignes; }
+
+    public Double getConsommationSomme() { return consommationSomme; }
+    public void setConsommationSomme(Double consommationSomme) { this.consommationSomme = consommationSomme; }
+
+    public Long getConsommationNombre() { return consommationNombre; }
+    public void setConsommationNombre(Long consommationNombre) { this.consommationNombre = consommationNombre; }
+}
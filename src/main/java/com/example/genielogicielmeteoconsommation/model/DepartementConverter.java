@@ -0,0 +1,22 @@
+package com.example.genielogicielmeteoconsommation.model;
+
+import com.example.genielogicielmeteoconsommation.support.GrandEstReference;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Departement stocke en smallint ("08" en base vaut 8).
+ */
+@Converter
+public class DepartementConverter implements AttributeConverter<String, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(String departement) {
+        return departement == null ? null : GrandEstReference.departmentNumber(departement);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Short number) {
+        return number == null ? null : GrandEstReference.departmentOfNumber(number);
+    }
+}
@@ -1,21 +1,37 @@
 package com.example.genielogicielmeteoconsommation.model;
 
+import com.example.genielogicielmeteoconsommation.support.EpochMinute;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Formula;
 import java.time.LocalDate;
 import java.time.LocalTime;
 
+/**
+ * Releve horaire d'une station. En base (table releve_meteo) le departement est un smallint,
+ * la station une reference vers station_meteo et le couple date/heure un horodatage en
+ * minutes ({@link EpochMinute}); l'objet garde les valeurs lisibles pour les imports.
+ * Le code de station est relu dans station_meteo au chargement et n'est jamais ecrit par JPA.
+ */
 @Entity
-@Table(name = "donnees_meteo")
+@Table(name = "releve_meteo")
 public class DonneesMeteo {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Convert(converter = DepartementConverter.class)
     private String departement; // Ex: "08", "54", etc.
+
+    @Formula("(SELECT station_meteo.code FROM station_meteo WHERE station_meteo.id = station_id)")
     private String station;     // Le code NUM_POSTE de la station
 
+    @Column(name = "station_id")
+    private Integer stationId;  // Resolu par StationDictionary a l'ecriture
+
+    @Transient
     private LocalDate date;
+    @Transient
     private LocalTime heure;
 
     private Double temperature;    // Colonne T
@@ -36,6 +52,20 @@ public class DonneesMeteo {
     public String getStation() { return station; }
     public void setStation(String station) { this.station = station; }
 
+    public Integer getStationId() { return stationId; }
+    public void setStationId(Integer stationId) { this.stationId = stationId; }
+
+    @Access(AccessType.PROPERTY)
+    @Column(name = "horodatage")
+    public Integer getHorodatage() {
+        return date == null || heure == null ? null : EpochMinute.of(date, heure);
+    }
+
+    public void setHorodatage(Integer horodatage) {
+        this.date = horodatage == null ? null : EpochMinute.date(horodatage);
+        this.heure = horodatage == null ? null : EpochMinute.time(horodatage);
+    }
+
     public LocalDate getDate() { return date; }
     public void setDate(LocalDate date) { this.date = date; }
 
@@ -0,0 +1,89 @@
+package com.example.genielogicielmeteoconsommation.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Agregat meteo par heure et par departement, recalcule a chaque import a partir de
+ * releve_meteo. Sommes et effectifs plutot que moyennes: n'importe quelle selection de
+ * departements se recompose en additionnant les lignes.
+ */
+@Entity
+@Table(
+        name = "meteo_horaire",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"departement", "date", "heure"})
+)
+public class MeteoHoraire {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String departement;
+    private LocalDate date;
+    private LocalTime heure;
+
+    private Long nombreLignes;
+
+    private Double temperatureSomme;
+    private Long temperatureNombre;
+    private Double temperatureMin;
+    private Double temperatureMax;
+
+    private Double humiditeSomme;
+    private Long humiditeNombre;
+
+    private Double precipitationsSomme;
+    private Long precipitationsNombre;
+
+    private Double ventSomme;
+    private Long ventNombre;
+
+    public MeteoHoraire() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getDepartement() { return departement; }
+    public void setDepartement(String departement) { this.departement = departement; }
+
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+
+    public LocalTime getHeure() { return heure; }
+    public void setHeure(LocalTime heure) { this.heure = heure; }
+
+    public Long getNombreLignes() { return nombreLignes; }
+    public void setNombreLignes(Long nombreLignes) { this.nombreLignes = nombreLignes; }
+
+    public Double getTemperatureSomme() { return temperatureSomme; }
+    public void setTemperatureSomme(Double temperatureSomme) { this.temperatureSomme = temperatureSomme; }
+
+    public Long getTemperatureNombre() { return temperatureNombre; }
+    public void setTemperatureNombre(Long temperatureNombre) { this.temperatureNombre = temperatureNombre; }
+
+    public Double getTemperatureMin() { return temperatureMin; }
+    public void setTemperatureMin(Double temperatureMin) { this.temperatureMin = temperatureMin; }
+
+    public Double getTemperatureMax() { return temperatureMax; }
+    public void setTemperatureMax(Double temperatureMax) { this.temperatureMax = temperatureMax; }
+
+    public Double getHumiditeSomme() { return humiditeSomme; }
+    public void setHumiditeSomme(Double humiditeSomme) { this.humiditeSomme = humiditeSomme; }
+
+    public Long getHumiditeNombre() { return humiditeNombre; }
+    public void setHumiditeNombre(Long humiditeNombre) { this.humiditeNombre = humiditeNombre; }
+
+    public Double getPrecipitationsSomme() { return precipitationsSomme; }
+    public void setPrecipitationsSomme(Double precipitationsSomme) { this.precipitationsSomme = precipitationsSomme; }
+
+    public Long getPrecipitationsNombre() { return precipitationsNombre; }
+    public void setPrecipitationsNombre(Long precipitationsNombre) { this.precipitationsNombre = precipitationsNombre; }
+
+    public Double getVentSomme() { return ventSomme; }
+    public void setVentSomme(Double ventSomme) { this.ventSomme = ventSomme; }
+
+    public Long getVentNombre() { return ventNombre; }
+    public void setVentNombre(Long ventNombre) { this.ventNombre = ventNombre; }
+}
@@ -0,0 +1,43 @@
+package com.example.genielogicielmeteoconsommation.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Jours couverts par chaque station, pour compter les stations actives sans relire les
+ * releves horaires.
+ */
+@Entity
+@Table(
+        name = "meteo_station_jour",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"departement", "station", "date"})
+)
+public class MeteoStationJour {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String departement;
+    private String station;
+    private LocalDate date;
+
+    private Long nombreLignes;
+
+    public MeteoStationJour() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getDepartement() { return departement; }
+    public void setDepartement(String departement) { this.departement = departement; }
+
+    public String getStation() { return station; }
+    public void setStation(String station) { this.station = station; }
+
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+
+    public Long getNombreLignes() { return nombreLignes; }
+    public void setNombreLignes(Long nombreLignes) { this.nombreLignes = nombreLignes; }
+}
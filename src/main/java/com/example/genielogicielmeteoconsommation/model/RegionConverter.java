@@ -0,0 +1,22 @@
+package com.example.genielogicielmeteoconsommation.model;
+
+import com.example.genielogicielmeteoconsommation.support.GrandEstReference;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Region stockee en smallint (code de {@link GrandEstReference#regionCode(String)}).
+ */
+@Converter
+public class RegionConverter implements AttributeConverter<String, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(String region) {
+        return region == null ? null : GrandEstReference.regionCode(region);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Short code) {
+        return code == null ? null : GrandEstReference.regionOfCode(code);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.genielogicielmeteoconsommation.repository;
+
+import com.example.genielogicielmeteoconsommation.model.ConsommationHoraire;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ConsommationHoraireRepository extends JpaRepository<ConsommationHoraire, Long> {
+
+    @Query("""
+            SELECT new com.example.genielogicielmeteoconsommation.repository.HourlyConsumptionAggregate(
+                c.date, c.heure, c.region, c.nombreLignes, c.consommationSomme, c.consommationNombre)
+            FROM ConsommationHoraire c
+            WHERE c.date BETWEEN :startDate AND :endDate
+            """)
+    List<HourlyConsumptionAggregate> findHourlyAggregates(LocalDate startDate, LocalDate endDate);
+}
@@ -0,0 +1,14 @@
+package com.example.genielogicielmeteoconsommation.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public record HourlyConsumptionAggregate(
+        LocalDate date,
+        LocalTime heure,
+        String region,
+        Long rowCount,
+        Double consommationSum,
+        Long consommationCount
+) {
+}
@@ -0,0 +1,26 @@
+package com.example.genielogicielmeteoconsommation.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Moyennes meteo pre-agregees par heure et par departement: sommes et effectifs de chaque
+ * mesure, pour pouvoir recomposer n'importe quelle selection de departements.
+ */
+public record HourlyWeatherAggregate(
+        LocalDate date,
+        LocalTime heure,
+        String departement,
+        Long rowCount,
+        Double temperatureSum,
+        Long temperatureCount,
+        Double temperatureMin,
+        Double temperatureMax,
+        Double humiditeSum,
+        Long humiditeCount,
+        Double precipitationsSum,
+        Long precipitationsCount,
+        Double ventSum,
+        Long ventCount
+) {
+}
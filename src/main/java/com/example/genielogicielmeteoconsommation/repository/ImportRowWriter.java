@@ -0,0 +1,68 @@
+package com.example.genielogicielmeteoconsommation.repository;
+
+import com.example.genielogicielmeteoconsommation.model.ConsommationElectrique;
+import com.example.genielogicielmeteoconsommation.model.DonneesMeteo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Point d'entree unique des imports pour l'ecriture en base. La strategie COPY n'est
+ * utilisable que sur PostgreSQL: ailleurs (H2 en local) on retombe sur les lots d'INSERT.
+ */
+@Repository
+public class ImportRowWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImportRowWriter.class);
+
+    private final JdbcBatchInsertWriter batchInsertWriter;
+    private final PostgresCopyWriter copyWriter;
+    private final StationDictionary stationDictionary;
+    private final IngestStrategy defaultStrategy;
+
+    public ImportRowWriter(
+            JdbcBatchInsertWriter batchInsertWriter,
+            PostgresCopyWriter copyWriter,
+            StationDictionary stationDictionary,
+            @Value("${app.import.ingest-strategy:BATCH_INSERT}") IngestStrategy defaultStrategy
+    ) {
+        this.batchInsertWriter = batchInsertWriter;
+        this.copyWriter = copyWriter;
+        this.stationDictionary = stationDictionary;
+        this.defaultStrategy = defaultStrategy;
+    }
+
+    public IngestStrategy defaultStrategy() {
+        return defaultStrategy;
+    }
+
+    public IngestStrategy resolve(IngestStrategy requestedStrategy) {
+        IngestStrategy strategy = requestedStrategy != null ? requestedStrategy : defaultStrategy;
+        if (strategy == IngestStrategy.COPY && !copyWriter.isSupported()) {
+            LOGGER.warn("COPY indisponible sur cette base, import par lots d'INSERT.");
+            return IngestStrategy.BATCH_INSERT;
+        }
+        return strategy;
+    }
+
+    public void writeMeteo(List<DonneesMeteo> rows, IngestStrategy strategy) {
+        // Hors transaction du lot: une station enregistree reste connue meme si le lot echoue.
+        stationDictionary.resolve(rows);
+        if (strategy == IngestStrategy.COPY) {
+            copyWriter.copyMeteo(rows);
+        } else {
+            batchInsertWriter.insertMeteo(rows);
+        }
+    }
+
+    public void writeConsommation(List<ConsommationElectrique> rows, IngestStrategy strategy) {
+        if (strategy == IngestStrategy.COPY) {
+            copyWriter.copyConsommation(rows);
+        } else {
+            batchInsertWriter.insertConsommation(rows);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.genielogicielmeteoconsommation.repository;
+
+public enum IngestStrategy {
+    /** Lots d'INSERT JDBC, disponible sur toutes les bases. */
+    BATCH_INSERT,
+    /** {@code COPY ... FROM STDIN} via le CopyManager PgJDBC, PostgreSQL uniquement. */
+    COPY
+}
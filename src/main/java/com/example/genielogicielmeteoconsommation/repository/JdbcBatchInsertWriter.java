@@ -0,0 +1,73 @@
+package com.example.genielogicielmeteoconsommation.repository;
+
+import com.example.genielogicielmeteoconsommation.model.ConsommationElectrique;
+import com.example.genielogicielmeteoconsommation.model.DonneesMeteo;
+import com.example.genielogicielmeteoconsommation.support.GrandEstReference;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Ecriture des lignes importees par lots JDBC, sans passer par Hibernate: avec un identifiant
+ * IDENTITY, {@code saveAll} emet un INSERT par ligne alors qu'ici chaque lot part en un seul
+ * aller-retour. L'identifiant reste genere par la base.
+ */
+@Repository
+public class JdbcBatchInsertWriter {
+
+    private static final String INSERT_METEO = """
+            INSERT INTO releve_meteo (departement, station_id, horodatage, temperature, humidite, precipitations, vent)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final String INSERT_CONSOMMATION = """
+            INSERT INTO releve_consommation (region, horodatage, consommation_mw)
+            VALUES (?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public JdbcBatchInsertWriter(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.import.batch-size:5000}") int batchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Transactional
+    public void insertMeteo(List<DonneesMeteo> rows) {
+        jdbcTemplate.batchUpdate(INSERT_METEO, rows, batchSize, (statement, row) -> {
+            statement.setShort(1, GrandEstReference.departmentNumber(row.getDepartement()));
+            statement.setObject(2, row.getStationId(), Types.INTEGER);
+            statement.setObject(3, row.getHorodatage(), Types.INTEGER);
+            setNullableDouble(statement, 4, row.getTemperature());
+            setNullableDouble(statement, 5, row.getHumidite());
+            setNullableDouble(statement, 6, row.getPrecipitations());
+            setNullableDouble(statement, 7, row.getVent());
+        });
+    }
+
+    @Transactional
+    public void insertConsommation(List<ConsommationElectrique> rows) {
+        jdbcTemplate.batchUpdate(INSERT_CONSOMMATION, rows, batchSize, (statement, row) -> {
+            statement.setShort(1, GrandEstReference.regionCode(row.getRegion()));
+            statement.setObject(2, row.getHorodatage(), Types.INTEGER);
+            setNullableDouble(statement, 3, row.getConsommationMw());
+        });
+    }
+
+    private static void setNullableDouble(PreparedStatement statement, int index, Double value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.DOUBLE);
+        } else {
+            statement.setDouble(index, value);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.genielogicielmeteoconsommation.repository;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reprise d'une base H2 creee avant l'encodage des cles (tables donnees_meteo et
+ * consommation_electrique): les releves sont recopies dans releve_meteo et
+ * releve_consommation, puis les anciennes tables sont supprimees. Une table absente des
+ * INFORMATION_SCHEMA n'est pas reprise: une fois la reprise faite, les demarrages suivants
+ * ne touchent a rien. Sous PostgreSQL, le bloc DO de schema-postgresql.sql fait la meme reprise.
+ */
+@Component
+@DependsOnDatabaseInitialization
+@ConditionalOnProperty(name = "spring.sql.init.platform", havingValue = "h2")
+public class LegacyReleveMigration {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LegacyReleveMigration.class);
+
+    private static final String COPY_STATIONS = """
+            INSERT INTO station_meteo (code, departement)
+            SELECT station, MIN(CAST(departement AS SMALLINT))
+            FROM donnees_meteo
+            WHERE station IS NOT NULL AND station NOT IN (SELECT code FROM station_meteo)
+            GROUP BY station
+            """;
+    private static final String COPY_METEO = """
+            INSERT INTO releve_meteo (station_id, departement, horodatage, temperature, humidite, precipitations, vent)
+            SELECT station_meteo.id, CAST(donnees_meteo.departement AS SMALLINT),
+                DATEDIFF('DAY', DATE '1970-01-01', date) * 1440
+                    + COALESCE(EXTRACT(HOUR FROM heure) * 60 + EXTRACT(MINUTE FROM heure), 0),
+                temperature, humidite, precipitations, vent
+            FROM donnees_meteo LEFT JOIN station_meteo ON station_meteo.code = donnees_meteo.station
+            WHERE date IS NOT NULL
+            """;
+    private static final String COPY_CONSOMMATION = """
+            INSERT INTO releve_consommation (region, horodatage, consommation_mw)
+            SELECT CASE region
+                    WHEN 'Grand Est' THEN 1 WHEN 'France' THEN 2 WHEN 'Alsace' THEN 3
+                    WHEN 'Champagne-Ardenne' THEN 4 WHEN 'Lorraine' THEN 5 END,
+                DATEDIFF('DAY', DATE '1970-01-01', date) * 1440
+                    + COALESCE(EXTRACT(HOUR FROM heure) * 60 + EXTRACT(MINUTE FROM heure), 0),
+                consommation_mw
+            FROM consommation_electrique
+            WHERE date IS NOT NULL
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LegacyReleveMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (tableExists("donnees_meteo")) {
+            jdbcTemplate.update(COPY_STATIONS);
+            int rows = jdbcTemplate.update(COPY_METEO);
+            jdbcTemplate.execute("DROP TABLE donnees_meteo");
+            LOGGER.info("Reprise de donnees_meteo: {} releves recopies dans releve_meteo.", rows);
+        }
+        if (tableExists("consommation_electrique")) {
+            int rows = jdbcTemplate.update(COPY_CONSOMMATION);
+            jdbcTemplate.execute("DROP TABLE consommation_electrique");
+            LOGGER.info("Reprise de consommation_electrique: {} releves recopies dans releve_consommation.", rows);
+        }
+    }
+
+    private boolean tableExists(String tableName) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = CURRENT_SCHEMA AND UPPER(TABLE_NAME) = UPPER(?)",
+                Integer.class,
+                tableName
+        );
+        return count != null && count > 0;
+    }
+}
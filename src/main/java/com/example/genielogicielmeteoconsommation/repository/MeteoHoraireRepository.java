@@ -0,0 +1,25 @@
+package com.example.genielogicielmeteoconsommation.repository;
+
+import com.example.genielogicielmeteoconsommation.model.MeteoHoraire;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface MeteoHoraireRepository extends JpaRepository<MeteoHoraire, Long> {
+
+    @Query("""
+            SELECT new com.example.genielogicielmeteoconsommation.repository.HourlyWeatherAggregate(
+                m.date, m.heure, m.departement, m.nombreLignes,
+                m.temperatureSomme, m.temperatureNombre, m.temperatureMin, m.temperatureMax,
+                m.humiditeSomme, m.humiditeNombre,
+                m.precipitationsSomme, m.precipitationsNombre,
+                m.ventSomme, m.ventNombre)
+            FROM MeteoHoraire m
+            WHERE m.date BETWEEN :startDate AND :endDate
+            """)
+    List<HourlyWeatherAggregate> findHourlyAggregates(LocalDate startDate, LocalDate endDate);
+}
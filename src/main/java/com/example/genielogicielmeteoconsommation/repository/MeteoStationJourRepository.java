@@ -0,0 +1,21 @@
+package com.example.genielogicielmeteoconsommation.repository;
+
+import com.example.genielogicielmeteoconsommation.model.MeteoStationJour;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface MeteoStationJourRepository extends JpaRepository<MeteoStationJour, Long> {
+
+    @Query("""
+            SELECT new com.example.genielogicielmeteoconsommation.repository.StationDay(
+                s.departement, s.station, s.date)
+            FROM MeteoStationJour s
+            WHERE s.date BETWEEN :startDate AND :endDate
+            """)
+    List<StationDay> findStationDays(LocalDate startDate, LocalDate endDate);
+}
@@ -0,0 +1,113 @@
+package com.example.genielogicielmeteoconsommation.repository;
+
+import com.example.genielogicielmeteoconsommation.model.ConsommationElectrique;
+import com.example.genielogicielmeteoconsommation.model.DonneesMeteo;
+import com.example.genielogicielmeteoconsommation.support.GrandEstReference;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Ecriture des lots par {@code COPY ... FROM STDIN} (format CSV) sur PostgreSQL.
+ * Un champ vide non quote est lu comme NULL par COPY.
+ */
+@Repository
+public class PostgresCopyWriter {
+
+    private static final String COPY_METEO = """
+            COPY releve_meteo (departement, station_id, horodatage, temperature, humidite, precipitations, vent)
+            FROM STDIN WITH (FORMAT csv)
+            """;
+    private static final String COPY_CONSOMMATION = """
+            COPY releve_consommation (region, horodatage, consommation_mw)
+            FROM STDIN WITH (FORMAT csv)
+            """;
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[BUFFER_BYTES]);
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean supported;
+
+    public PostgresCopyWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isSupported() {
+        Boolean currentValue = supported;
+        if (currentValue == null) {
+            currentValue = Boolean.TRUE.equals(jdbcTemplate.execute(
+                    (ConnectionCallback<Boolean>) connection -> connection.isWrapperFor(PGConnection.class)
+            ));
+            supported = currentValue;
+        }
+        return currentValue;
+    }
+
+    @Transactional
+    public void copyMeteo(List<DonneesMeteo> rows) {
+        copy(COPY_METEO, rows, (row, line) -> {
+            line.append(GrandEstReference.departmentNumber(row.getDepartement())).append(',');
+            appendValue(line, row.getStationId()).append(',');
+            appendValue(line, row.getHorodatage()).append(',');
+            appendValue(line, row.getTemperature()).append(',');
+            appendValue(line, row.getHumidite()).append(',');
+            appendValue(line, row.getPrecipitations()).append(',');
+            appendValue(line, row.getVent()).append('\n');
+        });
+    }
+
+    @Transactional
+    public void copyConsommation(List<ConsommationElectrique> rows) {
+        copy(COPY_CONSOMMATION, rows, (row, line) -> {
+            line.append(GrandEstReference.regionCode(row.getRegion())).append(',');
+            appendValue(line, row.getHorodatage()).append(',');
+            appendValue(line, row.getConsommationMw()).append('\n');
+        });
+    }
+
+    /**
+     * Envoie les lignes au fil de l'eau: chaque ligne est formatee dans un tampon d'octets
+     * reutilise par le thread, transmis au serveur des qu'il est plein. Les valeurs sont
+     * numeriques, donc en ASCII.
+     */
+    private <T> void copy(String sql, List<T> rows, BiConsumer<T, StringBuilder> format) {
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+            try {
+                byte[] buffer = BUFFERS.get();
+                int length = 0;
+                StringBuilder line = new StringBuilder(64);
+                for (T row : rows) {
+                    line.setLength(0);
+                    format.accept(row, line);
+                    if (length + line.length() > buffer.length) {
+                        copyIn.writeToCopy(buffer, 0, length);
+                        length = 0;
+                    }
+                    for (int index = 0; index < line.length(); index++) {
+                        buffer[length++] = (byte) line.charAt(index);
+                    }
+                }
+                if (length > 0) {
+                    copyIn.writeToCopy(buffer, 0, length);
+                }
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        });
+    }
+
+    private static StringBuilder appendValue(StringBuilder line, Object value) {
+        return value == null ? line : line.append(value);
+    }
+}
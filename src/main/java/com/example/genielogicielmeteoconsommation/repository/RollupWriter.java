@@ -0,0 +1,167 @@
+package com.example.genielogicielmeteoconsommation.repository;
+
+import com.example.genielogicielmeteoconsommation.support.EpochMinute;
+import com.example.genielogicielmeteoconsommation.support.GrandEstReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Maintien des tables d'agregats (meteo_horaire, meteo_station_jour, consommation_horaire).
+ * Chaque rafraichissement supprime puis recalcule par un INSERT ... SELECT ... GROUP BY la
+ * plage touchee par un import: la base fait l'agregation, aucune ligne brute ne remonte
+ * dans l'application. Les rafraichissements sont serialises pour que deux imports d'un meme
+ * departement ne se croisent pas entre la suppression et l'insertion: le verrou est pris
+ * avant l'ouverture de la transaction et rendu apres sa validation.
+ * Les releves sont groupes sur leurs cles compactes (numeros, horodatage en minutes); les
+ * agregats gardent des codes et des date/heure lisibles.
+ */
+@Repository
+public class RollupWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RollupWriter.class);
+
+    private static final String DEPARTEMENT = "LPAD(CAST(departement AS VARCHAR(2)), 2, '0')";
+    private static final String DATE = "DATE '1970-01-01' + (horodatage - MOD(horodatage, 1440)) / 1440";
+    private static final String HEURE = "TIME '00:00:00' + MOD(horodatage, 1440) * INTERVAL '1' MINUTE";
+
+    private static final String INSERT_METEO_HORAIRE = """
+            INSERT INTO meteo_horaire (departement, date, heure, nombre_lignes,
+                temperature_somme, temperature_nombre, temperature_min, temperature_max,
+                humidite_somme, humidite_nombre, precipitations_somme, precipitations_nombre,
+                vent_somme, vent_nombre)
+            SELECT %s, %s, %s, COUNT(*),
+                SUM(temperature), COUNT(temperature), MIN(temperature), MAX(temperature),
+                SUM(humidite), COUNT(humidite), SUM(precipitations), COUNT(precipitations),
+                SUM(vent), COUNT(vent)
+            FROM releve_meteo
+            """.formatted(DEPARTEMENT, DATE, HEURE);
+    // Le jour est calcule dans une sous-requete pour grouper sur une colonne simple.
+    private static final String INSERT_METEO_STATION_JOUR = """
+            INSERT INTO meteo_station_jour (departement, station, date, nombre_lignes)
+            SELECT LPAD(CAST(departement AS VARCHAR(2)), 2, '0'), code, DATE '1970-01-01' + jour, COUNT(*)
+            FROM (
+                SELECT releve_meteo.departement, station_meteo.code,
+                    (horodatage - MOD(horodatage, 1440)) / 1440 AS jour
+                FROM releve_meteo JOIN station_meteo ON station_meteo.id = releve_meteo.station_id
+            """;
+    private static final String INSERT_CONSOMMATION_HORAIRE = """
+            INSERT INTO consommation_horaire (region, date, heure, nombre_lignes,
+                consommation_somme, consommation_nombre)
+            SELECT CASE region %s END, %s, %s, COUNT(*), SUM(consommation_mw), COUNT(consommation_mw)
+            FROM releve_consommation
+            """.formatted(regionNames(), DATE, HEURE);
+    private static final String WEATHER_SCOPE = """
+             WHERE releve_meteo.departement IN (:departements) AND horodatage BETWEEN :firstMinute AND :lastMinute
+            """;
+    private static final String TIME_SCOPE = """
+             WHERE horodatage BETWEEN :firstMinute AND :lastMinute
+            """;
+    private static final String ROLLUP_WEATHER_SCOPE = """
+             WHERE departement IN (:departementCodes) AND date BETWEEN :startDate AND :endDate
+            """;
+    private static final String ROLLUP_DATE_SCOPE = """
+             WHERE date BETWEEN :startDate AND :endDate
+            """;
+    private static final String STATION_DAY_GROUPING = ") releves GROUP BY departement, code, jour";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    public RollupWriter(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void refreshWeather(Collection<String> departements, LocalDate startDate, LocalDate endDate) {
+        if (departements.isEmpty()) {
+            return;
+        }
+
+        MapSqlParameterSource parameters = dateParameters(startDate, endDate)
+                .addValue("departementCodes", departements)
+                .addValue("departements", departements.stream().map(GrandEstReference::departmentNumber).toList());
+        inRefreshTransaction(() -> {
+            jdbcTemplate.update("DELETE FROM meteo_horaire" + ROLLUP_WEATHER_SCOPE, parameters);
+            jdbcTemplate.update("DELETE FROM meteo_station_jour" + ROLLUP_WEATHER_SCOPE, parameters);
+            jdbcTemplate.update(INSERT_METEO_HORAIRE + WEATHER_SCOPE + " GROUP BY departement, horodatage", parameters);
+            jdbcTemplate.update(INSERT_METEO_STATION_JOUR + WEATHER_SCOPE + STATION_DAY_GROUPING, parameters);
+        });
+    }
+
+    public void refreshConsumption(LocalDate startDate, LocalDate endDate) {
+        MapSqlParameterSource parameters = dateParameters(startDate, endDate);
+        inRefreshTransaction(() -> {
+            jdbcTemplate.update("DELETE FROM consommation_horaire" + ROLLUP_DATE_SCOPE, parameters);
+            jdbcTemplate.update(INSERT_CONSOMMATION_HORAIRE + TIME_SCOPE + " GROUP BY region, horodatage", parameters);
+        });
+    }
+
+    public void clearConsumption() {
+        inRefreshTransaction(() -> jdbcTemplate.getJdbcTemplate().update("DELETE FROM consommation_horaire"));
+    }
+
+    /**
+     * Reconstruit les agregats d'une base alimentee avant leur introduction: lignes brutes
+     * presentes mais tables d'agregats vides.
+     */
+    public void rebuildIfMissing() {
+        inRefreshTransaction(() -> {
+            if (isEmpty("meteo_horaire") && !isEmpty("releve_meteo")) {
+                LOGGER.info("Agregats meteo absents: reconstruction depuis releve_meteo.");
+                jdbcTemplate.getJdbcTemplate().update("DELETE FROM meteo_station_jour");
+                jdbcTemplate.getJdbcTemplate().update(INSERT_METEO_HORAIRE + " GROUP BY departement, horodatage");
+                jdbcTemplate.getJdbcTemplate().update(INSERT_METEO_STATION_JOUR + STATION_DAY_GROUPING);
+            }
+            if (isEmpty("consommation_horaire") && !isEmpty("releve_consommation")) {
+                LOGGER.info("Agregats de consommation absents: reconstruction depuis releve_consommation.");
+                jdbcTemplate.getJdbcTemplate().update(INSERT_CONSOMMATION_HORAIRE + " GROUP BY region, horodatage");
+            }
+        });
+    }
+
+    /**
+     * Execute un rafraichissement dans sa propre transaction, sous le verrou: un
+     * synchronized sur une methode @Transactional rendrait le verrou avant la validation,
+     * laissant un second rafraichissement supprimer puis inserer des lignes encore non validees.
+     */
+    private void inRefreshTransaction(Runnable work) {
+        refreshLock.lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> work.run());
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private static MapSqlParameterSource dateParameters(LocalDate startDate, LocalDate endDate) {
+        return new MapSqlParameterSource()
+                .addValue("startDate", startDate)
+                .addValue("endDate", endDate)
+                .addValue("firstMinute", EpochMinute.startOf(startDate))
+                .addValue("lastMinute", EpochMinute.endOf(endDate));
+    }
+
+    // Les agregats de consommation gardent le nom de la region: decodage dans la requete.
+    private static String regionNames() {
+        StringBuilder cases = new StringBuilder();
+        for (String region : GrandEstReference.IMPORT_REGIONS) {
+            cases.append("WHEN ").append(GrandEstReference.regionCode(region))
+                    .append(" THEN '").append(region).append("' ");
+        }
+        return cases.toString();
+    }
+
+    private boolean isEmpty(String table) {
+        return jdbcTemplate.getJdbcTemplate().queryForList("SELECT 1 FROM " + table + " LIMIT 1").isEmpty();
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.genielogicielmeteoconsommation.repository;
+
+import java.time.LocalDate;
+
+public record StationDay(String departement, String station, LocalDate date) {
+}
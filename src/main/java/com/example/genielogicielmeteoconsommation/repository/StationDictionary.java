@@ -0,0 +1,66 @@
+package com.example.genielogicielmeteoconsommation.repository;
+
+import com.example.genielogicielmeteoconsommation.model.DonneesMeteo;
+import com.example.genielogicielmeteoconsommation.support.GrandEstReference;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionnaire des stations meteo (table station_meteo): chaque code NUM_POSTE recoit un
+ * identifiant entier, seul stocke dans releve_meteo. Les identifiants deja connus restent en
+ * memoire; une station nouvelle est inseree lors de sa premiere apparition dans un lot.
+ * {@code ON CONFLICT DO NOTHING} est compris par PostgreSQL et par H2 en mode PostgreSQL.
+ */
+@Repository
+public class StationDictionary {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Integer> idsByCode = new ConcurrentHashMap<>();
+
+    public StationDictionary(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Renseigne l'identifiant de station de chaque ligne du lot.
+     */
+    public void resolve(List<DonneesMeteo> rows) {
+        for (DonneesMeteo row : rows) {
+            if (row.getStation() == null) {
+                row.setStationId(null);
+                continue;
+            }
+            Integer id = idsByCode.get(row.getStation());
+            row.setStationId(id != null ? id : register(row.getStation(), row.getDepartement()));
+        }
+    }
+
+    /**
+     * Insertion idempotente: deux ecrivains, dans cette instance ou dans une autre, peuvent
+     * rencontrer la meme station nouvelle. Le perdant ne fait rien puis relit l'identifiant
+     * insere par l'autre.
+     */
+    private int register(String code, String departement) {
+        List<Integer> ids = findId(code);
+        if (ids.isEmpty()) {
+            jdbcTemplate.update(
+                    "INSERT INTO station_meteo (code, departement) VALUES (?, ?) ON CONFLICT DO NOTHING",
+                    code,
+                    departement == null ? null : GrandEstReference.departmentNumber(departement)
+            );
+            ids = findId(code);
+        }
+
+        int id = ids.get(0);
+        idsByCode.put(code, id);
+        return id;
+    }
+
+    private List<Integer> findId(String code) {
+        return jdbcTemplate.queryForList("SELECT id FROM station_meteo WHERE code = ?", Integer.class, code);
+    }
+}
@@ -1,91 +1,430 @@
 package com.example.genielogicielmeteoconsommation.service;
 
 import com.example.genielogicielmeteoconsommation.dto.DashboardOverviewResponse;
+import com.example.genielogicielmeteoconsommation.dto.EstimateBatchRequest;
+import com.example.genielogicielmeteoconsommation.dto.EstimateBatchResponse;
 import com.example.genielogicielmeteoconsommation.dto.EstimateRequest;
 import com.example.genielogicielmeteoconsommation.dto.EstimateResponse;
-import com.example.genielogicielmeteoconsommation.model.ConsommationElectrique;
-import com.example.genielogicielmeteoconsommation.model.DonneesMeteo;
-import com.example.genielogicielmeteoconsommation.repository.ConsommationElectriqueRepository;
-import com.example.genielogicielmeteoconsommation.repository.DonneesMeteoRepository;
+import com.example.genielogicielmeteoconsommation.dto.OverviewSection;
 import com.example.genielogicielmeteoconsommation.support.GrandEstReference;
+import com.example.genielogicielmeteoconsommation.support.WeightedLruCache;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.Month;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
+import java.util.EnumSet;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Service
 public class DashboardService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(DashboardService.class);
     private static final DateTimeFormatter PERIOD_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
     private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
     private static final double COLD_THRESHOLD = 5.0;
     private static final double WARM_THRESHOLD = 20.0;
     private static final double TEMPERATURE_BUCKET_SIZE = 2.0;
-    private static final long OVERVIEW_CACHE_TTL_MILLIS = 10 * 60 * 1000L;
-
-    private final ConsommationElectriqueRepository consommationRepository;
-    private final DonneesMeteoRepository meteoRepository;
-    private final Map<OverviewCacheKey, CachedOverview> overviewCache = new ConcurrentHashMap<>();
+    private static final List<String> SEASON_CODES = List.of("WINTER", "SPRING", "SUMMER", "AUTUMN");
+    private static final List<String> REGRESSION_FEATURES = List.of("temperature", "humidity", "wind", "precipitations");
+    private static final int MAX_BATCH_ESTIMATES = 250_000;
+    // Recalculs en arriere-plan des reponses perimees, hors du thread de purge du cache.
+    private static final int REVALIDATION_THREADS = 2;
+    private static final Set<OverviewSection> ALL_SECTIONS = Collections.unmodifiableSet(EnumSet.allOf(OverviewSection.class));
+    private static final String MODEL_UNAVAILABLE_MESSAGE =
+            "Le modele n'est pas disponible. Importez des donnees meteo et consommation compatibles.";
+
+    private final HourlySeriesStore hourlySeriesStore;
+    private final WeightedLruCache<OverviewCacheKey, DashboardOverviewResponse> overviewCache;
+    // Modeles seuls (coefficients arrondis), pour estimer sans construire la synthese complete.
+    private final WeightedLruCache<OverviewCacheKey, DashboardOverviewResponse.RegressionModel> modelCache;
+    private final ScheduledExecutorService cacheMaintenance;
+    private final ExecutorService overviewRevalidation;
+    private final Map<OverviewCacheKey, CompletableFuture<DashboardOverviewResponse>> overviewsInFlight =
+            new ConcurrentHashMap<>();
+    // Incremente a chaque vidage du cache: un calcul lance avant ne doit pas y reinjecter son resultat.
+    private final AtomicLong cacheGeneration = new AtomicLong();
+    private final Map<Integer, OverviewPartials> partialsBySelection;
+    // Mode parallele (app.dashboard.parallel.enabled): null quand les calculs restent sur le
+    // thread de la requete.
+    private final ExecutorService sectionExecutor;
+    private final int parallelChunkDays;
 
     public DashboardService(
-            ConsommationElectriqueRepository consommationRepository,
-            DonneesMeteoRepository meteoRepository
+            HourlySeriesStore hourlySeriesStore,
+            @Value("${app.dashboard.partials.max-selections:16}") int maxPartialSelections,
+            @Value("${app.dashboard.cache.max-weight:200000}") long cacheMaxWeight,
+            @Value("${app.dashboard.cache.ttl-minutes:10}") long cacheTtlMinutes,
+            @Value("${app.dashboard.cache.stale-minutes:5}") long cacheStaleMinutes,
+            @Value("${app.dashboard.models.max-entries:1024}") long maxCachedModels,
+            @Value("${app.dashboard.parallel.enabled:false}") boolean parallelEnabled,
+            @Value("${app.dashboard.parallel.threads:0}") int parallelThreads,
+            @Value("${app.dashboard.parallel.chunk-days:31}") int parallelChunkDays
     ) {
-        this.consommationRepository = consommationRepository;
-        this.meteoRepository = meteoRepository;
+        this.hourlySeriesStore = hourlySeriesStore;
+        this.sectionExecutor = parallelEnabled
+                ? Executors.newFixedThreadPool(
+                        parallelThreads > 0 ? parallelThreads : Runtime.getRuntime().availableProcessors(),
+                        Thread.ofPlatform().name("overview-section-", 1).daemon().factory()
+                )
+                : null;
+        this.parallelChunkDays = Math.max(1, parallelChunkDays);
+        long cacheTtlMillis = TimeUnit.MINUTES.toMillis(cacheTtlMinutes);
+        this.overviewCache = new WeightedLruCache<>(
+                cacheMaxWeight,
+                cacheTtlMillis,
+                TimeUnit.MINUTES.toMillis(cacheStaleMinutes),
+                DashboardService::responseWeight
+        );
+        this.modelCache = new WeightedLruCache<>(maxCachedModels, cacheTtlMillis, 0L, model -> 1L);
+        // Purge des entrees expirees; les reponses perimees servies sont recalculees a part.
+        this.cacheMaintenance = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("overview-cache-maintenance").daemon().factory()
+        );
+        // Pas sur sectionExecutor: un recalcul y attendrait ses propres sections.
+        this.overviewRevalidation = Executors.newFixedThreadPool(
+                REVALIDATION_THREADS,
+                Thread.ofPlatform().name("overview-revalidation-", 1).daemon().factory()
+        );
+        long purgeIntervalMillis = Math.max(1_000L, cacheTtlMillis / 2);
+        this.cacheMaintenance.scheduleWithFixedDelay(
+                () -> {
+                    overviewCache.purgeExpired();
+                    modelCache.purgeExpired();
+                },
+                purgeIntervalMillis,
+                purgeIntervalMillis,
+                TimeUnit.MILLISECONDS
+        );
+        this.partialsBySelection = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, OverviewPartials> eldest) {
+                return size() > maxPartialSelections;
+            }
+        });
     }
 
     public DashboardOverviewResponse buildOverview(
             Collection<String> requestedDepartments,
             LocalDate requestedStartDate,
             LocalDate requestedEndDate
+    ) {
+        return buildOverview(requestedDepartments, requestedStartDate, requestedEndDate, null);
+    }
+
+    public DashboardOverviewResponse buildOverview(
+            Collection<String> requestedDepartments,
+            LocalDate requestedStartDate,
+            LocalDate requestedEndDate,
+            Integer maxPoints
+    ) {
+        return buildOverview(requestedDepartments, requestedStartDate, requestedEndDate, maxPoints, ALL_SECTIONS);
+    }
+
+    /**
+     * Comme {@link #buildOverview(Collection, LocalDate, LocalDate)} avec un nuage de points
+     * ramene a {@code maxPoints} points au plus. Le cache garde le nuage complet: le
+     * regroupement, lineaire en nombre de points, est refait a chaque appel.
+     * Seules les sections demandees sont calculees; les autres valent {@code null} et sont
+     * omises du JSON.
+     */
+    public DashboardOverviewResponse buildOverview(
+            Collection<String> requestedDepartments,
+            LocalDate requestedStartDate,
+            LocalDate requestedEndDate,
+            Integer maxPoints,
+            Set<OverviewSection> sections
+    ) {
+        Set<OverviewSection> requestedSections = sections == null ? ALL_SECTIONS : sections;
+        DashboardOverviewResponse response =
+                cachedOverview(requestedDepartments, requestedStartDate, requestedEndDate, requestedSections);
+        if (maxPoints == null || maxPoints <= 0
+                || response.scatterPoints() == null || response.scatterPoints().size() <= maxPoints) {
+            return response;
+        }
+
+        return new DashboardOverviewResponse(
+                response.filters(),
+                response.summary(),
+                response.coverage(),
+                response.narrativeHighlights(),
+                response.dailyTrends(),
+                response.departmentProfiles(),
+                response.departmentMonthlyTrends(),
+                response.temperatureBuckets(),
+                binScatterPoints(response.scatterPoints(), maxPoints),
+                response.seasonalComparisons(),
+                response.regressionModel(),
+                response.transparency()
+        );
+    }
+
+    private DashboardOverviewResponse cachedOverview(
+            Collection<String> requestedDepartments,
+            LocalDate requestedStartDate,
+            LocalDate requestedEndDate,
+            Set<OverviewSection> sections
     ) {
         LocalDateRange dateRange = normalizeDateRange(requestedStartDate, requestedEndDate);
-        List<String> departments = GrandEstReference.normalizeDepartments(requestedDepartments);
+        int departmentMask = GrandEstReference.departmentMask(requestedDepartments);
+        List<String> departments = GrandEstReference.departmentsOf(departmentMask);
         OverviewCacheKey cacheKey = new OverviewCacheKey(
                 dateRange.startDate(),
                 dateRange.endDate(),
-                List.copyOf(departments)
+                departmentMask,
+                sectionMask(sections)
         );
-        CachedOverview cachedOverview = overviewCache.get(cacheKey);
-        if (cachedOverview != null && !cachedOverview.isExpired()) {
-            return cachedOverview.response();
+        WeightedLruCache.Lookup<DashboardOverviewResponse> cached = overviewCache.getAllowStale(cacheKey);
+        if (cached == null) {
+            // Une reponse complete deja en cache contient toutes les sections demandees.
+            DashboardOverviewResponse complete = sections.equals(ALL_SECTIONS)
+                    ? null
+                    : overviewCache.get(cacheKey.withSections(sectionMask(ALL_SECTIONS)));
+            if (complete != null) {
+                return project(complete, sections);
+            }
+            return loadOverview(cacheKey, dateRange, departments, sections);
+        }
+        if (cached.stale()) {
+            revalidateInBackground(cacheKey, dateRange, departments, sections);
+        }
+        return cached.value();
+    }
+
+    /**
+     * Calcule la reponse d'une cle au plus une fois a la fois: les appels concurrents sur la
+     * meme cle attendent le calcul deja lance au lieu d'en demarrer un autre.
+     */
+    private DashboardOverviewResponse loadOverview(
+            OverviewCacheKey cacheKey,
+            LocalDateRange dateRange,
+            List<String> departments,
+            Set<OverviewSection> sections
+    ) {
+        CompletableFuture<DashboardOverviewResponse> pending = new CompletableFuture<>();
+        CompletableFuture<DashboardOverviewResponse> inFlight = overviewsInFlight.putIfAbsent(cacheKey, pending);
+        if (inFlight != null) {
+            return awaitResult(inFlight);
+        }
+
+        long generation = cacheGeneration.get();
+        try {
+            // Un calcul concurrent a pu se terminer entre la lecture du cache et l'inscription ci-dessus.
+            DashboardOverviewResponse response = overviewCache.get(cacheKey);
+            if (response == null) {
+                response = doBuildOverview(dateRange, departments, sections);
+                if (generation == cacheGeneration.get()) {
+                    overviewCache.put(cacheKey, response);
+                    if (response.regressionModel() != null) {
+                        modelCache.put(cacheKey.withSections(0), response.regressionModel());
+                    }
+                }
+            }
+            pending.complete(response);
+            return response;
+        } catch (RuntimeException | Error exception) {
+            pending.completeExceptionally(exception);
+            throw exception;
+        } finally {
+            overviewsInFlight.remove(cacheKey, pending);
+        }
+    }
+
+    private void revalidateInBackground(
+            OverviewCacheKey cacheKey,
+            LocalDateRange dateRange,
+            List<String> departments,
+            Set<OverviewSection> sections
+    ) {
+        if (overviewsInFlight.containsKey(cacheKey)) {
+            return;
+        }
+        try {
+            overviewRevalidation.execute(() -> {
+                try {
+                    loadOverview(cacheKey, dateRange, departments, sections);
+                } catch (RuntimeException exception) {
+                    LOGGER.warn("Recalcul en arriere-plan de la synthese impossible pour {}.", cacheKey, exception);
+                }
+            });
+        } catch (RejectedExecutionException exception) {
+            LOGGER.debug("Recalcul en arriere-plan ignore: service en cours d'arret.");
         }
+    }
 
-        DashboardOverviewResponse response = doBuildOverview(dateRange, departments);
-        overviewCache.put(cacheKey, new CachedOverview(response, System.currentTimeMillis()));
-        return response;
+    private static <T> T awaitResult(CompletableFuture<T> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (exception.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw exception;
+        }
     }
 
+    /**
+     * Oublie les reponses deja calculees. Les agregats journaliers restent en memoire: seuls
+     * les jours modifies depuis leur calcul seront relus dans le stockage horaire.
+     */
     public void clearOverviewCache() {
+        cacheGeneration.incrementAndGet();
         overviewCache.clear();
+        modelCache.clear();
+    }
+
+    public WeightedLruCache.Stats overviewCacheStats() {
+        return overviewCache.stats();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        cacheMaintenance.shutdownNow();
+        overviewRevalidation.shutdownNow();
+        if (sectionExecutor != null) {
+            sectionExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Lance un calcul independant: sur le pool en mode parallele, sinon tout de suite sur le
+     * thread courant. Le resultat se lit par {@link #awaitResult(CompletableFuture)}.
+     */
+    private <T> CompletableFuture<T> fork(Supplier<T> task) {
+        if (sectionExecutor == null) {
+            return CompletableFuture.completedFuture(task.get());
+        }
+        return CompletableFuture.supplyAsync(task, sectionExecutor);
+    }
+
+    /**
+     * Comme {@link #fork(Supplier)} pour un calcul qui depend du resultat de {@code source}:
+     * la tache n'est confiee au pool qu'une fois ce resultat disponible, aucun thread du pool
+     * ne l'attend.
+     */
+    private <T, R> CompletableFuture<R> forkAfter(CompletableFuture<T> source, Function<T, R> task) {
+        if (sectionExecutor == null) {
+            return CompletableFuture.completedFuture(task.apply(source.join()));
+        }
+        return source.thenApplyAsync(task, sectionExecutor);
+    }
+
+    /**
+     * Decoupe [firstDay, lastDay] en tranches de {@code parallelChunkDays} jours calculees en
+     * parallele; les resultats sont rendus dans l'ordre des jours. En mode sequentiel, ou si
+     * la plage tient dans une tranche, une seule tranche couvre toute la plage.
+     */
+    private <T> List<T> forEachChunk(int firstDay, int lastDay, ChunkTask<T> task) {
+        if (sectionExecutor == null || lastDay - firstDay + 1 <= parallelChunkDays) {
+            return Collections.singletonList(task.compute(firstDay, lastDay));
+        }
+
+        List<CompletableFuture<T>> chunks = new ArrayList<>();
+        for (int chunkFirst = firstDay; chunkFirst <= lastDay; chunkFirst += parallelChunkDays) {
+            int first = chunkFirst;
+            int last = Math.min(lastDay, chunkFirst + parallelChunkDays - 1);
+            chunks.add(fork(() -> task.compute(first, last)));
+        }
+        List<T> results = new ArrayList<>(chunks.size());
+        chunks.forEach(chunk -> results.add(awaitResult(chunk)));
+        return results;
+    }
+
+    @FunctionalInterface
+    private interface ChunkTask<T> {
+        T compute(int firstDay, int lastDay);
+    }
+
+    /**
+     * Poids d'une reponse en cache: un par point de serie ou de tableau renvoye, les
+     * nuages de points dominant largement le reste.
+     */
+    private static long responseWeight(DashboardOverviewResponse response) {
+        return 1L
+                + sizeOf(response.narrativeHighlights())
+                + sizeOf(response.dailyTrends())
+                + sizeOf(response.departmentProfiles())
+                + sizeOf(response.departmentMonthlyTrends())
+                + sizeOf(response.temperatureBuckets())
+                + sizeOf(response.scatterPoints())
+                + sizeOf(response.seasonalComparisons());
+    }
+
+    private static int sizeOf(List<?> section) {
+        return section == null ? 0 : section.size();
+    }
+
+    private static int sectionMask(Set<OverviewSection> sections) {
+        int mask = 0;
+        for (OverviewSection section : sections) {
+            mask |= 1 << section.ordinal();
+        }
+        return mask;
+    }
+
+    /**
+     * Reduit une reponse complete aux sections demandees, sans recalcul.
+     */
+    private static DashboardOverviewResponse project(DashboardOverviewResponse response, Set<OverviewSection> sections) {
+        return new DashboardOverviewResponse(
+                response.filters(),
+                response.summary(),
+                response.coverage(),
+                sections.contains(OverviewSection.NARRATIVE_HIGHLIGHTS) ? response.narrativeHighlights() : null,
+                sections.contains(OverviewSection.DAILY_TRENDS) ? response.dailyTrends() : null,
+                sections.contains(OverviewSection.DEPARTMENT_PROFILES) ? response.departmentProfiles() : null,
+                sections.contains(OverviewSection.DEPARTMENT_MONTHLY_TRENDS) ? response.departmentMonthlyTrends() : null,
+                sections.contains(OverviewSection.TEMPERATURE_BUCKETS) ? response.temperatureBuckets() : null,
+                sections.contains(OverviewSection.SCATTER_POINTS) ? response.scatterPoints() : null,
+                sections.contains(OverviewSection.SEASONAL_COMPARISONS) ? response.seasonalComparisons() : null,
+                sections.contains(OverviewSection.REGRESSION_MODEL) ? response.regressionModel() : null,
+                sections.contains(OverviewSection.TRANSPARENCY) ? response.transparency() : null
+        );
     }
 
     private DashboardOverviewResponse doBuildOverview(
             LocalDateRange dateRange,
-            List<String> departments
+            List<String> departments,
+            Set<OverviewSection> sections
     ) {
-        List<ConsommationElectrique> consommationRows =
-                consommationRepository.findAllByDateBetween(dateRange.startDate(), dateRange.endDate());
-        List<DonneesMeteo> weatherRows =
-                meteoRepository.findAllByDateBetweenAndDepartementIn(dateRange.startDate(), dateRange.endDate(), departments);
-
-        OverviewData overviewData = computeOverview(consommationRows, weatherRows, dateRange);
-        RegressionResult regressionResult = fitRegression(overviewData.joinedPoints());
+        CompletableFuture<HourlySeriesStore.Selection> selection =
+                fork(() -> hourlySeriesStore.summarize(dateRange.startDate(), dateRange.endDate(), departments));
+        OverviewAccumulator[] dayAccumulators = partialsBySelection
+                .computeIfAbsent(GrandEstReference.departmentMask(departments), OverviewPartials::new)
+                .refresh();
+
+        OverviewData overviewData = computeOverview(selection, dayAccumulators, dateRange, sections);
+        boolean narrative = sections.contains(OverviewSection.NARRATIVE_HIGHLIGHTS);
+        RegressionResult regressionResult = narrative || sections.contains(OverviewSection.REGRESSION_MODEL)
+                ? fitRegression(overviewData.total().regressionMoments)
+                : null;
 
         return new DashboardOverviewResponse(
                 new DashboardOverviewResponse.FilterSelection(
@@ -96,15 +435,15 @@ public class DashboardService {
                 ),
                 overviewData.summary(),
                 overviewData.coverage(),
-                buildNarrativeHighlights(overviewData, regressionResult),
+                narrative ? buildNarrativeHighlights(overviewData, regressionResult) : null,
                 overviewData.dailyTrends(),
                 overviewData.departmentProfiles(),
                 overviewData.departmentMonthlyPoints(),
                 overviewData.temperatureBuckets(),
                 overviewData.scatterPoints(),
-                overviewData.seasonalPoints(),
-                regressionResult.toResponseModel(),
-                buildTransparency()
+                sections.contains(OverviewSection.SEASONAL_COMPARISONS) ? overviewData.seasonalPoints() : null,
+                sections.contains(OverviewSection.REGRESSION_MODEL) ? regressionResult.toResponseModel() : null,
+                sections.contains(OverviewSection.TRANSPARENCY) ? buildTransparency() : null
         );
     }
 
@@ -113,17 +452,16 @@ public class DashboardService {
                 ? new EstimateRequest(null, null, null, null, null, null, null)
                 : request;
 
-        DashboardOverviewResponse overview = buildOverview(
+        DashboardOverviewResponse.RegressionModel regressionModel = regressionModel(
                 safeRequest.departments(),
                 safeRequest.startDate(),
                 safeRequest.endDate()
         );
-        DashboardOverviewResponse.RegressionModel regressionModel = overview.regressionModel();
 
         if (!regressionModel.ready()) {
             return new EstimateResponse(
                     false,
-                    "Le modele n'est pas disponible. Importez des donnees meteo et consommation compatibles.",
+                    MODEL_UNAVAILABLE_MESSAGE,
                     null,
                     null,
                     Map.of(),
@@ -162,118 +500,367 @@ public class DashboardService {
         );
     }
 
-    private OverviewData computeOverview(
-            List<ConsommationElectrique> consommationRows,
-            List<DonneesMeteo> weatherRows,
-            LocalDateRange dateRange
+    /**
+     * Estimations en serie sur un meme modele. Chaque variable contribue independamment
+     * (coefficient * valeur): pour une grille, les contributions de chaque axe sont calculees
+     * une fois puis additionnees dans les boucles imbriquees. Le resultat est identique a
+     * celui d'autant d'appels a {@link #estimate(EstimateRequest)}.
+     */
+    public EstimateBatchResponse estimateBatch(EstimateBatchRequest request) {
+        EstimateBatchRequest safeRequest = request == null
+                ? new EstimateBatchRequest(null, null, null, null, null)
+                : request;
+        boolean hasScenarios = safeRequest.scenarios() != null && !safeRequest.scenarios().isEmpty();
+        boolean hasGrid = safeRequest.grid() != null;
+        if (hasScenarios == hasGrid) {
+            throw new IllegalArgumentException("Indiquer soit une liste de scenarios, soit une grille.");
+        }
+
+        DashboardOverviewResponse.RegressionModel regressionModel = regressionModel(
+                safeRequest.departments(),
+                safeRequest.startDate(),
+                safeRequest.endDate()
+        );
+        if (!regressionModel.ready()) {
+            return new EstimateBatchResponse(false, MODEL_UNAVAILABLE_MESSAGE, null, Map.of(), null, null, Map.of(), new double[0]);
+        }
+
+        int featureCount = REGRESSION_FEATURES.size();
+        double[] coefficients = new double[featureCount];
+        double[] defaults = new double[featureCount];
+        for (int feature = 0; feature < featureCount; feature++) {
+            coefficients[feature] = regressionModel.coefficients().getOrDefault(REGRESSION_FEATURES.get(feature), 0.0);
+            defaults[feature] = regressionModel.defaultInputs().getOrDefault(REGRESSION_FEATURES.get(feature), 0.0);
+        }
+
+        Map<String, List<Double>> axes = Map.of();
+        double[] estimates;
+        if (hasScenarios) {
+            estimates = estimateScenarios(safeRequest.scenarios(), regressionModel.intercept(), coefficients, defaults);
+        } else {
+            EstimateBatchRequest.Grid grid = safeRequest.grid();
+            double[][] axisValues = {
+                    axisValues("temperature", grid.temperature(), defaults[0]),
+                    axisValues("humidity", grid.humidity(), defaults[1]),
+                    axisValues("wind", grid.wind(), defaults[2]),
+                    axisValues("precipitations", grid.precipitations(), defaults[3])
+            };
+            estimates = estimateGrid(axisValues, regressionModel.intercept(), coefficients);
+
+            Map<String, List<Double>> gridAxes = new LinkedHashMap<>();
+            for (int feature = 0; feature < featureCount; feature++) {
+                gridAxes.put(REGRESSION_FEATURES.get(feature), Arrays.stream(axisValues[feature]).boxed().toList());
+            }
+            axes = gridAxes;
+        }
+
+        return new EstimateBatchResponse(
+                true,
+                "Estimations calculees a partir du modele lineaire entraine sur les donnees filtrees.",
+                regressionModel.intercept(),
+                regressionModel.coefficients(),
+                regressionModel.rSquared(),
+                regressionModel.observationsUsed(),
+                axes,
+                estimates
+        );
+    }
+
+    private double[] estimateScenarios(
+            List<EstimateBatchRequest.Scenario> scenarios,
+            double intercept,
+            double[] coefficients,
+            double[] defaults
     ) {
-        Map<LocalDateTime, Double> regionalConsumption = buildRegionalConsumption(consommationRows);
-        Map<LocalDateTime, WeatherAggregate> weatherByTimestamp = buildWeatherAggregates(weatherRows);
+        if (scenarios.size() > MAX_BATCH_ESTIMATES) {
+            throw new IllegalArgumentException("Trop de scenarios (maximum " + MAX_BATCH_ESTIMATES + ").");
+        }
 
-        List<JoinedPoint> joinedPoints = regionalConsumption.entrySet().stream()
-                .filter(entry -> weatherByTimestamp.containsKey(entry.getKey()))
-                .map(entry -> JoinedPoint.from(entry.getKey(), entry.getValue(), weatherByTimestamp.get(entry.getKey())))
-                .sorted(Comparator.comparing(JoinedPoint::timestamp))
-                .toList();
+        double[] estimates = new double[scenarios.size()];
+        for (int index = 0; index < estimates.length; index++) {
+            EstimateBatchRequest.Scenario scenario = scenarios.get(index);
+            if (scenario == null) {
+                scenario = new EstimateBatchRequest.Scenario(null, null, null, null);
+            }
+            double estimate = intercept;
+            estimate += coefficients[0] * valueOrDefault(scenario.temperature(), defaults[0]);
+            estimate += coefficients[1] * valueOrDefault(scenario.humidity(), defaults[1]);
+            estimate += coefficients[2] * valueOrDefault(scenario.wind(), defaults[2]);
+            estimate += coefficients[3] * valueOrDefault(scenario.precipitations(), defaults[3]);
+            estimates[index] = round(estimate);
+        }
+        return estimates;
+    }
 
-        DashboardOverviewResponse.Summary summary = buildSummary(joinedPoints);
+    private double[] estimateGrid(double[][] axisValues, double intercept, double[] coefficients) {
+        long total = 1L;
+        double[][] contributions = new double[axisValues.length][];
+        for (int feature = 0; feature < axisValues.length; feature++) {
+            total *= axisValues[feature].length;
+            contributions[feature] = new double[axisValues[feature].length];
+            for (int index = 0; index < axisValues[feature].length; index++) {
+                contributions[feature][index] = coefficients[feature] * axisValues[feature][index];
+            }
+        }
+        if (total > MAX_BATCH_ESTIMATES) {
+            throw new IllegalArgumentException("Grille trop grande: " + total + " combinaisons (maximum " + MAX_BATCH_ESTIMATES + ").");
+        }
+
+        double[] estimates = new double[(int) total];
+        int position = 0;
+        for (double temperature : contributions[0]) {
+            double withTemperature = intercept + temperature;
+            for (double humidity : contributions[1]) {
+                double withHumidity = withTemperature + humidity;
+                for (double wind : contributions[2]) {
+                    double withWind = withHumidity + wind;
+                    for (double precipitations : contributions[3]) {
+                        estimates[position++] = round(withWind + precipitations);
+                    }
+                }
+            }
+        }
+        return estimates;
+    }
 
-        Set<String> importedRegions = consommationRows.stream()
-                .map(ConsommationElectrique::getRegion)
-                .filter(GrandEstReference.IMPORT_REGIONS::contains)
-                .collect(Collectors.toCollection(LinkedHashSet::new));
+    private static double[] axisValues(String feature, EstimateBatchRequest.Axis axis, double defaultValue) {
+        if (axis == null || axis.from() == null) {
+            return new double[]{defaultValue};
+        }
+        double from = axis.from();
+        double to = axis.to() != null ? axis.to() : from;
+        if (to < from) {
+            throw new IllegalArgumentException("Axe " + feature + ": la borne haute est inferieure a la borne basse.");
+        }
+        if (to == from) {
+            return new double[]{from};
+        }
+        if (axis.step() == null || axis.step() <= 0.0) {
+            throw new IllegalArgumentException("Axe " + feature + ": le pas doit etre positif.");
+        }
+
+        // Tolerance pour inclure la borne haute malgre les arrondis (ex: 0.1 * 3).
+        double steps = Math.floor((to - from) / axis.step() + 1.0e-9);
+        if (steps + 1 > MAX_BATCH_ESTIMATES) {
+            throw new IllegalArgumentException("Axe " + feature + ": trop de valeurs (maximum " + MAX_BATCH_ESTIMATES + ").");
+        }
+        double[] values = new double[(int) steps + 1];
+        for (int index = 0; index < values.length; index++) {
+            values[index] = from + index * axis.step();
+        }
+        return values;
+    }
 
-        Set<String> stationNames = weatherRows.stream()
-                .map(DonneesMeteo::getStation)
-                .filter(value -> value != null && !value.isBlank())
-                .collect(Collectors.toCollection(HashSet::new));
+    private static double valueOrDefault(Double value, double defaultValue) {
+        return value != null ? value : defaultValue;
+    }
 
+    /**
+     * Modele de regression d'une selection. Il ne depend que des moments cumules par jour:
+     * les fusionner sur la periode suffit, sans series, nuage de points ni commentaires.
+     */
+    private DashboardOverviewResponse.RegressionModel regressionModel(
+            Collection<String> requestedDepartments,
+            LocalDate requestedStartDate,
+            LocalDate requestedEndDate
+    ) {
+        LocalDateRange dateRange = normalizeDateRange(requestedStartDate, requestedEndDate);
+        int departmentMask = GrandEstReference.departmentMask(requestedDepartments);
+        OverviewCacheKey cacheKey = new OverviewCacheKey(dateRange.startDate(), dateRange.endDate(), departmentMask, 0);
+
+        DashboardOverviewResponse.RegressionModel cachedModel = modelCache.get(cacheKey);
+        if (cachedModel != null) {
+            return cachedModel;
+        }
+
+        long generation = cacheGeneration.get();
+        OverviewAccumulator[] dayAccumulators = partialsBySelection
+                .computeIfAbsent(departmentMask, OverviewPartials::new)
+                .refresh();
+
+        RegressionMoments moments = new RegressionMoments();
+        int lastDay = HourlySeriesStore.dayIndex(dateRange.endDate());
+        for (int day = HourlySeriesStore.dayIndex(dateRange.startDate()); day <= lastDay; day++) {
+            moments.merge(dayAccumulators[day].regressionMoments);
+        }
+
+        DashboardOverviewResponse.RegressionModel model = fitRegression(moments).toResponseModel();
+        if (generation == cacheGeneration.get()) {
+            modelCache.put(cacheKey, model);
+        }
+        return model;
+    }
+
+    private OverviewData computeOverview(
+            CompletableFuture<HourlySeriesStore.Selection> selection,
+            OverviewAccumulator[] dayAccumulators,
+            LocalDateRange dateRange,
+            Set<OverviewSection> sections
+    ) {
+        int firstDay = HourlySeriesStore.dayIndex(dateRange.startDate());
+        int lastDay = HourlySeriesStore.dayIndex(dateRange.endDate());
+        boolean withScatterPoints = sections.contains(OverviewSection.SCATTER_POINTS);
+        boolean withDailyTrends = sections.contains(OverviewSection.DAILY_TRENDS);
+        // Les commentaires citent la saison la plus consommatrice.
+        boolean withSeasons = sections.contains(OverviewSection.SEASONAL_COMPARISONS)
+                || sections.contains(OverviewSection.NARRATIVE_HIGHLIGHTS);
+
+        // Sections departementales: independantes des jours, calculees pendant leur fusion.
+        CompletableFuture<List<DashboardOverviewResponse.DepartmentProfile>> departmentProfiles =
+                sections.contains(OverviewSection.DEPARTMENT_PROFILES)
+                        ? forkAfter(selection, summarized -> buildDepartmentProfiles(summarized.departmentStats()))
+                        : CompletableFuture.completedFuture(null);
+        CompletableFuture<List<DashboardOverviewResponse.DepartmentMonthlyPoint>> departmentMonthlyPoints =
+                sections.contains(OverviewSection.DEPARTMENT_MONTHLY_TRENDS)
+                        ? forkAfter(selection, summarized -> buildDepartmentMonthlyPoints(summarized.departmentStats()))
+                        : CompletableFuture.completedFuture(null);
+
+        List<DayRangeTotals> chunks = forEachChunk(firstDay, lastDay, (chunkFirst, chunkLast) ->
+                mergeDays(dayAccumulators, chunkFirst, chunkLast, withDailyTrends, withSeasons, withScatterPoints));
+        DayRangeTotals period = chunks.get(0);
+        for (int chunk = 1; chunk < chunks.size(); chunk++) {
+            period.append(chunks.get(chunk));
+        }
+        OverviewAccumulator total = period.total;
+
+        DashboardOverviewResponse.Summary summary = buildSummary(total);
+
+        HourlySeriesStore.Selection summarized = awaitResult(selection);
         DashboardOverviewResponse.DataCoverage coverage = new DashboardOverviewResponse.DataCoverage(
-                consommationRows.size(),
-                weatherRows.size(),
-                joinedPoints.size(),
-                stationNames.size(),
+                summarized.consumptionRows(),
+                summarized.weatherRows(),
+                total.observationCount(),
+                summarized.stationCount(),
                 dateRange.startDate().format(PERIOD_FORMAT) + " -> " + dateRange.endDate().format(PERIOD_FORMAT),
-                importedRegions.stream().sorted().toList()
+                summarized.importedRegions()
         );
 
         return new OverviewData(
-                joinedPoints,
+                total,
                 summary,
                 coverage,
-                buildDailyTrends(joinedPoints),
-                buildDepartmentProfiles(weatherRows),
-                buildDepartmentMonthlyPoints(weatherRows),
-                buildTemperatureBuckets(joinedPoints),
-                buildScatterPoints(joinedPoints),
-                buildSeasonalPoints(joinedPoints)
+                withDailyTrends ? List.copyOf(period.dailyTrends) : null,
+                awaitResult(departmentProfiles),
+                awaitResult(departmentMonthlyPoints),
+                sections.contains(OverviewSection.TEMPERATURE_BUCKETS) ? buildTemperatureBuckets(total) : null,
+                withScatterPoints ? List.copyOf(period.scatterPoints) : null,
+                withSeasons ? buildSeasonalPoints(period.seasons) : null
         );
     }
 
-    private Map<LocalDateTime, Double> buildRegionalConsumption(List<ConsommationElectrique> consommationRows) {
-        Map<LocalDateTime, Map<String, Double>> valuesByTimestamp = new TreeMap<>();
-
-        for (ConsommationElectrique consommation : consommationRows) {
-            if (consommation.getDate() == null
-                    || consommation.getHeure() == null
-                    || consommation.getConsommationMw() == null
-                    || !GrandEstReference.IMPORT_REGIONS.contains(consommation.getRegion())) {
+    /**
+     * Fusionne les agregats des jours [firstDay, lastDay]: totaux de la plage, saisons et
+     * points journaliers dans l'ordre des jours.
+     */
+    private DayRangeTotals mergeDays(
+            OverviewAccumulator[] dayAccumulators,
+            int firstDay,
+            int lastDay,
+            boolean withDailyTrends,
+            boolean withSeasons,
+            boolean withScatterPoints
+    ) {
+        DayRangeTotals totals = new DayRangeTotals();
+        for (int day = firstDay; day <= lastDay; day++) {
+            OverviewAccumulator dayAccumulator = dayAccumulators[day];
+            if (dayAccumulator.observationCount() == 0) {
                 continue;
             }
 
-            LocalDateTime timestamp = LocalDateTime.of(consommation.getDate(), consommation.getHeure());
-            valuesByTimestamp
-                    .computeIfAbsent(timestamp, key -> new LinkedHashMap<>())
-                    .merge(consommation.getRegion(), consommation.getConsommationMw(), Double::sum);
-        }
-
-        Map<LocalDateTime, Double> resolvedConsumption = new TreeMap<>();
-        for (Map.Entry<LocalDateTime, Map<String, Double>> entry : valuesByTimestamp.entrySet()) {
-            Double resolvedValue = resolveRegionalConsumption(entry.getValue());
-            if (resolvedValue != null) {
-                resolvedConsumption.put(entry.getKey(), resolvedValue);
+            LocalDate date = GrandEstReference.STUDY_START_DATE.plusDays(day);
+            totals.total.merge(dayAccumulator);
+            if (withSeasons) {
+                totals.seasons.get(seasonCode(date)).merge(dayAccumulator);
+            }
+            if (withDailyTrends) {
+                totals.dailyTrends.add(buildDailyTrend(date, dayAccumulator));
+            }
+            if (withScatterPoints) {
+                dayAccumulator.addScatterPoints(date, totals.scatterPoints);
             }
         }
-
-        return resolvedConsumption;
+        return totals;
     }
 
-    private Double resolveRegionalConsumption(Map<String, Double> valuesByRegion) {
-        boolean hasHistoricalRegions = GrandEstReference.HISTORICAL_REGIONS.stream().anyMatch(valuesByRegion::containsKey);
-        if (hasHistoricalRegions) {
-            return GrandEstReference.HISTORICAL_REGIONS.stream()
-                    .filter(valuesByRegion::containsKey)
-                    .mapToDouble(valuesByRegion::get)
-                    .sum();
-        }
-        if (valuesByRegion.containsKey(GrandEstReference.MERGED_REGION)) {
-            return valuesByRegion.get(GrandEstReference.MERGED_REGION);
-        }
-        if (valuesByRegion.containsKey(GrandEstReference.FALLBACK_REGION)) {
-            return valuesByRegion.get(GrandEstReference.FALLBACK_REGION);
+    /**
+     * Regroupe le nuage sur une grille temperature x consommation d'au plus {@code maxPoints}
+     * cellules. Chaque cellule non vide donne un point: les zones denses restent visibles
+     * (nombre d'heures par point) sans envoyer une heure par point.
+     */
+    private static List<DashboardOverviewResponse.ScatterPoint> binScatterPoints(
+            List<DashboardOverviewResponse.ScatterPoint> points,
+            int maxPoints
+    ) {
+        double minTemperature = Double.POSITIVE_INFINITY;
+        double maxTemperature = Double.NEGATIVE_INFINITY;
+        double minConsumption = Double.POSITIVE_INFINITY;
+        double maxConsumption = Double.NEGATIVE_INFINITY;
+        for (DashboardOverviewResponse.ScatterPoint point : points) {
+            minTemperature = Math.min(minTemperature, point.temperature());
+            maxTemperature = Math.max(maxTemperature, point.temperature());
+            minConsumption = Math.min(minConsumption, point.consumptionMw());
+            maxConsumption = Math.max(maxConsumption, point.consumptionMw());
+        }
+
+        int side = Math.max(1, (int) Math.sqrt(maxPoints));
+        double[] temperatureSums = new double[side * side];
+        double[] consumptionSums = new double[side * side];
+        long[] counts = new long[side * side];
+        int[] pointCounts = new int[side * side];
+        int[][] seasonCounts = new int[side * side][];
+        String[] timestamps = new String[side * side];
+
+        for (DashboardOverviewResponse.ScatterPoint point : points) {
+            int column = binIndex(point.temperature(), minTemperature, maxTemperature, side);
+            int row = binIndex(point.consumptionMw(), minConsumption, maxConsumption, side);
+            int cell = row * side + column;
+            temperatureSums[cell] += point.temperature();
+            consumptionSums[cell] += point.consumptionMw();
+            counts[cell] += point.observationCount();
+            pointCounts[cell]++;
+            timestamps[cell] = point.timestamp();
+            if (seasonCounts[cell] == null) {
+                seasonCounts[cell] = new int[SEASON_CODES.size()];
+            }
+            for (int season = 0; season < SEASON_CODES.size(); season++) {
+                if (seasonLabel(SEASON_CODES.get(season)).equals(point.season())) {
+                    seasonCounts[cell][season]++;
+                    break;
+                }
+            }
         }
-        return null;
-    }
 
-    private Map<LocalDateTime, WeatherAggregate> buildWeatherAggregates(List<DonneesMeteo> weatherRows) {
-        Map<LocalDateTime, WeatherAccumulator> accumulators = new TreeMap<>();
-
-        for (DonneesMeteo weatherRow : weatherRows) {
-            if (weatherRow.getDate() == null || weatherRow.getHeure() == null) {
+        List<DashboardOverviewResponse.ScatterPoint> binned = new ArrayList<>();
+        for (int cell = 0; cell < counts.length; cell++) {
+            if (pointCounts[cell] == 0) {
                 continue;
             }
+            int dominantSeason = 0;
+            for (int season = 1; season < SEASON_CODES.size(); season++) {
+                if (seasonCounts[cell][season] > seasonCounts[cell][dominantSeason]) {
+                    dominantSeason = season;
+                }
+            }
+            binned.add(new DashboardOverviewResponse.ScatterPoint(
+                    counts[cell] == 1 ? timestamps[cell] : null,
+                    round(temperatureSums[cell] / pointCounts[cell]),
+                    round(consumptionSums[cell] / pointCounts[cell]),
+                    seasonLabel(SEASON_CODES.get(dominantSeason)),
+                    counts[cell]
+            ));
+        }
+        return List.copyOf(binned);
+    }
 
-            LocalDateTime timestamp = LocalDateTime.of(weatherRow.getDate(), weatherRow.getHeure());
-            accumulators.computeIfAbsent(timestamp, key -> new WeatherAccumulator()).add(weatherRow);
+    private static int binIndex(double value, double minimum, double maximum, int binCount) {
+        if (maximum <= minimum) {
+            return 0;
         }
-
-        Map<LocalDateTime, WeatherAggregate> result = new TreeMap<>();
-        accumulators.forEach((timestamp, accumulator) -> result.put(timestamp, accumulator.toAggregate()));
-        return result;
+        return Math.min(binCount - 1, (int) ((value - minimum) / (maximum - minimum) * binCount));
     }
 
-    private DashboardOverviewResponse.Summary buildSummary(List<JoinedPoint> joinedPoints) {
-        if (joinedPoints.isEmpty()) {
+    private DashboardOverviewResponse.Summary buildSummary(OverviewAccumulator total) {
+        if (total.observationCount() == 0) {
             return new DashboardOverviewResponse.Summary(
                     false,
                     "Aucune serie commune n'est disponible pour l'analyse. Importez les donnees RTE et Meteo-France.",
@@ -293,42 +880,10 @@ public class DashboardService {
             );
         }
 
-        NumericAccumulator consumptionValues = new NumericAccumulator();
-        NumericAccumulator temperatureValues = new NumericAccumulator();
-        NumericAccumulator humidityValues = new NumericAccumulator();
-        NumericAccumulator windValues = new NumericAccumulator();
-        NumericAccumulator precipitationValues = new NumericAccumulator();
-        NumericAccumulator coldConsumptions = new NumericAccumulator();
-        NumericAccumulator warmConsumptions = new NumericAccumulator();
-
-        List<Double> temperatures = new ArrayList<>();
-        List<Double> consumptionsForCorrelation = new ArrayList<>();
-
-        for (JoinedPoint joinedPoint : joinedPoints) {
-            consumptionValues.add(joinedPoint.consumptionMw());
-
-            if (joinedPoint.temperature() != null) {
-                temperatureValues.add(joinedPoint.temperature());
-                temperatures.add(joinedPoint.temperature());
-                consumptionsForCorrelation.add(joinedPoint.consumptionMw());
-
-                if (joinedPoint.temperature() <= COLD_THRESHOLD) {
-                    coldConsumptions.add(joinedPoint.consumptionMw());
-                }
-                if (joinedPoint.temperature() >= WARM_THRESHOLD) {
-                    warmConsumptions.add(joinedPoint.consumptionMw());
-                }
-            }
-            if (joinedPoint.humidity() != null) {
-                humidityValues.add(joinedPoint.humidity());
-            }
-            if (joinedPoint.wind() != null) {
-                windValues.add(joinedPoint.wind());
-            }
-            if (joinedPoint.precipitations() != null) {
-                precipitationValues.add(joinedPoint.precipitations());
-            }
-        }
+        NumericAccumulator consumptionValues = total.consumptions;
+        NumericAccumulator temperatureValues = total.temperatures;
+        NumericAccumulator coldConsumptions = total.coldConsumptions;
+        NumericAccumulator warmConsumptions = total.warmConsumptions;
 
         double coldAverage = coldConsumptions.hasValues() ? coldConsumptions.average() : consumptionValues.average();
         double warmAverage = warmConsumptions.hasValues() ? warmConsumptions.average() : consumptionValues.average();
@@ -336,13 +891,13 @@ public class DashboardService {
         return new DashboardOverviewResponse.Summary(
                 true,
                 "Analyse calculee sur les observations horaires communes entre consommation et meteo.",
-                joinedPoints.size(),
+                total.observationCount(),
                 round(consumptionValues.average()),
                 round(temperatureValues.average()),
-                round(humidityValues.average()),
-                round(windValues.average()),
-                round(precipitationValues.average()),
-                round(pearsonCorrelation(temperatures, consumptionsForCorrelation)),
+                round(total.humidities.average()),
+                round(total.winds.average()),
+                round(total.precipitations.average()),
+                round(total.temperatureConsumption.correlation()),
                 round(coldAverage),
                 round(warmAverage),
                 round(coldAverage - warmAverage),
@@ -352,79 +907,57 @@ public class DashboardService {
         );
     }
 
-    private List<DashboardOverviewResponse.DailyTrendPoint> buildDailyTrends(List<JoinedPoint> joinedPoints) {
-        Map<LocalDate, DailyAccumulator> accumulators = new TreeMap<>();
-
-        for (JoinedPoint joinedPoint : joinedPoints) {
-            accumulators.computeIfAbsent(joinedPoint.timestamp().toLocalDate(), key -> new DailyAccumulator()).add(joinedPoint);
-        }
-
-        return accumulators.entrySet().stream()
-                .map(entry -> new DashboardOverviewResponse.DailyTrendPoint(
-                        entry.getKey(),
-                        round(entry.getValue().averageConsumption()),
-                        round(entry.getValue().peakConsumption()),
-                        roundNullable(entry.getValue().averageTemperature()),
-                        roundNullable(entry.getValue().averageHumidity()),
-                        roundNullable(entry.getValue().averageWind()),
-                        roundNullable(entry.getValue().totalPrecipitations())
-                ))
-                .toList();
+    private DashboardOverviewResponse.DailyTrendPoint buildDailyTrend(LocalDate date, OverviewAccumulator day) {
+        return new DashboardOverviewResponse.DailyTrendPoint(
+                date,
+                round(day.consumptions.average()),
+                round(day.consumptions.max()),
+                roundNullable(day.temperatures.hasValues() ? day.temperatures.average() : null),
+                roundNullable(day.humidities.hasValues() ? day.humidities.average() : null),
+                roundNullable(day.winds.hasValues() ? day.winds.average() : null),
+                roundNullable(day.precipitations.hasValues() ? day.precipitations.sum() : null)
+        );
     }
 
-    private List<DashboardOverviewResponse.DepartmentProfile> buildDepartmentProfiles(List<DonneesMeteo> weatherRows) {
-        Map<String, WeatherAccumulator> byDepartment = new LinkedHashMap<>();
-
-        for (DonneesMeteo weatherRow : weatherRows) {
-            if (weatherRow.getDepartement() == null) {
-                continue;
-            }
-            byDepartment.computeIfAbsent(weatherRow.getDepartement(), key -> new WeatherAccumulator()).add(weatherRow);
-        }
-
-        return byDepartment.entrySet().stream()
-                .filter(entry -> GrandEstReference.DEPARTMENTS.containsKey(entry.getKey()))
-                .map(entry -> new DashboardOverviewResponse.DepartmentProfile(
-                        entry.getKey(),
-                        GrandEstReference.departmentLabel(entry.getKey()),
-                        round(entry.getValue().temperatureAverage()),
-                        round(entry.getValue().humidityAverage()),
-                        round(entry.getValue().windAverage()),
-                        round(entry.getValue().precipitationAverage()),
-                        round(entry.getValue().temperatureMin()),
-                        round(entry.getValue().temperatureMax()),
-                        entry.getValue().observationCount(),
-                        entry.getValue().stationCount()
+    private List<DashboardOverviewResponse.DepartmentProfile> buildDepartmentProfiles(
+            List<HourlySeriesStore.DepartmentStats> departmentStats
+    ) {
+        return departmentStats.stream()
+                .map(stats -> new DashboardOverviewResponse.DepartmentProfile(
+                        stats.departement(),
+                        GrandEstReference.departmentLabel(stats.departement()),
+                        round(stats.temperature().average()),
+                        round(stats.humidity().average()),
+                        round(stats.wind().average()),
+                        round(stats.precipitations().average()),
+                        round(stats.temperature().lowest()),
+                        round(stats.temperature().highest()),
+                        stats.observationCount(),
+                        stats.stationCount()
                 ))
                 .sorted(Comparator.comparing(DashboardOverviewResponse.DepartmentProfile::departement))
                 .toList();
     }
 
-    private List<DashboardOverviewResponse.DepartmentMonthlyPoint> buildDepartmentMonthlyPoints(List<DonneesMeteo> weatherRows) {
-        Map<String, Map<Integer, NumericAccumulator>> values = new LinkedHashMap<>();
-
-        for (DonneesMeteo weatherRow : weatherRows) {
-            if (weatherRow.getDepartement() == null
-                    || weatherRow.getDate() == null
-                    || weatherRow.getTemperature() == null) {
-                continue;
-            }
-
-            values.computeIfAbsent(weatherRow.getDepartement(), key -> new TreeMap<>())
-                    .computeIfAbsent(weatherRow.getDate().getMonthValue(), key -> new NumericAccumulator())
-                    .add(weatherRow.getTemperature());
-        }
-
+    private List<DashboardOverviewResponse.DepartmentMonthlyPoint> buildDepartmentMonthlyPoints(
+            List<HourlySeriesStore.DepartmentStats> departmentStats
+    ) {
         List<DashboardOverviewResponse.DepartmentMonthlyPoint> result = new ArrayList<>();
-        values.forEach((department, monthlyValues) -> monthlyValues.forEach((month, accumulator) ->
+        for (HourlySeriesStore.DepartmentStats stats : departmentStats) {
+            for (int month = 1; month <= 12; month++) {
+                long count = stats.monthlyTemperatureCounts()[month - 1];
+                if (count == 0) {
+                    continue;
+                }
                 result.add(new DashboardOverviewResponse.DepartmentMonthlyPoint(
-                        department,
-                        GrandEstReference.departmentLabel(department),
+                        stats.departement(),
+                        GrandEstReference.departmentLabel(stats.departement()),
                         month,
                         monthLabel(month),
-                        round(accumulator.average())
-                ))
-        ));
+                        round(stats.monthlyTemperatureSums()[month - 1] / count)
+                ));
+            }
+        }
 
         return result.stream()
                 .sorted(Comparator.comparing(DashboardOverviewResponse.DepartmentMonthlyPoint::departement)
@@ -432,61 +965,29 @@ public class DashboardService {
                 .toList();
     }
 
-    private List<DashboardOverviewResponse.TemperatureBucketPoint> buildTemperatureBuckets(List<JoinedPoint> joinedPoints) {
-        Map<Double, BucketAccumulator> buckets = new TreeMap<>();
-
-        for (JoinedPoint joinedPoint : joinedPoints) {
-            if (joinedPoint.temperature() == null) {
-                continue;
-            }
-
-            double bucketStart = Math.floor(joinedPoint.temperature() / TEMPERATURE_BUCKET_SIZE) * TEMPERATURE_BUCKET_SIZE;
-            buckets.computeIfAbsent(bucketStart, key -> new BucketAccumulator()).add(joinedPoint);
-        }
-
-        return buckets.entrySet().stream()
-                .map(entry -> new DashboardOverviewResponse.TemperatureBucketPoint(
-                        round(entry.getKey()),
-                        round(entry.getKey() + TEMPERATURE_BUCKET_SIZE),
-                        round(entry.getValue().averageTemperature()),
-                        round(entry.getValue().averageConsumption()),
-                        entry.getValue().observationCount()
-                ))
-                .toList();
-    }
-
-    private List<DashboardOverviewResponse.ScatterPoint> buildScatterPoints(List<JoinedPoint> joinedPoints) {
-        return joinedPoints.stream()
-                .filter(point -> point.temperature() != null)
-                .map(point -> new DashboardOverviewResponse.ScatterPoint(
-                        point.timestamp().format(TIMESTAMP_FORMAT),
-                        round(point.temperature()),
-                        round(point.consumptionMw()),
-                        seasonLabel(point.seasonCode())
-                ))
-                .toList();
+    private List<DashboardOverviewResponse.TemperatureBucketPoint> buildTemperatureBuckets(OverviewAccumulator total) {
+        List<DashboardOverviewResponse.TemperatureBucketPoint> buckets = new ArrayList<>();
+        total.buckets.forEach((bucketStart, bucket) -> buckets.add(new DashboardOverviewResponse.TemperatureBucketPoint(
+                round(bucketStart),
+                round(bucketStart + TEMPERATURE_BUCKET_SIZE),
+                round(bucket.averageTemperature()),
+                round(bucket.averageConsumption()),
+                bucket.observationCount()
+        )));
+        return List.copyOf(buckets);
     }
 
-    private List<DashboardOverviewResponse.SeasonalPoint> buildSeasonalPoints(List<JoinedPoint> joinedPoints) {
-        Map<String, SeasonAccumulator> accumulators = new LinkedHashMap<>();
-        for (String season : List.of("WINTER", "SPRING", "SUMMER", "AUTUMN")) {
-            accumulators.put(season, new SeasonAccumulator());
-        }
-
-        for (JoinedPoint joinedPoint : joinedPoints) {
-            accumulators.computeIfAbsent(joinedPoint.seasonCode(), key -> new SeasonAccumulator()).add(joinedPoint);
-        }
-
-        return accumulators.entrySet().stream()
+    private List<DashboardOverviewResponse.SeasonalPoint> buildSeasonalPoints(Map<String, OverviewAccumulator> seasons) {
+        return seasons.entrySet().stream()
                 .map(entry -> new DashboardOverviewResponse.SeasonalPoint(
                         entry.getKey(),
                         seasonLabel(entry.getKey()),
-                        round(entry.getValue().averageConsumption()),
-                        round(entry.getValue().averageTemperature()),
-                        round(entry.getValue().averageHumidity()),
-                        round(entry.getValue().averageWind()),
-                        round(entry.getValue().totalPrecipitations()),
-                        round(entry.getValue().temperatureCorrelation()),
+                        round(entry.getValue().consumptions.average()),
+                        round(entry.getValue().temperatures.average()),
+                        round(entry.getValue().humidities.average()),
+                        round(entry.getValue().winds.average()),
+                        round(entry.getValue().precipitations.sum()),
+                        round(entry.getValue().temperatureConsumption.correlation()),
                         entry.getValue().observationCount()
                 ))
                 .toList();
@@ -560,22 +1061,14 @@ public class DashboardService {
         return new LocalDateRange(startDate, endDate);
     }
 
-    private RegressionResult fitRegression(List<JoinedPoint> joinedPoints) {
-        List<FeatureDefinition> features = List.of(
-                new FeatureDefinition("temperature", JoinedPoint::temperature),
-                new FeatureDefinition("humidity", JoinedPoint::humidity),
-                new FeatureDefinition("wind", JoinedPoint::wind),
-                new FeatureDefinition("precipitations", JoinedPoint::precipitations)
-        );
-
-        for (int featureCount = features.size(); featureCount >= 1; featureCount--) {
-            List<FeatureDefinition> activeFeatures = features.subList(0, featureCount);
-            List<RegressionSample> samples = extractRegressionSamples(joinedPoints, activeFeatures);
-            if (samples.size() < activeFeatures.size() + 5) {
+    private RegressionResult fitRegression(RegressionMoments regressionMoments) {
+        for (int featureCount = REGRESSION_FEATURES.size(); featureCount >= 1; featureCount--) {
+            CoMoments moments = regressionMoments.forFeatures(featureCount);
+            if (moments.count < featureCount + 5) {
                 continue;
             }
 
-            RegressionResult result = performRegression(samples, activeFeatures);
+            RegressionResult result = performRegression(moments, REGRESSION_FEATURES.subList(0, featureCount));
             if (result.ready()) {
                 return result;
             }
@@ -584,87 +1077,56 @@ public class DashboardService {
         return RegressionResult.unavailable();
     }
 
-    private List<RegressionSample> extractRegressionSamples(
-            List<JoinedPoint> joinedPoints,
-            List<FeatureDefinition> activeFeatures
-    ) {
-        List<RegressionSample> samples = new ArrayList<>();
-
-        for (JoinedPoint joinedPoint : joinedPoints) {
-            double[] values = new double[activeFeatures.size()];
-            boolean valid = true;
-
-            for (int index = 0; index < activeFeatures.size(); index++) {
-                Double featureValue = activeFeatures.get(index).extractor().apply(joinedPoint);
-                if (featureValue == null) {
-                    valid = false;
-                    break;
-                }
-                values[index] = featureValue;
-            }
-
-            if (valid) {
-                samples.add(new RegressionSample(values, joinedPoint.consumptionMw()));
+    /**
+     * Resout les equations normales centrees (covariances des variables, covariances avec la
+     * cible); la constante se deduit des moyennes. Le R2 se deduit des memes co-moments:
+     * SCR = Syy - 2 b'Sxy + b'Sxx b.
+     */
+    private RegressionResult performRegression(CoMoments moments, List<String> activeFeatures) {
+        int featureCount = activeFeatures.size();
+        int target = featureCount;
+        double[][] covariances = new double[featureCount][featureCount];
+        double[] targetCovariances = new double[featureCount];
+        for (int row = 0; row < featureCount; row++) {
+            targetCovariances[row] = moments.coMoment(row, target);
+            for (int column = 0; column < featureCount; column++) {
+                covariances[row][column] = moments.coMoment(row, column);
             }
+            covariances[row][row] += 1.0e-6;
         }
 
-        return samples;
-    }
-
-    private RegressionResult performRegression(List<RegressionSample> samples, List<FeatureDefinition> activeFeatures) {
-        int parameterCount = activeFeatures.size() + 1;
-        double[][] xtx = new double[parameterCount][parameterCount];
-        double[] xty = new double[parameterCount];
-
-        for (RegressionSample sample : samples) {
-            double[] x = new double[parameterCount];
-            x[0] = 1.0;
-            System.arraycopy(sample.features(), 0, x, 1, sample.features().length);
-
-            for (int row = 0; row < parameterCount; row++) {
-                xty[row] += x[row] * sample.target();
-                for (int column = 0; column < parameterCount; column++) {
-                    xtx[row][column] += x[row] * x[column];
-                }
-            }
-        }
-
-        for (int diagonal = 0; diagonal < parameterCount; diagonal++) {
-            xtx[diagonal][diagonal] += 1.0e-6;
-        }
-
-        double[] coefficientsVector = solveLinearSystem(xtx, xty);
-        if (coefficientsVector == null) {
+        double[] slopes = solveLinearSystem(covariances, targetCovariances);
+        if (slopes == null) {
             return RegressionResult.unavailable();
         }
 
-        double intercept = coefficientsVector[0];
+        double intercept = moments.mean(target);
         Map<String, Double> coefficients = new LinkedHashMap<>();
         Map<String, Double> defaultInputs = new LinkedHashMap<>();
 
-        for (int index = 0; index < activeFeatures.size(); index++) {
-            coefficients.put(activeFeatures.get(index).name(), coefficientsVector[index + 1]);
-            defaultInputs.put(activeFeatures.get(index).name(), mean(samples, index));
+        for (int index = 0; index < featureCount; index++) {
+            intercept -= slopes[index] * moments.mean(index);
+            coefficients.put(activeFeatures.get(index), slopes[index]);
+            defaultInputs.put(activeFeatures.get(index), moments.mean(index));
         }
 
-        double meanTarget = samples.stream().mapToDouble(RegressionSample::target).average().orElse(0.0);
-        double residualSumSquares = 0.0;
-        double totalSumSquares = 0.0;
-
-        for (RegressionSample sample : samples) {
-            double prediction = intercept;
-            for (int index = 0; index < sample.features().length; index++) {
-                prediction += coefficientsVector[index + 1] * sample.features()[index];
+        double totalSumSquares = moments.coMoment(target, target);
+        double residualSumSquares = totalSumSquares;
+        for (int row = 0; row < featureCount; row++) {
+            residualSumSquares -= 2.0 * slopes[row] * targetCovariances[row];
+            for (int column = 0; column < featureCount; column++) {
+                residualSumSquares += slopes[row] * slopes[column] * moments.coMoment(row, column);
             }
-            residualSumSquares += Math.pow(sample.target() - prediction, 2);
-            totalSumSquares += Math.pow(sample.target() - meanTarget, 2);
         }
+        residualSumSquares = Math.max(0.0, residualSumSquares);
 
-        double rSquared = totalSumSquares == 0.0 ? 0.0 : 1.0 - (residualSumSquares / totalSumSquares);
-        String label = "Regression lineaire sur "
-                + activeFeatures.stream().map(FeatureDefinition::name).collect(Collectors.joining(", "));
+        // Cible constante: ses ecarts a la moyenne sont exactement nuls.
+        double rSquared = totalSumSquares <= 0.0
+                ? 0.0
+                : 1.0 - (residualSumSquares / totalSumSquares);
+        String label = "Regression lineaire sur " + String.join(", ", activeFeatures);
 
-        return new RegressionResult(true, label, intercept, coefficients, defaultInputs, rSquared, samples.size());
+        return new RegressionResult(true, label, intercept, coefficients, defaultInputs, rSquared, moments.count);
     }
 
     private double[] solveLinearSystem(double[][] matrix, double[] vector) {
@@ -716,34 +1178,6 @@ public class DashboardService {
         return solution;
     }
 
-    private double mean(List<RegressionSample> samples, int featureIndex) {
-        return samples.stream().mapToDouble(sample -> sample.features()[featureIndex]).average().orElse(0.0);
-    }
-
-    private static double pearsonCorrelation(List<Double> xValues, List<Double> yValues) {
-        if (xValues.size() < 2 || xValues.size() != yValues.size()) {
-            return 0.0;
-        }
-
-        double meanX = xValues.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-        double meanY = yValues.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-
-        double numerator = 0.0;
-        double denominatorX = 0.0;
-        double denominatorY = 0.0;
-
-        for (int index = 0; index < xValues.size(); index++) {
-            double centeredX = xValues.get(index) - meanX;
-            double centeredY = yValues.get(index) - meanY;
-            numerator += centeredX * centeredY;
-            denominatorX += centeredX * centeredX;
-            denominatorY += centeredY * centeredY;
-        }
-
-        double denominator = Math.sqrt(denominatorX * denominatorY);
-        return denominator == 0.0 ? 0.0 : numerator / denominator;
-    }
-
     private String describeCorrelation(double correlation) {
         double absoluteCorrelation = Math.abs(correlation);
         if (absoluteCorrelation >= 0.7) {
@@ -802,17 +1236,19 @@ public class DashboardService {
     private record LocalDateRange(LocalDate startDate, LocalDate endDate) {
     }
 
-    private record OverviewCacheKey(LocalDate startDate, LocalDate endDate, List<String> departments) {
-    }
+    /**
+     * Cle des caches: selection, periode et sections demandees ({@code 0} pour le cache des
+     * modeles, qui ne depend que de la selection et de la periode).
+     */
+    private record OverviewCacheKey(LocalDate startDate, LocalDate endDate, int departmentMask, int sectionMask) {
 
-    private record CachedOverview(DashboardOverviewResponse response, long cachedAtMillis) {
-        private boolean isExpired() {
-            return System.currentTimeMillis() - cachedAtMillis > OVERVIEW_CACHE_TTL_MILLIS;
+        private OverviewCacheKey withSections(int otherSectionMask) {
+            return new OverviewCacheKey(startDate, endDate, departmentMask, otherSectionMask);
         }
     }
 
     private record OverviewData(
-            List<JoinedPoint> joinedPoints,
+            OverviewAccumulator total,
             DashboardOverviewResponse.Summary summary,
             DashboardOverviewResponse.DataCoverage coverage,
             List<DashboardOverviewResponse.DailyTrendPoint> dailyTrends,
@@ -824,36 +1260,6 @@ public class DashboardService {
     ) {
     }
 
-    private record WeatherAggregate(
-            Double temperature,
-            Double humidity,
-            Double precipitations,
-            Double wind
-    ) {
-    }
-
-    private record JoinedPoint(
-            LocalDateTime timestamp,
-            double consumptionMw,
-            Double temperature,
-            Double humidity,
-            Double precipitations,
-            Double wind,
-            String seasonCode
-    ) {
-        private static JoinedPoint from(LocalDateTime timestamp, double consumptionMw, WeatherAggregate aggregate) {
-            return new JoinedPoint(
-                    timestamp,
-                    consumptionMw,
-                    aggregate.temperature(),
-                    aggregate.humidity(),
-                    aggregate.precipitations(),
-                    aggregate.wind(),
-                    DashboardService.seasonCode(timestamp.toLocalDate())
-            );
-        }
-    }
-
     private static String seasonCode(LocalDate date) {
         int month = date.getMonthValue();
         if (month == 12 || month == 1 || month == 2) {
@@ -868,12 +1274,6 @@ public class DashboardService {
         return "AUTUMN";
     }
 
-    private record FeatureDefinition(String name, FeatureExtractor extractor) {
-    }
-
-    private record RegressionSample(double[] features, double target) {
-    }
-
     private record RegressionResult(
             boolean ready,
             String label,
@@ -900,9 +1300,172 @@ public class DashboardService {
         }
     }
 
-    @FunctionalInterface
-    private interface FeatureExtractor {
-        Double apply(JoinedPoint point);
+    /**
+     * Fusion d'une plage de jours. Les plages successives s'ajoutent dans l'ordre, ce qui
+     * garde les series journalieres et le nuage de points chronologiques.
+     */
+    private static final class DayRangeTotals {
+
+        private final OverviewAccumulator total = new OverviewAccumulator();
+        private final Map<String, OverviewAccumulator> seasons = new LinkedHashMap<>();
+        private final List<DashboardOverviewResponse.DailyTrendPoint> dailyTrends = new ArrayList<>();
+        private final List<DashboardOverviewResponse.ScatterPoint> scatterPoints = new ArrayList<>();
+
+        private DayRangeTotals() {
+            SEASON_CODES.forEach(season -> seasons.put(season, new OverviewAccumulator()));
+        }
+
+        private void append(DayRangeTotals next) {
+            total.merge(next.total);
+            seasons.forEach((season, accumulator) -> accumulator.merge(next.seasons.get(season)));
+            dailyTrends.addAll(next.dailyTrends);
+            scatterPoints.addAll(next.scatterPoints);
+        }
+    }
+
+    /**
+     * Agregats journaliers d'une selection de departements. Un jour n'est recalcule que si sa
+     * version dans le stockage horaire a change depuis le dernier calcul; les periodes
+     * demandees sont ensuite obtenues en fusionnant les jours.
+     */
+    private final class OverviewPartials {
+
+        private final List<String> departments;
+        private final OverviewAccumulator[] days = new OverviewAccumulator[HourlySeriesStore.DAY_COUNT];
+        private final long[] versions = new long[HourlySeriesStore.DAY_COUNT];
+
+        private OverviewPartials(int departmentMask) {
+            this.departments = GrandEstReference.departmentsOf(departmentMask);
+            Arrays.fill(versions, -1L);
+        }
+
+        private synchronized OverviewAccumulator[] refresh() {
+            long[] currentVersions = hourlySeriesStore.dayVersions();
+
+            int day = 0;
+            while (day < currentVersions.length) {
+                if (versions[day] == currentVersions[day]) {
+                    day++;
+                    continue;
+                }
+
+                int lastStaleDay = day;
+                while (lastStaleDay + 1 < currentVersions.length
+                        && versions[lastStaleDay + 1] != currentVersions[lastStaleDay + 1]) {
+                    lastStaleDay++;
+                }
+
+                rebuild(day, lastStaleDay);
+                System.arraycopy(currentVersions, day, versions, day, lastStaleDay - day + 1);
+                day = lastStaleDay + 1;
+            }
+
+            // Les accumulateurs sont remplaces, jamais modifies: la copie peut etre lue hors verrou.
+            return days.clone();
+        }
+
+        // Les tranches remplissent des jours disjoints: aucune synchronisation entre elles.
+        private void rebuild(int firstDay, int lastDay) {
+            forEachChunk(firstDay, lastDay, (chunkFirst, chunkLast) -> {
+                rebuildChunk(chunkFirst, chunkLast);
+                return null;
+            });
+        }
+
+        private void rebuildChunk(int firstDay, int lastDay) {
+            for (int day = firstDay; day <= lastDay; day++) {
+                days[day] = new OverviewAccumulator();
+            }
+
+            // Une seule passe sur les colonnes de la serie, sans objet intermediaire par heure.
+            HourlySeriesStore.JoinedSeries series = hourlySeriesStore.joinedSeries(firstDay, lastDay, departments);
+            double[] features = new double[REGRESSION_FEATURES.size()];
+            for (int index = 0; index < series.size(); index++) {
+                days[series.hours()[index] / 24].add(series, index, features);
+            }
+        }
+    }
+
+    /**
+     * Accumulateur fusionnable: toutes les sorties du tableau de bord (resume, tranches,
+     * saisons, regression) se deduisent de sommes, comptes et extremes. Le nuage de points
+     * reste en colonnes primitives; les points ne sont crees que si la section est demandee.
+     */
+    private static final class OverviewAccumulator {
+
+        private final NumericAccumulator consumptions = new NumericAccumulator();
+        private final NumericAccumulator temperatures = new NumericAccumulator();
+        private final NumericAccumulator humidities = new NumericAccumulator();
+        private final NumericAccumulator winds = new NumericAccumulator();
+        private final NumericAccumulator precipitations = new NumericAccumulator();
+        private final NumericAccumulator coldConsumptions = new NumericAccumulator();
+        private final NumericAccumulator warmConsumptions = new NumericAccumulator();
+        private final CorrelationAccumulator temperatureConsumption = new CorrelationAccumulator();
+        private final TemperatureBuckets buckets = new TemperatureBuckets();
+        private final ScatterColumns scatter = new ScatterColumns();
+        private final RegressionMoments regressionMoments = new RegressionMoments();
+
+        /**
+         * Ajoute l'heure {@code index} de la serie; une mesure absente vaut NaN.
+         * {@code features} est un tableau de travail reutilise d'une heure a l'autre.
+         */
+        private void add(HourlySeriesStore.JoinedSeries series, int index, double[] features) {
+            double consumption = series.consumptions()[index];
+            double temperature = series.temperatures()[index];
+            consumptions.add(consumption);
+            humidities.add(series.humidities()[index]);
+            winds.add(series.winds()[index]);
+            precipitations.add(series.precipitations()[index]);
+
+            if (!Double.isNaN(temperature)) {
+                temperatures.add(temperature);
+                temperatureConsumption.add(temperature, consumption);
+                if (temperature <= COLD_THRESHOLD) {
+                    coldConsumptions.add(consumption);
+                }
+                if (temperature >= WARM_THRESHOLD) {
+                    warmConsumptions.add(consumption);
+                }
+                buckets.add(temperature, consumption);
+                scatter.add(series.hours()[index], temperature, consumption);
+            }
+
+            features[0] = temperature;
+            features[1] = series.humidities()[index];
+            features[2] = series.winds()[index];
+            features[3] = series.precipitations()[index];
+            regressionMoments.add(features, consumption);
+        }
+
+        private void addScatterPoints(LocalDate date, List<DashboardOverviewResponse.ScatterPoint> points) {
+            String season = seasonLabel(seasonCode(date));
+            for (int index = 0; index < scatter.size; index++) {
+                points.add(new DashboardOverviewResponse.ScatterPoint(
+                        HourlySeriesStore.timestampOf(scatter.hours[index]).format(TIMESTAMP_FORMAT),
+                        round(scatter.temperatures[index]),
+                        round(scatter.consumptions[index]),
+                        season,
+                        1L
+                ));
+            }
+        }
+
+        private void merge(OverviewAccumulator other) {
+            consumptions.merge(other.consumptions);
+            temperatures.merge(other.temperatures);
+            humidities.merge(other.humidities);
+            winds.merge(other.winds);
+            precipitations.merge(other.precipitations);
+            coldConsumptions.merge(other.coldConsumptions);
+            warmConsumptions.merge(other.warmConsumptions);
+            temperatureConsumption.merge(other.temperatureConsumption);
+            buckets.merge(other.buckets);
+            regressionMoments.merge(other.regressionMoments);
+        }
+
+        private long observationCount() {
+            return consumptions.count;
+        }
     }
 
     private static final class NumericAccumulator {
@@ -912,8 +1475,8 @@ public class DashboardService {
         private double min = Double.POSITIVE_INFINITY;
         private double max = Double.NEGATIVE_INFINITY;
 
-        private void add(Double value) {
-            if (value == null) {
+        private void add(double value) {
+            if (Double.isNaN(value)) {
                 return;
             }
 
@@ -923,6 +1486,13 @@ public class DashboardService {
             max = Math.max(max, value);
         }
 
+        private void merge(NumericAccumulator other) {
+            sum += other.sum;
+            count += other.count;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+
         private boolean hasValues() {
             return count > 0;
         }
@@ -944,184 +1514,281 @@ public class DashboardService {
         }
     }
 
-    private static final class WeatherAccumulator {
+    /**
+     * Correlation de Pearson en une passe (Welford): moyennes et sommes des produits d'ecarts,
+     * fusionnees par la formule de Chan. Pas d'annulation entre grandes sommes brutes.
+     */
+    private static final class CorrelationAccumulator {
 
-        private final NumericAccumulator temperatures = new NumericAccumulator();
-        private final NumericAccumulator humidities = new NumericAccumulator();
-        private final NumericAccumulator precipitations = new NumericAccumulator();
-        private final NumericAccumulator winds = new NumericAccumulator();
-        private final Set<String> stations = new HashSet<>();
-        private long observationCount;
+        private long count;
+        private double meanX;
+        private double meanY;
+        private double squaresX;
+        private double squaresY;
+        private double products;
+
+        private void add(double x, double y) {
+            count++;
+            double deltaX = x - meanX;
+            double deltaY = y - meanY;
+            meanX += deltaX / count;
+            meanY += deltaY / count;
+            squaresX += deltaX * (x - meanX);
+            squaresY += deltaY * (y - meanY);
+            products += deltaX * (y - meanY);
+        }
 
-        private void add(DonneesMeteo weatherRow) {
-            observationCount++;
-            if (weatherRow.getStation() != null && !weatherRow.getStation().isBlank()) {
-                stations.add(weatherRow.getStation());
+        private void merge(CorrelationAccumulator other) {
+            if (other.count == 0) {
+                return;
             }
 
-            temperatures.add(weatherRow.getTemperature());
-            humidities.add(weatherRow.getHumidite());
-            precipitations.add(weatherRow.getPrecipitations());
-            winds.add(weatherRow.getVent());
+            long total = count + other.count;
+            double deltaX = other.meanX - meanX;
+            double deltaY = other.meanY - meanY;
+            double weight = (double) count * other.count / total;
+            squaresX += other.squaresX + deltaX * deltaX * weight;
+            squaresY += other.squaresY + deltaY * deltaY * weight;
+            products += other.products + deltaX * deltaY * weight;
+            meanX += deltaX * other.count / total;
+            meanY += deltaY * other.count / total;
+            count = total;
+        }
+
+        private double correlation() {
+            if (count < 2 || squaresX <= 0.0 || squaresY <= 0.0) {
+                return 0.0;
+            }
+            return products / Math.sqrt(squaresX * squaresY);
         }
+    }
 
-        private WeatherAggregate toAggregate() {
-            return new WeatherAggregate(
-                    temperatures.hasValues() ? temperatures.average() : null,
-                    humidities.hasValues() ? humidities.average() : null,
-                    precipitations.hasValues() ? precipitations.average() : null,
-                    winds.hasValues() ? winds.average() : null
-            );
-        }
+    /**
+     * Moyennes et co-moments centres (sommes des produits d'ecarts a la moyenne) de variables
+     * suivies d'une cible, mis a jour en une passe (Welford) et fusionnes par la formule de
+     * Chan. Seul le triangle superieur est tenu a jour.
+     */
+    private static final class CoMoments {
 
-        private double temperatureAverage() {
-            return temperatures.average();
-        }
+        private final double[] means;
+        private final double[][] coMoments;
+        private final double[] deltas;
+        private long count;
 
-        private double humidityAverage() {
-            return humidities.average();
+        private CoMoments(int featureCount) {
+            means = new double[featureCount + 1];
+            coMoments = new double[featureCount + 1][featureCount + 1];
+            deltas = new double[featureCount + 1];
         }
 
-        private double precipitationAverage() {
-            return precipitations.average();
+        /**
+         * Ajoute une observation: les premieres valeurs de {@code features} puis la cible.
+         */
+        private void add(double[] features, double target) {
+            int targetIndex = means.length - 1;
+            count++;
+            for (int index = 0; index <= targetIndex; index++) {
+                double value = index < targetIndex ? features[index] : target;
+                deltas[index] = value - means[index];
+                means[index] += deltas[index] / count;
+            }
+            for (int row = 0; row <= targetIndex; row++) {
+                for (int column = row; column <= targetIndex; column++) {
+                    double value = column < targetIndex ? features[column] : target;
+                    coMoments[row][column] += deltas[row] * (value - means[column]);
+                }
+            }
         }
 
-        private double windAverage() {
-            return winds.average();
-        }
+        private void merge(CoMoments other) {
+            if (other.count == 0) {
+                return;
+            }
 
-        private double temperatureMin() {
-            return temperatures.min();
+            long total = count + other.count;
+            double weight = (double) count * other.count / total;
+            for (int index = 0; index < means.length; index++) {
+                deltas[index] = other.means[index] - means[index];
+            }
+            for (int row = 0; row < means.length; row++) {
+                for (int column = row; column < means.length; column++) {
+                    coMoments[row][column] += other.coMoments[row][column] + deltas[row] * deltas[column] * weight;
+                }
+                means[row] += deltas[row] * other.count / total;
+            }
+            count = total;
         }
 
-        private double temperatureMax() {
-            return temperatures.max();
+        /**
+         * Restriction aux {@code featureCount} premieres variables et a la cible.
+         */
+        private CoMoments project(int featureCount) {
+            CoMoments projected = new CoMoments(featureCount);
+            int[] source = new int[featureCount + 1];
+            for (int index = 0; index < featureCount; index++) {
+                source[index] = index;
+            }
+            source[featureCount] = means.length - 1;
+
+            projected.count = count;
+            for (int row = 0; row <= featureCount; row++) {
+                projected.means[row] = means[source[row]];
+                for (int column = row; column <= featureCount; column++) {
+                    projected.coMoments[row][column] = coMoments[source[row]][source[column]];
+                }
+            }
+            return projected;
         }
 
-        private long observationCount() {
-            return observationCount;
+        private double mean(int index) {
+            return means[index];
         }
 
-        private long stationCount() {
-            return stations.size();
+        private double coMoment(int row, int column) {
+            return row <= column ? coMoments[row][column] : coMoments[column][row];
         }
     }
 
-    private static final class DailyAccumulator {
+    /**
+     * Statistiques des regressions emboitees (temperature, puis humidite, vent,
+     * precipitations). Une observation dont les m premieres variables sont renseignees n'est
+     * comptee qu'une fois, au niveau m; la regression sur les k premieres variables fusionne
+     * les niveaux k a 4 restreints a ces variables, sans relire les observations.
+     */
+    private static final class RegressionMoments {
 
-        private final NumericAccumulator consumptions = new NumericAccumulator();
-        private final NumericAccumulator temperatures = new NumericAccumulator();
-        private final NumericAccumulator humidities = new NumericAccumulator();
-        private final NumericAccumulator winds = new NumericAccumulator();
-        private final NumericAccumulator precipitations = new NumericAccumulator();
+        private final CoMoments[] levels = new CoMoments[REGRESSION_FEATURES.size()];
 
-        private void add(JoinedPoint point) {
-            consumptions.add(point.consumptionMw());
-            temperatures.add(point.temperature());
-            humidities.add(point.humidity());
-            winds.add(point.wind());
-            precipitations.add(point.precipitations());
+        private RegressionMoments() {
+            for (int level = 0; level < levels.length; level++) {
+                levels[level] = new CoMoments(level + 1);
+            }
         }
 
-        private double averageConsumption() {
-            return consumptions.average();
+        /**
+         * {@code features} suit l'ordre de {@link #REGRESSION_FEATURES}; NaN si absente.
+         */
+        private void add(double[] features, double target) {
+            int available = 0;
+            while (available < levels.length && !Double.isNaN(features[available])) {
+                available++;
+            }
+            if (available > 0) {
+                levels[available - 1].add(features, target);
+            }
         }
 
-        private double peakConsumption() {
-            return consumptions.max();
+        private void merge(RegressionMoments other) {
+            for (int level = 0; level < levels.length; level++) {
+                levels[level].merge(other.levels[level]);
+            }
         }
 
-        private Double averageTemperature() {
-            return temperatures.hasValues() ? temperatures.average() : null;
+        private CoMoments forFeatures(int featureCount) {
+            CoMoments moments = new CoMoments(featureCount);
+            for (int level = featureCount - 1; level < levels.length; level++) {
+                moments.merge(levels[level].project(featureCount));
+            }
+            return moments;
         }
+    }
 
-        private Double averageHumidity() {
-            return humidities.hasValues() ? humidities.average() : null;
-        }
+    /**
+     * Tranches de temperature indexees par {@code floor(temperature / TEMPERATURE_BUCKET_SIZE)},
+     * dans un tableau agrandi a la demande: parcours dans l'ordre croissant sans table triee.
+     */
+    private static final class TemperatureBuckets {
 
-        private Double averageWind() {
-            return winds.hasValues() ? winds.average() : null;
-        }
+        private BucketAccumulator[] buckets = new BucketAccumulator[0];
+        private int firstIndex;
 
-        private Double totalPrecipitations() {
-            return precipitations.hasValues() ? precipitations.sum() : null;
+        private void add(double temperature, double consumption) {
+            bucket((int) Math.floor(temperature / TEMPERATURE_BUCKET_SIZE)).add(temperature, consumption);
         }
-    }
-
-    private static final class BucketAccumulator {
-
-        private final NumericAccumulator temperatures = new NumericAccumulator();
-        private final NumericAccumulator consumptions = new NumericAccumulator();
 
-        private void add(JoinedPoint point) {
-            temperatures.add(point.temperature());
-            consumptions.add(point.consumptionMw());
+        private void merge(TemperatureBuckets other) {
+            for (int offset = 0; offset < other.buckets.length; offset++) {
+                if (other.buckets[offset] != null) {
+                    bucket(other.firstIndex + offset).merge(other.buckets[offset]);
+                }
+            }
         }
 
-        private double averageTemperature() {
-            return temperatures.average();
+        private void forEach(BiConsumer<Double, BucketAccumulator> action) {
+            for (int offset = 0; offset < buckets.length; offset++) {
+                if (buckets[offset] != null) {
+                    action.accept((firstIndex + offset) * TEMPERATURE_BUCKET_SIZE, buckets[offset]);
+                }
+            }
         }
 
-        private double averageConsumption() {
-            return consumptions.average();
+        private BucketAccumulator bucket(int index) {
+            if (buckets.length == 0) {
+                buckets = new BucketAccumulator[1];
+                firstIndex = index;
+            } else if (index < firstIndex) {
+                BucketAccumulator[] grown = new BucketAccumulator[buckets.length + firstIndex - index];
+                System.arraycopy(buckets, 0, grown, firstIndex - index, buckets.length);
+                buckets = grown;
+                firstIndex = index;
+            } else if (index >= firstIndex + buckets.length) {
+                buckets = Arrays.copyOf(buckets, index - firstIndex + 1);
+            }
+
+            int offset = index - firstIndex;
+            if (buckets[offset] == null) {
+                buckets[offset] = new BucketAccumulator();
+            }
+            return buckets[offset];
         }
+    }
 
-        private long observationCount() {
-            return consumptions.count;
+    /**
+     * Heures d'un jour ayant une temperature, en colonnes (index horaire, temperature,
+     * consommation) pour le nuage de points.
+     */
+    private static final class ScatterColumns {
+
+        private int[] hours = new int[0];
+        private double[] temperatures = new double[0];
+        private double[] consumptions = new double[0];
+        private int size;
+
+        private void add(int hour, double temperature, double consumption) {
+            if (size == hours.length) {
+                int capacity = Math.max(24, size * 2);
+                hours = Arrays.copyOf(hours, capacity);
+                temperatures = Arrays.copyOf(temperatures, capacity);
+                consumptions = Arrays.copyOf(consumptions, capacity);
+            }
+            hours[size] = hour;
+            temperatures[size] = temperature;
+            consumptions[size] = consumption;
+            size++;
         }
     }
 
-    private static final class SeasonAccumulator {
+    private static final class BucketAccumulator {
 
         private final NumericAccumulator temperatures = new NumericAccumulator();
-        private final NumericAccumulator humidities = new NumericAccumulator();
-        private final NumericAccumulator winds = new NumericAccumulator();
-        private final NumericAccumulator precipitations = new NumericAccumulator();
         private final NumericAccumulator consumptions = new NumericAccumulator();
-        private final List<Double> temperaturesForCorrelation = new ArrayList<>();
-        private final List<Double> consumptionsForCorrelation = new ArrayList<>();
 
-        private void add(JoinedPoint point) {
-            consumptions.add(point.consumptionMw());
-
-            if (point.temperature() != null) {
-                temperatures.add(point.temperature());
-                temperaturesForCorrelation.add(point.temperature());
-                consumptionsForCorrelation.add(point.consumptionMw());
-            }
-            if (point.humidity() != null) {
-                humidities.add(point.humidity());
-            }
-            if (point.wind() != null) {
-                winds.add(point.wind());
-            }
-            if (point.precipitations() != null) {
-                precipitations.add(point.precipitations());
-            }
+        private void add(double temperature, double consumption) {
+            temperatures.add(temperature);
+            consumptions.add(consumption);
         }
 
-        private double averageConsumption() {
-            return consumptions.average();
+        private void merge(BucketAccumulator other) {
+            temperatures.merge(other.temperatures);
+            consumptions.merge(other.consumptions);
         }
 
         private double averageTemperature() {
             return temperatures.average();
         }
 
-        private double averageHumidity() {
-            return humidities.average();
-        }
-
-        private double averageWind() {
-            return winds.average();
-        }
-
-        private double totalPrecipitations() {
-            return precipitations.sum();
-        }
-
-        private double temperatureCorrelation() {
-            return pearsonCorrelation(temperaturesForCorrelation, consumptionsForCorrelation);
+        private double averageConsumption() {
+            return consumptions.average();
         }
 
         private long observationCount() {
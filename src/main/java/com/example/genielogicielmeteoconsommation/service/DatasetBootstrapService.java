@@ -14,9 +14,14 @@ import org.springframework.stereotype.Service;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -31,23 +36,29 @@ public class DatasetBootstrapService implements ApplicationRunner {
     private final DonneesMeteoRepository meteoRepository;
     private final ImportDonneesService importDonneesService;
     private final ImportMeteoService importMeteoService;
+    private final HourlySeriesStore hourlySeriesStore;
     private final boolean bootstrapEnabled;
     private final String datasetZipPath;
+    private final int parallelism;
 
     public DatasetBootstrapService(
             ConsommationElectriqueRepository consommationRepository,
             DonneesMeteoRepository meteoRepository,
             ImportDonneesService importDonneesService,
             ImportMeteoService importMeteoService,
+            HourlySeriesStore hourlySeriesStore,
             @Value("${app.dataset.bootstrap.enabled:true}") boolean bootstrapEnabled,
-            @Value("${app.dataset.zip-path:}") String datasetZipPath
+            @Value("${app.dataset.zip-path:}") String datasetZipPath,
+            @Value("${app.dataset.bootstrap.parallelism:4}") int parallelism
     ) {
         this.consommationRepository = consommationRepository;
         this.meteoRepository = meteoRepository;
         this.importDonneesService = importDonneesService;
         this.importMeteoService = importMeteoService;
+        this.hourlySeriesStore = hourlySeriesStore;
         this.bootstrapEnabled = bootstrapEnabled;
         this.datasetZipPath = datasetZipPath;
+        this.parallelism = Math.max(1, parallelism);
     }
 
     @Override
@@ -77,6 +88,7 @@ public class DatasetBootstrapService implements ApplicationRunner {
 
         if (hasElectricityData && hasWeatherData) {
             LOGGER.info("Les donnees sont deja presentes en base. Aucun rechargement automatique.");
+            hourlySeriesStore.ensureLoaded();
             return;
         }
 
@@ -97,6 +109,8 @@ public class DatasetBootstrapService implements ApplicationRunner {
         } catch (Exception exception) {
             throw new IllegalStateException("Impossible d'initialiser les donnees depuis le zip backend.", exception);
         }
+
+        hourlySeriesStore.ensureLoaded();
     }
 
     private void importRegionalDataset(ZipFile zipFile) throws Exception {
@@ -125,31 +139,62 @@ public class DatasetBootstrapService implements ApplicationRunner {
             throw new IllegalStateException("Aucun fichier meteo departemental n'a ete trouve dans le zip.");
         }
 
+        // Les fichiers departementaux sont independants: chacun est importe sur son propre thread.
+        int workerCount = Math.min(parallelism, weatherEntries.size());
+        ExecutorService executor = Executors.newFixedThreadPool(
+                workerCount,
+                Thread.ofPlatform().name("bootstrap-meteo-", 1).factory()
+        );
+
         int insertedRows = 0;
         int skippedRows = 0;
 
-        for (ZipEntry weatherEntry : weatherEntries) {
-            try (InputStream inputStream = zipFile.getInputStream(weatherEntry)) {
-                ImportSummary summary = importMeteoService.importerFluxMeteo(weatherEntry.getName(), inputStream);
+        try {
+            List<Future<ImportSummary>> summaries = new ArrayList<>(weatherEntries.size());
+            for (ZipEntry weatherEntry : weatherEntries) {
+                summaries.add(executor.submit(() -> importWeatherDataset(zipFile, weatherEntry)));
+            }
+
+            for (Future<ImportSummary> pendingSummary : summaries) {
+                ImportSummary summary = pendingSummary.get();
                 insertedRows += summary.insertedRows();
                 skippedRows += summary.skippedRows();
-                LOGGER.info(
-                        "Import meteo {}: {} lignes ajoutees, {} lignes ignorees.",
-                        weatherEntry.getName(),
-                        summary.insertedRows(),
-                        summary.skippedRows()
-                );
             }
+        } catch (ExecutionException exception) {
+            // Le premier fichier en echec arrete l'initialisation; les imports restants sont interrompus.
+            if (exception.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw exception;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw exception;
+        } finally {
+            executor.shutdownNow();
         }
 
         LOGGER.info(
-                "Import meteo backend termine: {} fichiers, {} lignes ajoutees, {} lignes ignorees.",
+                "Import meteo backend termine: {} fichiers ({} en parallele), {} lignes ajoutees, {} lignes ignorees.",
                 weatherEntries.size(),
+                workerCount,
                 insertedRows,
                 skippedRows
         );
     }
 
+    private ImportSummary importWeatherDataset(ZipFile zipFile, ZipEntry weatherEntry) throws Exception {
+        try (InputStream inputStream = zipFile.getInputStream(weatherEntry)) {
+            ImportSummary summary = importMeteoService.importerFluxMeteo(weatherEntry.getName(), inputStream);
+            LOGGER.info(
+                    "Import meteo {}: {} lignes ajoutees, {} lignes ignorees.",
+                    weatherEntry.getName(),
+                    summary.insertedRows(),
+                    summary.skippedRows()
+            );
+            return summary;
+        }
+    }
+
     private boolean isWeatherDataset(ZipEntry entry) {
         if (entry.isDirectory()) {
             return false;
@@ -0,0 +1,861 @@
+package com.example.genielogicielmeteoconsommation.service;
+
+import com.example.genielogicielmeteoconsommation.model.ConsommationElectrique;
+import com.example.genielogicielmeteoconsommation.model.DonneesMeteo;
+import com.example.genielogicielmeteoconsommation.repository.ConsommationHoraireRepository;
+import com.example.genielogicielmeteoconsommation.repository.HourlyConsumptionAggregate;
+import com.example.genielogicielmeteoconsommation.repository.HourlyWeatherAggregate;
+import com.example.genielogicielmeteoconsommation.repository.MeteoHoraireRepository;
+import com.example.genielogicielmeteoconsommation.repository.MeteoStationJourRepository;
+import com.example.genielogicielmeteoconsommation.repository.RollupWriter;
+import com.example.genielogicielmeteoconsommation.repository.StationDay;
+import com.example.genielogicielmeteoconsommation.support.GrandEstReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Stockage colonne en memoire des series horaires de la fenetre d'etude.
+ * Chaque heure de la fenetre possede un index fixe (jour * 24 + heure) et chaque mesure
+ * est rangee dans un tableau primitif, par departement pour la meteo et par region pour
+ * la consommation. Les horodatages qui ne tombent pas sur une heure pleine ne sont pas
+ * indexes, ils ne peuvent de toute facon pas etre croises avec la meteo.
+ * Le chargement initial lit les tables d'agregats maintenues par les imports
+ * (meteo_horaire, meteo_station_jour, consommation_horaire) plutot que les lignes brutes:
+ * son cout suit le nombre d'heures et de departements, pas le nombre de releves.
+ * Chaque jour porte un numero de version incremente a chaque ecriture qui le touche: les
+ * agregats derives (tableau de bord) ne recalculent ainsi que les jours modifies.
+ * Les imports ne rafraichissent les agregats qu'a leur fin: les lots ecrits avant le
+ * chargement sont notes (departements et plage de dates) et leurs agregats recalcules
+ * juste avant la lecture.
+ */
+@Component
+public class HourlySeriesStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HourlySeriesStore.class);
+
+    static final int DAY_COUNT = (int) ChronoUnit.DAYS.between(
+            GrandEstReference.STUDY_START_DATE,
+            GrandEstReference.STUDY_END_DATE
+    ) + 1;
+    static final int HOUR_COUNT = DAY_COUNT * 24;
+
+    private static final List<String> DEPARTMENT_CODES = List.copyOf(GrandEstReference.DEPARTMENTS.keySet());
+    private static final int[] MONTH_OF_DAY = buildMonthOfDay();
+    private static final int DEPARTMENT_STATS_PER_SLICE = 32;
+
+    private final ConsommationHoraireRepository consommationHoraireRepository;
+    private final MeteoHoraireRepository meteoHoraireRepository;
+    private final MeteoStationJourRepository stationJourRepository;
+    private final RollupWriter rollupWriter;
+    private final ReentrantReadWriteLock dataLock = new ReentrantReadWriteLock();
+    private final ReentrantReadWriteLock ingestionLock = new ReentrantReadWriteLock();
+    private final DepartmentSlice[] departmentSlices = new DepartmentSlice[DEPARTMENT_CODES.size()];
+    private final Map<String, RegionSlice> regionSlices = new LinkedHashMap<>();
+    private final RegionSlice[] historicalRegionSlices;
+    private final RegionSlice mergedRegionSlice;
+    private final RegionSlice fallbackRegionSlice;
+    private final int[] consumptionRowsPerDay = new int[DAY_COUNT];
+    private final long[] dayVersions = new long[DAY_COUNT];
+    private final PendingSpan pendingWeather = new PendingSpan();
+    private final PendingSpan pendingConsumption = new PendingSpan();
+    private volatile boolean loaded;
+
+    public HourlySeriesStore(
+            ConsommationHoraireRepository consommationHoraireRepository,
+            MeteoHoraireRepository meteoHoraireRepository,
+            MeteoStationJourRepository stationJourRepository,
+            RollupWriter rollupWriter
+    ) {
+        this.consommationHoraireRepository = consommationHoraireRepository;
+        this.meteoHoraireRepository = meteoHoraireRepository;
+        this.stationJourRepository = stationJourRepository;
+        this.rollupWriter = rollupWriter;
+
+        for (int index = 0; index < departmentSlices.length; index++) {
+            departmentSlices[index] = new DepartmentSlice();
+        }
+        GrandEstReference.IMPORT_REGIONS.stream()
+                .sorted()
+                .forEach(region -> regionSlices.put(region, new RegionSlice()));
+        historicalRegionSlices = GrandEstReference.HISTORICAL_REGIONS.stream()
+                .sorted()
+                .map(regionSlices::get)
+                .toArray(RegionSlice[]::new);
+        mergedRegionSlice = regionSlices.get(GrandEstReference.MERGED_REGION);
+        fallbackRegionSlice = regionSlices.get(GrandEstReference.FALLBACK_REGION);
+    }
+
+    /**
+     * Charge la fenetre d'etude depuis la base si ce n'est pas deja fait. Les imports en cours
+     * terminent leur lot avant le chargement, ce qui evite de compter deux fois un meme lot;
+     * les agregats des lots deja ecrits par ces imports sont recalcules avant la lecture.
+     */
+    public void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+
+        ingestionLock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+
+            long startedAt = System.currentTimeMillis();
+            refreshPendingRollups();
+            rollupWriter.rebuildIfMissing();
+            List<HourlyConsumptionAggregate> consumptionAggregates = consommationHoraireRepository.findHourlyAggregates(
+                    GrandEstReference.STUDY_START_DATE,
+                    GrandEstReference.STUDY_END_DATE
+            );
+            List<HourlyWeatherAggregate> weatherAggregates = meteoHoraireRepository.findHourlyAggregates(
+                    GrandEstReference.STUDY_START_DATE,
+                    GrandEstReference.STUDY_END_DATE
+            );
+            List<StationDay> stationDays = stationJourRepository.findStationDays(
+                    GrandEstReference.STUDY_START_DATE,
+                    GrandEstReference.STUDY_END_DATE
+            );
+
+            dataLock.writeLock().lock();
+            try {
+                clearConsumptionColumns();
+                clearWeatherColumns();
+                consumptionAggregates.forEach(this::applyConsumptionAggregate);
+                weatherAggregates.forEach(this::applyWeatherAggregate);
+                stationDays.forEach(this::applyStationDay);
+                touchAllDays();
+                loaded = true;
+            } finally {
+                dataLock.writeLock().unlock();
+            }
+
+            LOGGER.info(
+                    "Series horaires chargees en memoire: {} agregats consommation, {} agregats meteo en {} ms.",
+                    consumptionAggregates.size(),
+                    weatherAggregates.size(),
+                    System.currentTimeMillis() - startedAt
+            );
+        } finally {
+            ingestionLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recalcule les agregats des lots ecrits avant le chargement par des imports encore en
+     * cours (appele sous le verrou d'ingestion exclusif: aucun lot n'est a moitie ecrit).
+     */
+    private void refreshPendingRollups() {
+        PendingSpan weather = pendingWeather.snapshot();
+        if (weather != null) {
+            rollupWriter.refreshWeather(weather.keys, weather.firstDate, weather.lastDate);
+        }
+        PendingSpan consumption = pendingConsumption.snapshot();
+        if (consumption != null) {
+            rollupWriter.refreshConsumption(consumption.firstDate, consumption.lastDate);
+        }
+        pendingWeather.clear();
+        pendingConsumption.clear();
+    }
+
+    public void appendWeather(List<DonneesMeteo> rows, Consumer<List<DonneesMeteo>> writer) {
+        ingestionLock.readLock().lock();
+        try {
+            writer.accept(rows);
+            if (!loaded) {
+                rows.forEach(row -> pendingWeather.add(row.getDepartement(), row.getDate()));
+                return;
+            }
+
+            dataLock.writeLock().lock();
+            try {
+                rows.forEach(this::applyWeather);
+            } finally {
+                dataLock.writeLock().unlock();
+            }
+        } finally {
+            ingestionLock.readLock().unlock();
+        }
+    }
+
+    public void appendConsumption(List<ConsommationElectrique> rows, Consumer<List<ConsommationElectrique>> writer) {
+        ingestionLock.readLock().lock();
+        try {
+            writer.accept(rows);
+            if (!loaded) {
+                rows.forEach(row -> pendingConsumption.add(row.getRegion(), row.getDate()));
+                return;
+            }
+
+            dataLock.writeLock().lock();
+            try {
+                rows.forEach(this::applyConsumption);
+            } finally {
+                dataLock.writeLock().unlock();
+            }
+        } finally {
+            ingestionLock.readLock().unlock();
+        }
+    }
+
+    public void resetConsumption(Runnable writer) {
+        ingestionLock.readLock().lock();
+        try {
+            writer.run();
+            if (!loaded) {
+                return;
+            }
+
+            dataLock.writeLock().lock();
+            try {
+                clearConsumptionColumns();
+                touchAllDays();
+            } finally {
+                dataLock.writeLock().unlock();
+            }
+        } finally {
+            ingestionLock.readLock().unlock();
+        }
+    }
+
+    Selection select(LocalDate startDate, LocalDate endDate, Collection<String> departments) {
+        return select(startDate, endDate, departments, true);
+    }
+
+    /**
+     * Comme {@link #select(LocalDate, LocalDate, Collection)} mais sans construire la serie
+     * jointe: seuls les compteurs de couverture et les statistiques departementales sont calcules.
+     */
+    Selection summarize(LocalDate startDate, LocalDate endDate, Collection<String> departments) {
+        return select(startDate, endDate, departments, false);
+    }
+
+    /**
+     * Serie jointe sur les jours [firstDay, lastDay] (index dans la fenetre d'etude).
+     */
+    JoinedSeries joinedSeries(int firstDay, int lastDay, Collection<String> departments) {
+        ensureLoaded();
+
+        int[] selectedSlices = sliceIndexes(departments);
+        dataLock.readLock().lock();
+        try {
+            if (lastDay < firstDay) {
+                return JoinedSeries.empty();
+            }
+            return buildJoinedSeries(Math.max(0, firstDay), Math.min(DAY_COUNT - 1, lastDay), selectedSlices);
+        } finally {
+            dataLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copie des versions par jour. A lire avant la serie correspondante: une ecriture
+     * intercalee fera simplement recalculer le jour une fois de plus.
+     */
+    long[] dayVersions() {
+        ensureLoaded();
+
+        dataLock.readLock().lock();
+        try {
+            return dayVersions.clone();
+        } finally {
+            dataLock.readLock().unlock();
+        }
+    }
+
+    private Selection select(LocalDate startDate, LocalDate endDate, Collection<String> departments, boolean withSeries) {
+        ensureLoaded();
+
+        int firstDay = Math.max(0, dayIndex(startDate));
+        int lastDay = Math.min(DAY_COUNT - 1, dayIndex(endDate));
+        int[] selectedSlices = sliceIndexes(departments);
+
+        dataLock.readLock().lock();
+        try {
+            if (lastDay < firstDay) {
+                return new Selection(JoinedSeries.empty(), 0L, 0L, 0L, List.of(), List.of());
+            }
+
+            JoinedSeries series = withSeries
+                    ? buildJoinedSeries(firstDay, lastDay, selectedSlices)
+                    : JoinedSeries.empty();
+
+            long consumptionRows = 0L;
+            for (int day = firstDay; day <= lastDay; day++) {
+                consumptionRows += consumptionRowsPerDay[day];
+            }
+
+            List<String> importedRegions = new ArrayList<>();
+            regionSlices.forEach((region, slice) -> {
+                int presentDay = slice.days.nextSetBit(firstDay);
+                if (presentDay >= 0 && presentDay <= lastDay) {
+                    importedRegions.add(region);
+                }
+            });
+
+            long weatherRows = 0L;
+            long stationCount = 0L;
+            List<DepartmentStats> departmentStats = new ArrayList<>();
+            for (int sliceIndex : selectedSlices) {
+                DepartmentStats stats = departmentSlices[sliceIndex].cachedStats(DEPARTMENT_CODES.get(sliceIndex), firstDay, lastDay);
+                weatherRows += stats.observationCount();
+                stationCount += stats.stationCount();
+                if (stats.observationCount() > 0) {
+                    departmentStats.add(stats);
+                }
+            }
+
+            return new Selection(
+                    series,
+                    consumptionRows,
+                    weatherRows,
+                    stationCount,
+                    List.copyOf(importedRegions),
+                    List.copyOf(departmentStats)
+            );
+        } finally {
+            dataLock.readLock().unlock();
+        }
+    }
+
+    static LocalDateTime timestampOf(int hourIndex) {
+        return GrandEstReference.STUDY_START_DATE
+                .plusDays(hourIndex / 24)
+                .atTime(hourIndex % 24, 0);
+    }
+
+    static int dayIndex(LocalDate date) {
+        return (int) (date.toEpochDay() - GrandEstReference.STUDY_START_DATE.toEpochDay());
+    }
+
+    private static int[] sliceIndexes(Collection<String> departments) {
+        return departments.stream()
+                .mapToInt(DEPARTMENT_CODES::indexOf)
+                .filter(index -> index >= 0)
+                .distinct()
+                .toArray();
+    }
+
+    private static int hourIndex(LocalDate date, LocalTime time) {
+        if (time.getMinute() != 0 || time.getSecond() != 0 || time.getNano() != 0) {
+            return -1;
+        }
+
+        int day = dayIndex(date);
+        if (day < 0 || day >= DAY_COUNT) {
+            return -1;
+        }
+        return day * 24 + time.getHour();
+    }
+
+    private JoinedSeries buildJoinedSeries(int firstDay, int lastDay, int[] selectedSlices) {
+        int firstHour = firstDay * 24;
+        int endHour = (lastDay + 1) * 24;
+        int capacity = endHour - firstHour;
+
+        int[] hours = new int[capacity];
+        double[] consumptions = new double[capacity];
+        double[] temperatures = new double[capacity];
+        double[] humidities = new double[capacity];
+        double[] precipitations = new double[capacity];
+        double[] winds = new double[capacity];
+        int size = 0;
+
+        for (int hour = firstHour; hour < endHour; hour++) {
+            int weatherRows = 0;
+            for (int sliceIndex : selectedSlices) {
+                weatherRows += departmentSlices[sliceIndex].rowCounts[hour];
+            }
+            if (weatherRows == 0) {
+                continue;
+            }
+
+            double consumption = resolveConsumption(hour);
+            if (Double.isNaN(consumption)) {
+                continue;
+            }
+
+            hours[size] = hour;
+            consumptions[size] = consumption;
+            temperatures[size] = hourlyAverage(selectedSlices, hour, Measure.TEMPERATURE);
+            humidities[size] = hourlyAverage(selectedSlices, hour, Measure.HUMIDITY);
+            precipitations[size] = hourlyAverage(selectedSlices, hour, Measure.PRECIPITATIONS);
+            winds[size] = hourlyAverage(selectedSlices, hour, Measure.WIND);
+            size++;
+        }
+
+        return new JoinedSeries(
+                size,
+                Arrays.copyOf(hours, size),
+                Arrays.copyOf(consumptions, size),
+                Arrays.copyOf(temperatures, size),
+                Arrays.copyOf(humidities, size),
+                Arrays.copyOf(precipitations, size),
+                Arrays.copyOf(winds, size)
+        );
+    }
+
+    private double hourlyAverage(int[] selectedSlices, int hour, Measure measure) {
+        double sum = 0.0;
+        int count = 0;
+        for (int sliceIndex : selectedSlices) {
+            MeasureColumn column = departmentSlices[sliceIndex].column(measure);
+            sum += column.sums[hour];
+            count += column.counts[hour];
+        }
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    private double resolveConsumption(int hour) {
+        boolean hasHistoricalRegions = false;
+        double historicalSum = 0.0;
+        for (RegionSlice slice : historicalRegionSlices) {
+            if (slice.counts[hour] > 0) {
+                hasHistoricalRegions = true;
+                historicalSum += slice.sums[hour];
+            }
+        }
+        if (hasHistoricalRegions) {
+            return historicalSum;
+        }
+        if (mergedRegionSlice.counts[hour] > 0) {
+            return mergedRegionSlice.sums[hour];
+        }
+        if (fallbackRegionSlice.counts[hour] > 0) {
+            return fallbackRegionSlice.sums[hour];
+        }
+        return Double.NaN;
+    }
+
+    private void applyWeather(DonneesMeteo row) {
+        if (row.getDate() == null || row.getHeure() == null) {
+            return;
+        }
+
+        int sliceIndex = DEPARTMENT_CODES.indexOf(row.getDepartement());
+        int hour = hourIndex(row.getDate(), row.getHeure());
+        if (sliceIndex < 0 || hour < 0) {
+            return;
+        }
+
+        DepartmentSlice slice = departmentSlices[sliceIndex];
+        dayVersions[hour / 24]++;
+        slice.rowCounts[hour]++;
+        slice.temperatures.add(hour, row.getTemperature());
+        slice.humidities.add(hour, row.getHumidite());
+        slice.precipitations.add(hour, row.getPrecipitations());
+        slice.winds.add(hour, row.getVent());
+        slice.markStation(row.getStation(), hour / 24);
+        slice.invalidateStats();
+    }
+
+    private void applyWeatherAggregate(HourlyWeatherAggregate aggregate) {
+        if (aggregate.date() == null || aggregate.heure() == null) {
+            return;
+        }
+
+        int sliceIndex = DEPARTMENT_CODES.indexOf(aggregate.departement());
+        int hour = hourIndex(aggregate.date(), aggregate.heure());
+        if (sliceIndex < 0 || hour < 0) {
+            return;
+        }
+
+        DepartmentSlice slice = departmentSlices[sliceIndex];
+        slice.rowCounts[hour] += aggregate.rowCount().intValue();
+        slice.temperatures.addTotals(
+                hour,
+                aggregate.temperatureSum(),
+                aggregate.temperatureCount(),
+                aggregate.temperatureMin(),
+                aggregate.temperatureMax()
+        );
+        slice.humidities.addTotals(hour, aggregate.humiditeSum(), aggregate.humiditeCount(), null, null);
+        slice.precipitations.addTotals(hour, aggregate.precipitationsSum(), aggregate.precipitationsCount(), null, null);
+        slice.winds.addTotals(hour, aggregate.ventSum(), aggregate.ventCount(), null, null);
+    }
+
+    private void applyStationDay(StationDay stationDay) {
+        int sliceIndex = DEPARTMENT_CODES.indexOf(stationDay.departement());
+        if (sliceIndex < 0 || stationDay.date() == null) {
+            return;
+        }
+
+        int day = dayIndex(stationDay.date());
+        if (day >= 0 && day < DAY_COUNT) {
+            departmentSlices[sliceIndex].markStation(stationDay.station(), day);
+        }
+    }
+
+    private void applyConsumption(ConsommationElectrique row) {
+        addConsumption(row.getDate(), row.getHeure(), row.getRegion(), 1, row.getConsommationMw(), 1);
+    }
+
+    private void applyConsumptionAggregate(HourlyConsumptionAggregate aggregate) {
+        addConsumption(
+                aggregate.date(),
+                aggregate.heure(),
+                aggregate.region(),
+                aggregate.rowCount().intValue(),
+                aggregate.consommationSum(),
+                aggregate.consommationCount().intValue()
+        );
+    }
+
+    private void addConsumption(
+            LocalDate date,
+            LocalTime time,
+            String region,
+            int rowCount,
+            Double consumptionSum,
+            int consumptionCount
+    ) {
+        if (date == null) {
+            return;
+        }
+
+        int day = dayIndex(date);
+        if (day < 0 || day >= DAY_COUNT) {
+            return;
+        }
+        consumptionRowsPerDay[day] += rowCount;
+        dayVersions[day]++;
+
+        RegionSlice slice = region == null ? null : regionSlices.get(region);
+        if (slice == null) {
+            return;
+        }
+        slice.days.set(day);
+
+        if (time == null || consumptionSum == null || consumptionCount == 0) {
+            return;
+        }
+        int hour = hourIndex(date, time);
+        if (hour >= 0) {
+            slice.sums[hour] += consumptionSum;
+            slice.counts[hour] += consumptionCount;
+        }
+    }
+
+    private void touchAllDays() {
+        for (int day = 0; day < DAY_COUNT; day++) {
+            dayVersions[day]++;
+        }
+    }
+
+    private void clearConsumptionColumns() {
+        Arrays.fill(consumptionRowsPerDay, 0);
+        regionSlices.values().forEach(RegionSlice::clear);
+    }
+
+    private void clearWeatherColumns() {
+        for (DepartmentSlice slice : departmentSlices) {
+            slice.clear();
+        }
+    }
+
+    private static int[] buildMonthOfDay() {
+        int[] months = new int[DAY_COUNT];
+        for (int day = 0; day < DAY_COUNT; day++) {
+            months[day] = GrandEstReference.STUDY_START_DATE.plusDays(day).getMonthValue();
+        }
+        return months;
+    }
+
+    private enum Measure {
+        TEMPERATURE,
+        HUMIDITY,
+        PRECIPITATIONS,
+        WIND
+    }
+
+    /**
+     * Heures communes entre consommation et meteo, triees chronologiquement.
+     * Une mesure meteo absente sur l'heure vaut {@code Double.NaN}.
+     */
+    record JoinedSeries(
+            int size,
+            int[] hours,
+            double[] consumptions,
+            double[] temperatures,
+            double[] humidities,
+            double[] precipitations,
+            double[] winds
+    ) {
+        private static JoinedSeries empty() {
+            return new JoinedSeries(0, new int[0], new double[0], new double[0], new double[0], new double[0], new double[0]);
+        }
+    }
+
+    record Selection(
+            JoinedSeries series,
+            long consumptionRows,
+            long weatherRows,
+            long stationCount,
+            List<String> importedRegions,
+            List<DepartmentStats> departmentStats
+    ) {
+    }
+
+    record MeasureTotals(double sum, long count, double minimum, double maximum) {
+
+        double average() {
+            return count == 0 ? 0.0 : sum / count;
+        }
+
+        double lowest() {
+            return count == 0 ? 0.0 : minimum;
+        }
+
+        double highest() {
+            return count == 0 ? 0.0 : maximum;
+        }
+    }
+
+    record DepartmentStats(
+            String departement,
+            long observationCount,
+            long stationCount,
+            MeasureTotals temperature,
+            MeasureTotals humidity,
+            MeasureTotals precipitations,
+            MeasureTotals wind,
+            double[] monthlyTemperatureSums,
+            long[] monthlyTemperatureCounts
+    ) {
+    }
+
+    private static final class MeasureColumn {
+
+        private final double[] sums = new double[HOUR_COUNT];
+        private final int[] counts = new int[HOUR_COUNT];
+        private final double[] minimums;
+        private final double[] maximums;
+
+        private MeasureColumn(boolean trackExtremes) {
+            minimums = trackExtremes ? new double[HOUR_COUNT] : null;
+            maximums = trackExtremes ? new double[HOUR_COUNT] : null;
+            clear();
+        }
+
+        private void add(int hour, Double value) {
+            if (value != null) {
+                addTotals(hour, value, 1L, value, value);
+            }
+        }
+
+        private void addTotals(int hour, Double sum, Long count, Double minimum, Double maximum) {
+            if (sum == null || count == null || count == 0) {
+                return;
+            }
+
+            sums[hour] += sum;
+            counts[hour] += count.intValue();
+            if (minimums != null && minimum != null && maximum != null) {
+                minimums[hour] = Math.min(minimums[hour], minimum);
+                maximums[hour] = Math.max(maximums[hour], maximum);
+            }
+        }
+
+        private MeasureTotals totals(int firstHour, int endHour) {
+            double sum = 0.0;
+            long count = 0L;
+            double minimum = Double.POSITIVE_INFINITY;
+            double maximum = Double.NEGATIVE_INFINITY;
+            for (int hour = firstHour; hour < endHour; hour++) {
+                if (counts[hour] == 0) {
+                    continue;
+                }
+                sum += sums[hour];
+                count += counts[hour];
+                if (minimums != null) {
+                    minimum = Math.min(minimum, minimums[hour]);
+                    maximum = Math.max(maximum, maximums[hour]);
+                }
+            }
+            return new MeasureTotals(sum, count, minimum, maximum);
+        }
+
+        private void clear() {
+            Arrays.fill(sums, 0.0);
+            Arrays.fill(counts, 0);
+            if (minimums != null) {
+                Arrays.fill(minimums, Double.POSITIVE_INFINITY);
+                Arrays.fill(maximums, Double.NEGATIVE_INFINITY);
+            }
+        }
+    }
+
+    private static final class DepartmentSlice {
+
+        private final int[] rowCounts = new int[HOUR_COUNT];
+        private final MeasureColumn temperatures = new MeasureColumn(true);
+        private final MeasureColumn humidities = new MeasureColumn(false);
+        private final MeasureColumn precipitations = new MeasureColumn(false);
+        private final MeasureColumn winds = new MeasureColumn(false);
+        private final Map<String, BitSet> stationDays = new HashMap<>();
+        // Statistiques deja calculees par periode (premier jour << 32 | dernier jour), videes a
+        // chaque ecriture meteo du departement. Une selection de departements les additionne.
+        private final Map<Long, DepartmentStats> statsByRange = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, DepartmentStats> eldest) {
+                return size() > DEPARTMENT_STATS_PER_SLICE;
+            }
+        };
+
+        private void markStation(String station, int day) {
+            if (station != null && !station.isBlank()) {
+                stationDays.computeIfAbsent(station, key -> new BitSet(DAY_COUNT)).set(day);
+            }
+        }
+
+        private MeasureColumn column(Measure measure) {
+            return switch (measure) {
+                case TEMPERATURE -> temperatures;
+                case HUMIDITY -> humidities;
+                case PRECIPITATIONS -> precipitations;
+                case WIND -> winds;
+            };
+        }
+
+        /**
+         * Appele sous le verrou de lecture: plusieurs lecteurs peuvent s'y croiser, d'ou la
+         * synchronisation sur le cache. Les ecritures, elles, ont le verrou exclusif.
+         */
+        private DepartmentStats cachedStats(String departement, int firstDay, int lastDay) {
+            long rangeKey = ((long) firstDay << 32) | lastDay;
+            synchronized (statsByRange) {
+                DepartmentStats cached = statsByRange.get(rangeKey);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+
+            DepartmentStats stats = stats(departement, firstDay, lastDay);
+            synchronized (statsByRange) {
+                statsByRange.put(rangeKey, stats);
+            }
+            return stats;
+        }
+
+        private void invalidateStats() {
+            if (!statsByRange.isEmpty()) {
+                statsByRange.clear();
+            }
+        }
+
+        private DepartmentStats stats(String departement, int firstDay, int lastDay) {
+            int firstHour = firstDay * 24;
+            int endHour = (lastDay + 1) * 24;
+
+            long observationCount = 0L;
+            double[] monthlySums = new double[12];
+            long[] monthlyCounts = new long[12];
+            for (int hour = firstHour; hour < endHour; hour++) {
+                observationCount += rowCounts[hour];
+                int month = MONTH_OF_DAY[hour / 24] - 1;
+                monthlySums[month] += temperatures.sums[hour];
+                monthlyCounts[month] += temperatures.counts[hour];
+            }
+
+            long stationCount = stationDays.values().stream()
+                    .filter(days -> {
+                        int presentDay = days.nextSetBit(firstDay);
+                        return presentDay >= 0 && presentDay <= lastDay;
+                    })
+                    .count();
+
+            return new DepartmentStats(
+                    departement,
+                    observationCount,
+                    stationCount,
+                    temperatures.totals(firstHour, endHour),
+                    humidities.totals(firstHour, endHour),
+                    precipitations.totals(firstHour, endHour),
+                    winds.totals(firstHour, endHour),
+                    monthlySums,
+                    monthlyCounts
+            );
+        }
+
+        private void clear() {
+            Arrays.fill(rowCounts, 0);
+            temperatures.clear();
+            humidities.clear();
+            precipitations.clear();
+            winds.clear();
+            stationDays.clear();
+            statsByRange.clear();
+        }
+    }
+
+    private static final class RegionSlice {
+
+        private final double[] sums = new double[HOUR_COUNT];
+        private final int[] counts = new int[HOUR_COUNT];
+        private final BitSet days = new BitSet(DAY_COUNT);
+
+        private void clear() {
+            Arrays.fill(sums, 0.0);
+            Arrays.fill(counts, 0);
+            days.clear();
+        }
+    }
+
+    /**
+     * Departements (ou regions) et plage de dates des lots ecrits avant le chargement.
+     */
+    private static final class PendingSpan {
+
+        private final Set<String> keys = new HashSet<>();
+        private LocalDate firstDate;
+        private LocalDate lastDate;
+
+        private synchronized void add(String key, LocalDate date) {
+            if (key == null || date == null) {
+                return;
+            }
+            keys.add(key);
+            if (firstDate == null || date.isBefore(firstDate)) {
+                firstDate = date;
+            }
+            if (lastDate == null || date.isAfter(lastDate)) {
+                lastDate = date;
+            }
+        }
+
+        private synchronized PendingSpan snapshot() {
+            if (keys.isEmpty()) {
+                return null;
+            }
+            PendingSpan copy = new PendingSpan();
+            copy.keys.addAll(keys);
+            copy.firstDate = firstDate;
+            copy.lastDate = lastDate;
+            return copy;
+        }
+
+        private synchronized void clear() {
+            keys.clear();
+            firstDate = null;
+            lastDate = null;
+        }
+    }
+}
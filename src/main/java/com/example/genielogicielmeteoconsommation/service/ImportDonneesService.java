@@ -3,35 +3,64 @@ package com.example.genielogicielmeteoconsommation.service;
 import com.example.genielogicielmeteoconsommation.dto.ImportSummary;
 import com.example.genielogicielmeteoconsommation.model.ConsommationElectrique;
 import com.example.genielogicielmeteoconsommation.repository.ConsommationElectriqueRepository;
+import com.example.genielogicielmeteoconsommation.repository.ImportRowWriter;
+import com.example.genielogicielmeteoconsommation.repository.IngestStrategy;
+import com.example.genielogicielmeteoconsommation.repository.RollupWriter;
+import com.example.genielogicielmeteoconsommation.support.BatchPipeline;
 import com.example.genielogicielmeteoconsommation.support.GrandEstReference;
+import com.example.genielogicielmeteoconsommation.support.TimeSlotDeduplicator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.concurrent.CancellationException;
 
 @Service
 public class ImportDonneesService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ImportDonneesService.class);
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-    private static final int BATCH_SIZE = 1_000;
+    // Les releves eCO2mix sont au quart d'heure.
+    private static final int RTE_SLOT_MINUTES = 15;
+    private static final int PROGRESS_INTERVAL = 8_192;
+    private static final int MINIMUM_COLUMN_COUNT = 7;
+    // Taille relue apres la verification de l'entete et de la premiere ligne.
+    private static final int PREVIEW_LIMIT = 64 * 1024;
 
     private final ConsommationElectriqueRepository repository;
+    private final ImportRowWriter rowWriter;
+    private final RollupWriter rollupWriter;
+    private final HourlySeriesStore hourlySeriesStore;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final int writerThreads;
 
-    public ImportDonneesService(ConsommationElectriqueRepository repository) {
+    public ImportDonneesService(
+            ConsommationElectriqueRepository repository,
+            ImportRowWriter rowWriter,
+            RollupWriter rollupWriter,
+            HourlySeriesStore hourlySeriesStore,
+            @Value("${app.import.batch-size:5000}") int batchSize,
+            @Value("${app.import.pipeline.queue-capacity:4}") int queueCapacity,
+            @Value("${app.import.pipeline.writer-threads:2}") int writerThreads
+    ) {
         this.repository = repository;
+        this.rowWriter = rowWriter;
+        this.rollupWriter = rollupWriter;
+        this.hourlySeriesStore = hourlySeriesStore;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.writerThreads = writerThreads;
     }
 
     public ImportSummary importerFichierRte(MultipartFile file) {
@@ -40,27 +69,126 @@ public class ImportDonneesService {
         }
 
         try {
-            // Delete les données avant importation pour eviter doublon
-            repository.deleteAllInBatch();
-            
-            return importerFluxRte(file.getOriginalFilename(), file.getInputStream());
+            return remplacerDonneesRte(file.getOriginalFilename(), file.getInputStream(), ImportProgress.NONE);
+        } catch (IllegalArgumentException | CancellationException exception) {
+            throw exception;
         } catch (Exception exception) {
             throw new RuntimeException("Erreur lors de la lecture du fichier CSV RTE", exception);
         }
     }
 
+    /**
+     * Remplace toute la consommation par le contenu du flux. L'entete et la premiere ligne
+     * de donnees sont verifiees avant la suppression: un flux vide ou d'un autre format est
+     * refuse sans toucher aux donnees en place. Une fois la suppression faite, l'import ne
+     * s'annule plus: il irait sinon jusqu'a laisser la consommation vide.
+     */
+    public ImportSummary remplacerDonneesRte(String sourceName, InputStream inputStream, ImportProgress progress) {
+        BufferedReader reader = openRte(inputStream);
+        try {
+            checkRteContent(reader);
+        } catch (IOException exception) {
+            throw new RuntimeException("Erreur lors de la lecture du flux RTE", exception);
+        }
+        if (!progress.disableCancellation()) {
+            throw new CancellationException("Import RTE annule.");
+        }
+
+        // Delete les données avant importation pour eviter doublon
+        hourlySeriesStore.resetConsumption(() -> {
+            repository.deleteAllInBatch();
+            rollupWriter.clearConsumption();
+        });
+
+        return importerLignesRte(sourceName, reader, rowWriter.defaultStrategy(), progress);
+    }
+
     public ImportSummary importerFluxRte(String sourceName, InputStream inputStream) {
+        return importerFluxRte(sourceName, inputStream, rowWriter.defaultStrategy());
+    }
+
+    public ImportSummary importerFluxRte(String sourceName, InputStream inputStream, IngestStrategy strategy) {
+        return importerFluxRte(sourceName, inputStream, strategy, ImportProgress.NONE);
+    }
+
+    public ImportSummary importerFluxRte(
+            String sourceName,
+            InputStream inputStream,
+            IngestStrategy strategy,
+            ImportProgress progress
+    ) {
+        return importerLignesRte(sourceName, openRte(inputStream), strategy, progress);
+    }
+
+    private BufferedReader openRte(InputStream inputStream) {
         if (inputStream == null) {
             throw new IllegalArgumentException("Le flux RTE est introuvable.");
         }
+        return new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    private void checkRteContent(BufferedReader reader) throws IOException {
+        reader.mark(PREVIEW_LIMIT);
+        String header = reader.readLine();
+        if (header == null || header.isBlank()) {
+            throw new IllegalArgumentException("Le flux RTE est vide.");
+        }
+        if (header.split(";").length < MINIMUM_COLUMN_COUNT) {
+            throw new IllegalArgumentException("L'entete du flux RTE ne correspond pas au format eCO2mix.");
+        }
 
-        List<ConsommationElectrique> rowsToSave = new ArrayList<>(BATCH_SIZE);
-        Set<String> uniqueRows = new HashSet<>();
+        // Les lignes vides ne sont sautees que dans la limite de la marque.
+        long previewed = header.length() + 1L;
+        String firstRow = reader.readLine();
+        while (firstRow != null && firstRow.isBlank() && previewed < PREVIEW_LIMIT) {
+            previewed += firstRow.length() + 1L;
+            firstRow = reader.readLine();
+        }
+        if (firstRow == null) {
+            throw new IllegalArgumentException("Le flux RTE ne contient aucune ligne de donnees.");
+        }
+        try {
+            reader.reset();
+        } catch (IOException exception) {
+            throw new IllegalArgumentException(
+                    "Le debut du flux RTE (entete et lignes vides) depasse " + PREVIEW_LIMIT + " caracteres.",
+                    exception
+            );
+        }
+    }
+
+    private ImportSummary importerLignesRte(
+            String sourceName,
+            BufferedReader bufferedReader,
+            IngestStrategy strategy,
+            ImportProgress progress
+    ) {
+        IngestStrategy effectiveStrategy = rowWriter.resolve(strategy);
+
+        TimeSlotDeduplicator uniqueRows = new TimeSlotDeduplicator(
+                GrandEstReference.STUDY_START_DATE,
+                GrandEstReference.STUDY_END_DATE,
+                RTE_SLOT_MINUTES
+        );
+        int readRows = 0;
         int skippedRows = 0;
-        int insertedRows = 0;
+        int reportedReadRows = 0;
+        int reportedSkippedRows = 0;
+        // Plage touchee par l'import, recalculee dans consommation_horaire a la fin.
+        LocalDate firstDate = null;
+        LocalDate lastDate = null;
 
-        try (BufferedReader bufferedReader = new BufferedReader(
-                new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+        ImportSummary summary;
+        try (BatchPipeline<ConsommationElectrique> pipeline = new BatchPipeline<>(
+                "import-rte",
+                batchSize,
+                queueCapacity,
+                writerThreads,
+                batch -> {
+                    hourlySeriesStore.appendConsumption(batch, rows -> rowWriter.writeConsommation(rows, effectiveStrategy));
+                    progress.rowsWritten(batch.size());
+                }
+        ); bufferedReader) {
 
             String line;
             boolean firstLine = true;
@@ -71,8 +199,17 @@ public class ImportDonneesService {
                     continue;
                 }
 
+                if (++readRows % PROGRESS_INTERVAL == 0) {
+                    progress.rowsRead(readRows - reportedReadRows, skippedRows - reportedSkippedRows);
+                    reportedReadRows = readRows;
+                    reportedSkippedRows = skippedRows;
+                    if (progress.isCancelled()) {
+                        throw new CancellationException("Import RTE annule.");
+                    }
+                }
+
                 String[] columns = line.split(";");
-                if (columns.length < 7) {
+                if (columns.length < MINIMUM_COLUMN_COUNT) {
                     skippedRows++;
                     continue;
                 }
@@ -83,6 +220,7 @@ public class ImportDonneesService {
                     continue;
                 }
 
+                ConsommationElectrique record;
                 try {
                     LocalDate date = LocalDate.parse(columns[3].trim(), DATE_FORMATTER);
                     LocalTime time = parseTime(columns[4].trim());
@@ -102,49 +240,55 @@ public class ImportDonneesService {
                         continue;
                     }
 
-                    String rowKey = region + "|" + date + "|" + time;
-                    if (!uniqueRows.add(rowKey)) {
+                    if (!uniqueRows.add(region, date, time)) {
                         skippedRows++;
                         continue;
                     }
 
-                    ConsommationElectrique record = new ConsommationElectrique();
+                    record = new ConsommationElectrique();
                     record.setRegion(region);
                     record.setDate(date);
                     record.setHeure(time);
                     record.setConsommationMw(consumption);
-                    rowsToSave.add(record);
 
-                    insertedRows += flushBatchIfNeeded(rowsToSave);
+                    if (firstDate == null || date.isBefore(firstDate)) {
+                        firstDate = date;
+                    }
+                    if (lastDate == null || date.isAfter(lastDate)) {
+                        lastDate = date;
+                    }
                 } catch (Exception exception) {
                     skippedRows++;
                     LOGGER.debug("Ligne RTE ignoree: {}", line, exception);
+                    continue;
                 }
+
+                pipeline.add(record);
             }
 
-            insertedRows += flushBatch(rowsToSave);
-            return new ImportSummary("electricite", safeSourceName(sourceName), insertedRows, skippedRows);
+            int insertedRows = pipeline.finish();
+            progress.rowsRead(readRows - reportedReadRows, skippedRows - reportedSkippedRows);
+            summary = new ImportSummary("electricite", safeSourceName(sourceName), insertedRows, skippedRows);
         } catch (Exception exception) {
-            throw new RuntimeException("Erreur lors de la lecture du flux RTE", exception);
+            RuntimeException failure = new RuntimeException("Erreur lors de la lecture du flux RTE", exception);
+            // Les lots deja ecrits restent en base: les agregats doivent les refleter.
+            try {
+                refreshRollups(firstDate, lastDate);
+            } catch (RuntimeException rollupException) {
+                failure.addSuppressed(rollupException);
+            }
+            throw failure;
         }
-    }
 
-    private int flushBatchIfNeeded(List<ConsommationElectrique> rowsToSave) {
-        if (rowsToSave.size() < BATCH_SIZE) {
-            return 0;
-        }
-        return flushBatch(rowsToSave);
+        refreshRollups(firstDate, lastDate);
+        return summary;
     }
 
-    private int flushBatch(List<ConsommationElectrique> rowsToSave) {
-        if (rowsToSave.isEmpty()) {
-            return 0;
+    private void refreshRollups(LocalDate firstDate, LocalDate lastDate) {
+        if (firstDate == null) {
+            return;
         }
-
-        int batchSize = rowsToSave.size();
-        repository.saveAll(new ArrayList<>(rowsToSave));
-        rowsToSave.clear();
-        return batchSize;
+        rollupWriter.refreshConsumption(firstDate, lastDate);
     }
 
     private LocalTime parseTime(String timeValue) {
@@ -0,0 +1,344 @@
+package com.example.genielogicielmeteoconsommation.service;
+
+import com.example.genielogicielmeteoconsommation.dto.ImportJobStatus;
+import com.example.genielogicielmeteoconsommation.dto.ImportSummary;
+import com.example.genielogicielmeteoconsommation.support.CountingInputStream;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Imports executes en arriere-plan: la requete HTTP ne fait que recopier les fichiers
+ * dans un repertoire temporaire (le multipart est libere a la fin de la requete) puis
+ * renvoie l'identifiant du job. L'avancement se consulte ensuite par cet identifiant.
+ * Une annulation arrete l'analyse; les lots deja ecrits restent en base. Un import electricite
+ * remplace toute la consommation: il ne s'annule plus une fois les anciennes donnees supprimees.
+ */
+@Service
+public class ImportJobService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImportJobService.class);
+
+    private final ImportDonneesService importDonneesService;
+    private final ImportMeteoService importMeteoService;
+    private final DashboardService dashboardService;
+    private final ExecutorService executor;
+    private final Duration retention;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ImportJobService(
+            ImportDonneesService importDonneesService,
+            ImportMeteoService importMeteoService,
+            DashboardService dashboardService,
+            @Value("${app.import.jobs.concurrency:2}") int concurrency,
+            @Value("${app.import.jobs.retention-minutes:60}") long retentionMinutes
+    ) {
+        this.importDonneesService = importDonneesService;
+        this.importMeteoService = importMeteoService;
+        this.dashboardService = dashboardService;
+        this.executor = Executors.newFixedThreadPool(
+                Math.max(1, concurrency),
+                Thread.ofPlatform().name("import-job-", 1).factory()
+        );
+        this.retention = Duration.ofMinutes(retentionMinutes);
+    }
+
+    public ImportJobStatus soumettreImportElectricite(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("Le fichier RTE est vide.");
+        }
+        return submit("electricite", new MultipartFile[]{file});
+    }
+
+    public ImportJobStatus soumettreImportMeteo(MultipartFile[] files) {
+        if (files == null || files.length == 0) {
+            throw new IllegalArgumentException("Aucun fichier meteo transmis.");
+        }
+        for (MultipartFile file : files) {
+            if (file == null || file.isEmpty()) {
+                throw new IllegalArgumentException("Le fichier meteo est vide.");
+            }
+        }
+        return submit("meteo", files);
+    }
+
+    public Optional<ImportJobStatus> consulter(String id) {
+        pruneFinishedJobs();
+        return Optional.ofNullable(jobs.get(id)).map(ImportJob::snapshot);
+    }
+
+    public Optional<ImportJobStatus> annuler(String id) {
+        pruneFinishedJobs();
+        ImportJob job = jobs.get(id);
+        if (job == null) {
+            return Optional.empty();
+        }
+
+        if (!job.requestCancellation()) {
+            LOGGER.info("Annulation refusee pour l'import {} {}: donnees deja supprimees.", job.source, job.id);
+            return Optional.of(job.snapshot());
+        }
+        if (job.cancelIfQueued()) {
+            // Le job n'avait pas demarre: run() s'arretera sans rien importer.
+            job.future.cancel(false);
+            deleteSpooledFiles(job);
+        }
+        return Optional.of(job.snapshot());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobs.values().forEach(ImportJob::requestCancellation);
+        executor.shutdownNow();
+    }
+
+    private ImportJobStatus submit(String source, MultipartFile[] files) {
+        pruneFinishedJobs();
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), source);
+        try {
+            for (MultipartFile file : files) {
+                Path path = Files.createTempFile("import-" + source + "-", ".csv");
+                job.spooledFiles.add(path);
+                file.transferTo(path);
+                job.fileNames.add(safeFileName(file, source));
+                job.totalBytes += Files.size(path);
+            }
+        } catch (IOException exception) {
+            deleteSpooledFiles(job);
+            throw new RuntimeException("Impossible de preparer les fichiers de l'import " + source, exception);
+        }
+
+        job.future = executor.submit(() -> run(job));
+        jobs.put(job.id, job);
+        LOGGER.info("Import {} {} en file d'attente ({} fichier(s), {} octets).",
+                source, job.id, job.fileNames.size(), job.totalBytes);
+        return job.snapshot();
+    }
+
+    private void run(ImportJob job) {
+        if (!job.start()) {
+            return;
+        }
+        long insertedRows = 0L;
+        long skippedRows = 0L;
+        ImportJobStatus.State finalState;
+        String finalMessage;
+
+        try {
+            for (int index = 0; index < job.spooledFiles.size(); index++) {
+                ImportSummary summary = importFile(job, job.fileNames.get(index), job.spooledFiles.get(index));
+                insertedRows += summary.insertedRows();
+                skippedRows += summary.skippedRows();
+            }
+
+            finalState = ImportJobStatus.State.SUCCEEDED;
+            finalMessage = successMessage(job, insertedRows, skippedRows);
+            LOGGER.info("Import {} {} termine.", job.source, job.id);
+        } catch (Exception exception) {
+            if (job.cancelled) {
+                finalState = ImportJobStatus.State.CANCELLED;
+                finalMessage = "Import annule.";
+                LOGGER.info("Import {} {} annule.", job.source, job.id);
+            } else {
+                finalState = ImportJobStatus.State.FAILED;
+                finalMessage = failureMessage(job, exception);
+                LOGGER.error("Import {} {} en echec.", job.source, job.id, exception);
+            }
+        }
+
+        try {
+            // Meme un import interrompu a pu ecrire des lots. Le cache est vide avant que le
+            // job soit vu termine.
+            dashboardService.clearOverviewCache();
+        } finally {
+            deleteSpooledFiles(job);
+            job.finish(finalState, finalMessage);
+        }
+    }
+
+    private ImportSummary importFile(ImportJob job, String fileName, Path path) throws IOException {
+        try (InputStream inputStream = new CountingInputStream(
+                new BufferedInputStream(Files.newInputStream(path)),
+                job.readBytes::addAndGet
+        )) {
+            if ("electricite".equals(job.source)) {
+                return importDonneesService.remplacerDonneesRte(fileName, inputStream, job);
+            }
+            return importMeteoService.importerFluxMeteo(fileName, inputStream, job);
+        }
+    }
+
+    private String successMessage(ImportJob job, long insertedRows, long skippedRows) {
+        if ("electricite".equals(job.source)) {
+            return "Import electricite termine : %d lignes valides ajoutees, %d lignes ignorees."
+                    .formatted(insertedRows, skippedRows);
+        }
+        return "Import meteo termine : %d fichiers traites, %d lignes valides ajoutees, %d lignes ignorees."
+                .formatted(job.fileNames.size(), insertedRows, skippedRows);
+    }
+
+    private String failureMessage(ImportJob job, Exception exception) {
+        return "Erreur lors de l'import " + job.source + " : " + exception.getMessage();
+    }
+
+    private void pruneFinishedJobs() {
+        Instant threshold = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(threshold));
+    }
+
+    private void deleteSpooledFiles(ImportJob job) {
+        for (Path path : job.spooledFiles) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException exception) {
+                LOGGER.warn("Fichier temporaire non supprime: {}", path, exception);
+            }
+        }
+    }
+
+    private String safeFileName(MultipartFile file, String source) {
+        String fileName = file.getOriginalFilename();
+        return fileName == null || fileName.isBlank() ? source + ".csv" : fileName;
+    }
+
+    private static final class ImportJob implements ImportProgress {
+
+        private final String id;
+        private final String source;
+        private final Instant submittedAt = Instant.now();
+        private final List<String> fileNames = new ArrayList<>();
+        private final List<Path> spooledFiles = new ArrayList<>();
+        private final AtomicLong readBytes = new AtomicLong();
+        private final AtomicLong readRows = new AtomicLong();
+        private final AtomicLong insertedRows = new AtomicLong();
+        private final AtomicLong skippedRows = new AtomicLong();
+
+        private long totalBytes;
+        private volatile Future<?> future;
+        private volatile boolean cancelled;
+        private boolean cancellationDisabled;
+        private volatile ImportJobStatus.State state = ImportJobStatus.State.QUEUED;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile String message;
+
+        private ImportJob(String id, String source) {
+            this.id = id;
+            this.source = source;
+        }
+
+        @Override
+        public void rowsRead(int readRows, int skippedRows) {
+            this.readRows.addAndGet(readRows);
+            this.skippedRows.addAndGet(skippedRows);
+        }
+
+        @Override
+        public void rowsWritten(int insertedRows) {
+            this.insertedRows.addAndGet(insertedRows);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public synchronized boolean disableCancellation() {
+            if (cancelled) {
+                return false;
+            }
+            cancellationDisabled = true;
+            return true;
+        }
+
+        private synchronized boolean requestCancellation() {
+            if (cancellationDisabled) {
+                message = "Annulation refusee : les donnees electricite ont deja ete supprimees, l'import se poursuit.";
+                return false;
+            }
+            cancelled = true;
+            return true;
+        }
+
+        private synchronized boolean start() {
+            if (finishedAt != null) {
+                return false;
+            }
+            startedAt = Instant.now();
+            state = ImportJobStatus.State.RUNNING;
+            return true;
+        }
+
+        private synchronized boolean cancelIfQueued() {
+            if (state != ImportJobStatus.State.QUEUED) {
+                return false;
+            }
+            finish(ImportJobStatus.State.CANCELLED, "Import annule avant son demarrage.");
+            return true;
+        }
+
+        private synchronized void finish(ImportJobStatus.State finalState, String finalMessage) {
+            if (finishedAt != null) {
+                return;
+            }
+            message = finalMessage;
+            finishedAt = Instant.now();
+            state = finalState;
+        }
+
+        private ImportJobStatus snapshot() {
+            Instant start = startedAt;
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            long bytes = readBytes.get();
+            long rows = readRows.get();
+
+            double elapsedSeconds = start == null ? 0.0 : Duration.between(start, end).toMillis() / 1_000.0;
+            double rowsPerSecond = elapsedSeconds > 0.0 ? rows / elapsedSeconds : 0.0;
+            Long etaSeconds = null;
+            if (state == ImportJobStatus.State.RUNNING && bytes > 0L && elapsedSeconds > 0.0) {
+                etaSeconds = Math.round(elapsedSeconds * (totalBytes - bytes) / bytes);
+            }
+
+            return new ImportJobStatus(
+                    id,
+                    source,
+                    state,
+                    List.copyOf(fileNames),
+                    totalBytes,
+                    bytes,
+                    rows,
+                    insertedRows.get(),
+                    skippedRows.get(),
+                    rowsPerSecond,
+                    etaSeconds,
+                    submittedAt,
+                    start,
+                    finishedAt,
+                    message
+            );
+        }
+    }
+}
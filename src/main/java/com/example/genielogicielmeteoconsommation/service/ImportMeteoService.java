@@ -2,39 +2,72 @@ package com.example.genielogicielmeteoconsommation.service;
 
 import com.example.genielogicielmeteoconsommation.dto.ImportSummary;
 import com.example.genielogicielmeteoconsommation.model.DonneesMeteo;
-import com.example.genielogicielmeteoconsommation.repository.DonneesMeteoRepository;
+import com.example.genielogicielmeteoconsommation.repository.ImportRowWriter;
+import com.example.genielogicielmeteoconsommation.repository.IngestStrategy;
+import com.example.genielogicielmeteoconsommation.repository.RollupWriter;
+import com.example.genielogicielmeteoconsommation.support.BatchPipeline;
+import com.example.genielogicielmeteoconsommation.support.DelimitedLineTokenizer;
 import com.example.genielogicielmeteoconsommation.support.GrandEstReference;
+import com.example.genielogicielmeteoconsommation.support.TimeSlotDeduplicator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
-import java.time.LocalDateTime;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.time.zone.ZoneRules;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 
 @Service
 public class ImportMeteoService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ImportMeteoService.class);
-    private static final DateTimeFormatter METEO_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHH");
-    private static final ZoneId UTC_ZONE = ZoneId.of("UTC");
-    private static final ZoneId PARIS_ZONE = ZoneId.of("Europe/Paris");
-    private static final int BATCH_SIZE = 5_000;
+    private static final ZoneRules PARIS_RULES = ZoneId.of("Europe/Paris").getRules();
+    private static final List<String> DEPARTMENT_CODES = List.copyOf(GrandEstReference.DEPARTMENTS.keySet());
+    private static final long SECONDS_PER_DAY = 86_400L;
+    private static final long SECONDS_PER_HOUR = 3_600L;
+    private static final int METEO_SLOT_MINUTES = 60;
+    private static final int PROGRESS_INTERVAL = 8_192;
 
-    private final DonneesMeteoRepository meteoRepository;
+    private static final int MINIMUM_COLUMN_COUNT = 77;
+    private static final int STATION_COLUMN = 0;
+    private static final int DATE_TIME_COLUMN = 5;
+    private static final int PRECIPITATIONS_COLUMN = 6;
+    private static final int WIND_COLUMN = 10;
+    private static final int TEMPERATURE_COLUMN = 42;
+    private static final int HUMIDITY_COLUMN = 76;
 
-    public ImportMeteoService(DonneesMeteoRepository meteoRepository) {
-        this.meteoRepository = meteoRepository;
+    private final ImportRowWriter rowWriter;
+    private final RollupWriter rollupWriter;
+    private final HourlySeriesStore hourlySeriesStore;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final int writerThreads;
+
+    public ImportMeteoService(
+            ImportRowWriter rowWriter,
+            RollupWriter rollupWriter,
+            HourlySeriesStore hourlySeriesStore,
+            @Value("${app.import.batch-size:5000}") int batchSize,
+            @Value("${app.import.pipeline.queue-capacity:4}") int queueCapacity,
+            @Value("${app.import.pipeline.writer-threads:2}") int writerThreads
+    ) {
+        this.rowWriter = rowWriter;
+        this.rollupWriter = rollupWriter;
+        this.hourlySeriesStore = hourlySeriesStore;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.writerThreads = writerThreads;
     }
 
     public ImportSummary importerFichierMeteo(MultipartFile file) {
@@ -50,116 +83,189 @@ public class ImportMeteoService {
     }
 
     public ImportSummary importerFluxMeteo(String sourceName, InputStream inputStream) {
+        return importerFluxMeteo(sourceName, inputStream, rowWriter.defaultStrategy());
+    }
+
+    public ImportSummary importerFluxMeteo(String sourceName, InputStream inputStream, ImportProgress progress) {
+        return importerFluxMeteo(sourceName, inputStream, rowWriter.defaultStrategy(), progress);
+    }
+
+    public ImportSummary importerFluxMeteo(String sourceName, InputStream inputStream, IngestStrategy strategy) {
+        return importerFluxMeteo(sourceName, inputStream, strategy, ImportProgress.NONE);
+    }
+
+    public ImportSummary importerFluxMeteo(
+            String sourceName,
+            InputStream inputStream,
+            IngestStrategy strategy,
+            ImportProgress progress
+    ) {
         if (inputStream == null) {
             throw new IllegalArgumentException("Le flux meteo est introuvable.");
         }
 
-        List<DonneesMeteo> rowsToSave = new ArrayList<>(BATCH_SIZE);
-        Set<String> uniqueRows = new HashSet<>();
+        IngestStrategy effectiveStrategy = rowWriter.resolve(strategy);
+
+        TimeSlotDeduplicator uniqueRows = new TimeSlotDeduplicator(
+                GrandEstReference.STUDY_START_DATE,
+                GrandEstReference.STUDY_END_DATE,
+                METEO_SLOT_MINUTES
+        );
+        int readRows = 0;
         int skippedRows = 0;
-        int insertedRows = 0;
+        int reportedReadRows = 0;
+        int reportedSkippedRows = 0;
+        // Plage touchee par l'import, recalculee dans les tables d'agregats a la fin.
+        Set<String> touchedDepartments = new HashSet<>();
+        long firstEpochDay = Long.MAX_VALUE;
+        long lastEpochDay = Long.MIN_VALUE;
 
-        try (BufferedReader bufferedReader = new BufferedReader(
-                new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+        ImportSummary summary;
+        try (BatchPipeline<DonneesMeteo> pipeline = new BatchPipeline<>(
+                "import-meteo",
+                batchSize,
+                queueCapacity,
+                writerThreads,
+                batch -> {
+                    hourlySeriesStore.appendWeather(batch, rows -> rowWriter.writeMeteo(rows, effectiveStrategy));
+                    progress.rowsWritten(batch.size());
+                }
+        ); DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer(
+                new InputStreamReader(inputStream, StandardCharsets.UTF_8),
+                ';',
+                STATION_COLUMN,
+                DATE_TIME_COLUMN,
+                PRECIPITATIONS_COLUMN,
+                WIND_COLUMN,
+                TEMPERATURE_COLUMN,
+                HUMIDITY_COLUMN
+        )) {
 
-            String line;
             boolean firstLine = true;
+            long cachedEpochDay = Long.MIN_VALUE;
+            LocalDate cachedDate = null;
 
-            while ((line = bufferedReader.readLine()) != null) {
+            while (tokenizer.nextLine()) {
                 if (firstLine) {
                     firstLine = false;
                     continue;
                 }
 
-                String[] columns = line.split(";");
-                if (columns.length < 77) {
+                if (++readRows % PROGRESS_INTERVAL == 0) {
+                    progress.rowsRead(readRows - reportedReadRows, skippedRows - reportedSkippedRows);
+                    reportedReadRows = readRows;
+                    reportedSkippedRows = skippedRows;
+                    if (progress.isCancelled()) {
+                        throw new CancellationException("Import meteo annule.");
+                    }
+                }
+
+                if (tokenizer.columnCount() < MINIMUM_COLUMN_COUNT) {
                     skippedRows++;
                     continue;
                 }
 
+                DonneesMeteo record;
                 try {
-                    String station = columns[0].trim();
-                    String department = station.length() >= 2 ? station.substring(0, 2) : "XX";
-                    String dateTimeValue = columns[5].trim();
-
-                    if (!GrandEstReference.DEPARTMENTS.containsKey(department) || !dateTimeValue.startsWith("2014")) {
+                    String department = tokenizer.matchPrefix(STATION_COLUMN, DEPARTMENT_CODES);
+                    if (department == null || !tokenizer.startsWith(DATE_TIME_COLUMN, "2014")) {
                         skippedRows++;
                         continue;
                     }
 
-                    LocalDateTime parsedDateTime = LocalDateTime.parse(dateTimeValue, METEO_FORMATTER);
-                    ZonedDateTime parisTime = parsedDateTime.atZone(UTC_ZONE).withZoneSameInstant(PARIS_ZONE);
+                    long parisSecond = parisEpochSecond(tokenizer);
+                    long parisEpochDay = Math.floorDiv(parisSecond, SECONDS_PER_DAY);
+                    if (parisEpochDay != cachedEpochDay) {
+                        cachedEpochDay = parisEpochDay;
+                        cachedDate = LocalDate.ofEpochDay(parisEpochDay);
+                    }
+                    LocalDate parisDate = cachedDate;
+                    LocalTime parisTime = LocalTime.of((int) (Math.floorMod(parisSecond, SECONDS_PER_DAY) / SECONDS_PER_HOUR), 0);
 
-                    if (parisTime.toLocalDate().isBefore(GrandEstReference.STUDY_START_DATE)
-                            || parisTime.toLocalDate().isAfter(GrandEstReference.STUDY_END_DATE)) {
+                    if (parisDate.isBefore(GrandEstReference.STUDY_START_DATE)
+                            || parisDate.isAfter(GrandEstReference.STUDY_END_DATE)) {
                         skippedRows++;
                         continue;
                     }
 
-                    String rowKey = station + "|" + parisTime.toLocalDate() + "|" + parisTime.toLocalTime();
-                    if (!uniqueRows.add(rowKey)) {
+                    String station = tokenizer.internedText(STATION_COLUMN);
+                    if (!uniqueRows.add(station, parisDate, parisTime)) {
                         skippedRows++;
                         continue;
                     }
 
-                    DonneesMeteo record = new DonneesMeteo();
+                    record = new DonneesMeteo();
                     record.setDepartement(department);
                     record.setStation(station);
-                    record.setDate(parisTime.toLocalDate());
-                    record.setHeure(parisTime.toLocalTime());
-                    record.setPrecipitations(parseValue(columns[6]));
-                    record.setVent(parseValue(columns[10]));
-                    record.setTemperature(parseValue(columns[42]));
-                    record.setHumidite(parseValue(columns[76]));
-                    rowsToSave.add(record);
-
-                    insertedRows += flushBatchIfNeeded(rowsToSave);
+                    record.setDate(parisDate);
+                    record.setHeure(parisTime);
+                    record.setPrecipitations(nullable(tokenizer.decimal(PRECIPITATIONS_COLUMN)));
+                    record.setVent(nullable(tokenizer.decimal(WIND_COLUMN)));
+                    record.setTemperature(nullable(tokenizer.decimal(TEMPERATURE_COLUMN)));
+                    record.setHumidite(nullable(tokenizer.decimal(HUMIDITY_COLUMN)));
+
+                    touchedDepartments.add(department);
+                    firstEpochDay = Math.min(firstEpochDay, parisEpochDay);
+                    lastEpochDay = Math.max(lastEpochDay, parisEpochDay);
                 } catch (Exception exception) {
                     skippedRows++;
-                    LOGGER.debug("Ligne meteo ignoree: {}", line, exception);
+                    if (LOGGER.isDebugEnabled()) {
+                        LOGGER.debug("Ligne meteo ignoree: {}", tokenizer.line(), exception);
+                    }
+                    continue;
                 }
+
+                pipeline.add(record);
             }
 
-            insertedRows += flushBatch(rowsToSave);
-            return new ImportSummary("meteo", safeSourceName(sourceName), insertedRows, skippedRows);
+            int insertedRows = pipeline.finish();
+            progress.rowsRead(readRows - reportedReadRows, skippedRows - reportedSkippedRows);
+            summary = new ImportSummary("meteo", safeSourceName(sourceName), insertedRows, skippedRows);
         } catch (Exception exception) {
-            throw new RuntimeException("Erreur lors de la lecture du flux meteo", exception);
+            RuntimeException failure = new RuntimeException("Erreur lors de la lecture du flux meteo", exception);
+            // Les lots deja ecrits restent en base: les agregats doivent les refleter.
+            try {
+                refreshRollups(touchedDepartments, firstEpochDay, lastEpochDay);
+            } catch (RuntimeException rollupException) {
+                failure.addSuppressed(rollupException);
+            }
+            throw failure;
         }
-    }
 
-    private int flushBatchIfNeeded(List<DonneesMeteo> rowsToSave) {
-        if (rowsToSave.size() < BATCH_SIZE) {
-            return 0;
-        }
-        return flushBatch(rowsToSave);
+        refreshRollups(touchedDepartments, firstEpochDay, lastEpochDay);
+        return summary;
     }
 
-    private int flushBatch(List<DonneesMeteo> rowsToSave) {
-        if (rowsToSave.isEmpty()) {
-            return 0;
+    private void refreshRollups(Set<String> departments, long firstEpochDay, long lastEpochDay) {
+        if (departments.isEmpty()) {
+            return;
         }
-
-        int batchSize = rowsToSave.size();
-        meteoRepository.saveAll(new ArrayList<>(rowsToSave));
-        rowsToSave.clear();
-        return batchSize;
+        rollupWriter.refreshWeather(
+                departments,
+                LocalDate.ofEpochDay(firstEpochDay),
+                LocalDate.ofEpochDay(lastEpochDay)
+        );
     }
 
-    private Double parseValue(String value) {
-        if (value == null) {
-            return null;
+    /**
+     * Convertit l'horodatage UTC yyyyMMddHH de la colonne en secondes locales (Europe/Paris)
+     * depuis l'epoch, sans passer par un formateur ni un ZonedDateTime.
+     */
+    private long parisEpochSecond(DelimitedLineTokenizer tokenizer) {
+        int year = tokenizer.digits(DATE_TIME_COLUMN, 0, 4);
+        int month = tokenizer.digits(DATE_TIME_COLUMN, 4, 2);
+        int day = tokenizer.digits(DATE_TIME_COLUMN, 6, 2);
+        int hour = tokenizer.digits(DATE_TIME_COLUMN, 8, 2);
+        if (tokenizer.length(DATE_TIME_COLUMN) != 10 || year < 0 || month < 0 || day < 0 || hour < 0 || hour > 23) {
+            throw new IllegalArgumentException("Horodatage meteo invalide.");
         }
 
-        String normalized = value.trim();
-        if (normalized.isEmpty() || "ND".equalsIgnoreCase(normalized)) {
-            return null;
-        }
+        long utcSecond = LocalDate.of(year, month, day).toEpochDay() * SECONDS_PER_DAY + hour * SECONDS_PER_HOUR;
+        return utcSecond + PARIS_RULES.getOffset(Instant.ofEpochSecond(utcSecond)).getTotalSeconds();
+    }
 
-        try {
-            return Double.parseDouble(normalized.replace(",", "."));
-        } catch (NumberFormatException exception) {
-            return null;
-        }
+    private static Double nullable(double value) {
+        return Double.isNaN(value) ? null : value;
     }
 
     private String safeSourceName(String sourceName) {
@@ -0,0 +1,35 @@
+package com.example.genielogicielmeteoconsommation.service;
+
+/**
+ * Suivi d'un import en cours. Les compteurs sont transmis par increments, depuis le
+ * thread d'analyse pour les lignes lues et depuis les threads d'ecriture pour les
+ * lignes inserees: les implementations doivent etre sures entre threads.
+ */
+public interface ImportProgress {
+
+    ImportProgress NONE = new ImportProgress() {
+    };
+
+    default void rowsRead(int readRows, int skippedRows) {
+    }
+
+    default void rowsWritten(int insertedRows) {
+    }
+
+    /**
+     * Consulte regulierement pendant l'analyse: l'import s'arrete des que la valeur passe a {@code true}.
+     */
+    default boolean isCancelled() {
+        return false;
+    }
+
+    /**
+     * Appele juste avant une etape qui ne peut plus etre interrompue, comme la suppression des
+     * donnees remplacees. Les demandes d'annulation suivantes sont refusees.
+     *
+     * @return {@code false} si l'annulation a deja ete demandee: l'import doit alors s'arreter
+     */
+    default boolean disableCancellation() {
+        return !isCancelled();
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.genielogicielmeteoconsommation.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+
+/**
+ * Pipeline a deux etages pour les imports: le thread appelant analyse le fichier et
+ * remplit des lots, un ou plusieurs threads d'ecriture les consomment depuis une file
+ * bornee. Quand la file est pleine, l'analyse attend: la memoire reste limitee a
+ * {@code (capacite + ecrivains + 1) * taille de lot} lignes quelle que soit la taille du fichier.
+ */
+public final class BatchPipeline<T> implements AutoCloseable {
+
+    private static final List<?> END_OF_STREAM = new ArrayList<>(0);
+    private static final long OFFER_TIMEOUT_MILLIS = 100L;
+
+    private final int batchSize;
+    private final Consumer<List<T>> writer;
+    private final BlockingQueue<List<T>> queue;
+    private final List<Thread> writerThreads;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final AtomicInteger writtenRows = new AtomicInteger();
+
+    private List<T> currentBatch;
+    private boolean finished;
+
+    public BatchPipeline(String name, int batchSize, int queueCapacity, int writerCount, Consumer<List<T>> writer) {
+        if (batchSize < 1 || queueCapacity < 1 || writerCount < 1) {
+            throw new IllegalArgumentException("La taille de lot, la capacite et le nombre d'ecrivains doivent etre positifs.");
+        }
+
+        this.batchSize = batchSize;
+        this.writer = writer;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.currentBatch = new ArrayList<>(batchSize);
+        this.writerThreads = new ArrayList<>(writerCount);
+
+        ThreadFactory threadFactory = Thread.ofPlatform().name(name + "-writer-", 1).factory();
+        for (int index = 0; index < writerCount; index++) {
+            Thread thread = threadFactory.newThread(this::drain);
+            writerThreads.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * Ajoute une ligne au lot courant et le transmet aux ecrivains une fois plein.
+     * Bloque tant que la file est pleine.
+     */
+    public void add(T row) {
+        currentBatch.add(row);
+        if (currentBatch.size() >= batchSize) {
+            submit(currentBatch);
+            currentBatch = new ArrayList<>(batchSize);
+        }
+    }
+
+    /**
+     * Transmet le dernier lot, attend la fin des ecritures et renvoie le nombre de lignes ecrites.
+     */
+    public int finish() {
+        if (!currentBatch.isEmpty()) {
+            submit(currentBatch);
+            currentBatch = new ArrayList<>(0);
+        }
+
+        for (int index = 0; index < writerThreads.size(); index++) {
+            submit(endOfStream());
+        }
+        awaitWriters();
+        finished = true;
+
+        rethrowFailure();
+        return writtenRows.get();
+    }
+
+    @Override
+    public void close() {
+        if (finished) {
+            return;
+        }
+        // Sortie anticipee (erreur d'analyse): on arrete les ecrivains sans vider la file.
+        failure.compareAndSet(null, new IllegalStateException("Import interrompu."));
+        queue.clear();
+        writerThreads.forEach(Thread::interrupt);
+        awaitWriters();
+        finished = true;
+    }
+
+    private void submit(List<T> batch) {
+        try {
+            while (!queue.offer(batch, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                rethrowFailure();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrompu pendant l'attente des ecrivains.", exception);
+        }
+        if (batch != END_OF_STREAM) {
+            rethrowFailure();
+        }
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                List<T> batch = queue.take();
+                if (batch == END_OF_STREAM) {
+                    return;
+                }
+                if (failure.get() != null) {
+                    continue;
+                }
+                writer.accept(batch);
+                writtenRows.addAndGet(batch.size());
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable throwable) {
+            failure.compareAndSet(null, throwable);
+            // Libere l'analyse si elle attend une place dans la file. Les marqueurs de fin
+            // restent en place: les autres ecrivains en ont besoin pour s'arreter.
+            queue.removeIf(batch -> batch != END_OF_STREAM);
+        }
+    }
+
+    private void awaitWriters() {
+        boolean interrupted = false;
+        for (Thread thread : writerThreads) {
+            while (true) {
+                try {
+                    thread.join();
+                    break;
+                } catch (InterruptedException exception) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void rethrowFailure() {
+        Throwable throwable = failure.get();
+        if (throwable == null) {
+            return;
+        }
+        if (throwable instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (throwable instanceof Error error) {
+            throw error;
+        }
+        throw new IllegalStateException("Echec de l'ecriture d'un lot.", throwable);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> endOfStream() {
+        return (List<T>) END_OF_STREAM;
+    }
+}
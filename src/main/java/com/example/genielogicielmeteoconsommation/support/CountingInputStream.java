@@ -0,0 +1,46 @@
+package com.example.genielogicielmeteoconsommation.support;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.LongConsumer;
+
+/**
+ * Flux qui signale au fur et a mesure le nombre d'octets lus.
+ */
+public final class CountingInputStream extends FilterInputStream {
+
+    private final LongConsumer listener;
+
+    public CountingInputStream(InputStream inputStream, LongConsumer listener) {
+        super(inputStream);
+        this.listener = listener;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int value = super.read();
+        if (value >= 0) {
+            listener.accept(1L);
+        }
+        return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            listener.accept(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+        long skipped = super.skip(count);
+        if (skipped > 0) {
+            listener.accept(skipped);
+        }
+        return skipped;
+    }
+}
@@ -0,0 +1,354 @@
+package com.example.genielogicielmeteoconsommation.support;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lecture ligne a ligne d'un fichier delimite sans decouper chaque ligne en chaines:
+ * seules les bornes des colonnes demandees sont retenues, et les valeurs ne sont
+ * materialisees que sur demande. Les decimales acceptent la virgule comme separateur.
+ * Les valeurs renvoyees sont toujours lues apres suppression des blancs de bord, comme
+ * le ferait {@link String#trim()}.
+ */
+public final class DelimitedLineTokenizer implements Closeable {
+
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final int INTERN_TABLE_SIZE = 256;
+    private static final int MAX_EXACT_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Reader reader;
+    private final char delimiter;
+    private final boolean[] wantedColumns;
+    private final int[] fieldStarts;
+    private final int[] fieldEnds;
+    private final String[] internTable = new String[INTERN_TABLE_SIZE];
+
+    private char[] buffer = new char[INITIAL_BUFFER_SIZE];
+    private int limit;
+    private int nextLineStart;
+    private int lineStart;
+    private int lineEnd;
+    private int columnCount;
+    private boolean endOfInput;
+
+    public DelimitedLineTokenizer(Reader reader, char delimiter, int... columns) {
+        int maxColumn = Arrays.stream(columns).max().orElse(0);
+        this.reader = reader;
+        this.delimiter = delimiter;
+        this.wantedColumns = new boolean[maxColumn + 1];
+        this.fieldStarts = new int[maxColumn + 1];
+        this.fieldEnds = new int[maxColumn + 1];
+        for (int column : columns) {
+            wantedColumns[column] = true;
+        }
+    }
+
+    /**
+     * Avance sur la ligne suivante. Comme {@link java.io.BufferedReader#readLine()}, les fins
+     * de ligne {@code \n}, {@code \r\n} et {@code \r} seul sont reconnues.
+     *
+     * @return {@code false} une fois la fin du flux atteinte
+     */
+    public boolean nextLine() throws IOException {
+        while (true) {
+            if (scanLine()) {
+                return true;
+            }
+            if (endOfInput) {
+                return false;
+            }
+            fillBuffer();
+        }
+    }
+
+    /**
+     * Nombre de colonnes jusqu'a la derniere non vide, comme {@code line.split(";").length}:
+     * les colonnes vides en fin de ligne ne comptent pas.
+     */
+    public int columnCount() {
+        return columnCount;
+    }
+
+    public boolean isBlank(int column) {
+        return trimmedStart(column) >= trimmedEnd(column);
+    }
+
+    public int length(int column) {
+        return Math.max(0, trimmedEnd(column) - trimmedStart(column));
+    }
+
+    public boolean startsWith(int column, String prefix) {
+        int start = trimmedStart(column);
+        if (trimmedEnd(column) - start < prefix.length()) {
+            return false;
+        }
+        for (int index = 0; index < prefix.length(); index++) {
+            if (buffer[start + index] != prefix.charAt(index)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Renvoie le premier candidat par lequel commence la colonne, sans allouer de chaine.
+     */
+    public String matchPrefix(int column, List<String> candidates) {
+        for (String candidate : candidates) {
+            if (startsWith(column, candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    public String text(int column) {
+        int start = trimmedStart(column);
+        return new String(buffer, start, Math.max(0, trimmedEnd(column) - start));
+    }
+
+    /**
+     * Comme {@link #text(int)}, mais reutilise la meme instance pour les valeurs tres repetees
+     * (codes de station par exemple).
+     */
+    public String internedText(int column) {
+        int start = trimmedStart(column);
+        int length = Math.max(0, trimmedEnd(column) - start);
+
+        int hash = 0;
+        for (int index = start; index < start + length; index++) {
+            hash = 31 * hash + buffer[index];
+        }
+        int slot = (hash ^ (hash >>> 16)) & (INTERN_TABLE_SIZE - 1);
+
+        String cached = internTable[slot];
+        if (cached != null && cached.length() == length && regionEquals(start, cached)) {
+            return cached;
+        }
+
+        String value = new String(buffer, start, length);
+        internTable[slot] = value;
+        return value;
+    }
+
+    /**
+     * Lit un entier sur une portion de la colonne.
+     *
+     * @return la valeur, ou -1 si la portion sort de la colonne ou contient autre chose que des chiffres
+     */
+    public int digits(int column, int offset, int length) {
+        int start = trimmedStart(column) + offset;
+        if (offset < 0 || start + length > trimmedEnd(column)) {
+            return -1;
+        }
+
+        int value = 0;
+        for (int index = start; index < start + length; index++) {
+            char character = buffer[index];
+            if (character < '0' || character > '9') {
+                return -1;
+            }
+            value = value * 10 + (character - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Lit une valeur decimale ({@code 12,5} ou {@code 12.5}).
+     *
+     * @return la valeur, ou {@code Double.NaN} pour une cellule vide, "ND" ou invalide
+     */
+    public double decimal(int column) {
+        int start = trimmedStart(column);
+        int end = trimmedEnd(column);
+        if (start >= end || isNotAvailable(start, end)) {
+            return Double.NaN;
+        }
+
+        int index = start;
+        boolean negative = false;
+        if (buffer[index] == '-' || buffer[index] == '+') {
+            negative = buffer[index] == '-';
+            index++;
+        }
+
+        long mantissa = 0L;
+        int significantDigits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        boolean hasDigits = false;
+
+        for (; index < end; index++) {
+            char character = buffer[index];
+            if (character >= '0' && character <= '9') {
+                hasDigits = true;
+                if (mantissa == 0L && character == '0') {
+                    if (fraction) {
+                        scale++;
+                    }
+                    continue;
+                }
+                if (++significantDigits > MAX_EXACT_DIGITS) {
+                    return slowDecimal(start, end);
+                }
+                mantissa = mantissa * 10L + (character - '0');
+                if (fraction) {
+                    scale++;
+                }
+            } else if ((character == ',' || character == '.') && !fraction) {
+                fraction = true;
+            } else {
+                return slowDecimal(start, end);
+            }
+        }
+
+        if (!hasDigits || scale >= POWERS_OF_TEN.length) {
+            return slowDecimal(start, end);
+        }
+
+        // Mantisse et puissance de dix sont exactes en double: la division est correctement arrondie.
+        double value = mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    public String line() {
+        return new String(buffer, lineStart, lineEnd - lineStart);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private boolean scanLine() {
+        int column = 0;
+        int fieldStart = nextLineStart;
+        int filledColumns = 0;
+
+        for (int index = nextLineStart; index < limit; index++) {
+            char character = buffer[index];
+            if (character == delimiter) {
+                filledColumns = recordField(column++, fieldStart, index, filledColumns);
+                fieldStart = index + 1;
+            } else if (character == '\n' || character == '\r') {
+                int followingLineStart = index + 1;
+                if (character == '\r') {
+                    // Un \n peut suivre dans le prochain bloc lu.
+                    if (followingLineStart == limit && !endOfInput) {
+                        return false;
+                    }
+                    if (followingLineStart < limit && buffer[followingLineStart] == '\n') {
+                        followingLineStart++;
+                    }
+                }
+                filledColumns = recordField(column, fieldStart, index, filledColumns);
+                completeLine(column + 1, filledColumns, index, followingLineStart);
+                return true;
+            }
+        }
+
+        if (endOfInput && nextLineStart < limit) {
+            filledColumns = recordField(column, fieldStart, limit, filledColumns);
+            completeLine(column + 1, filledColumns, limit, limit);
+            return true;
+        }
+        return false;
+    }
+
+    private void completeLine(int columns, int filledColumns, int end, int followingLineStart) {
+        columnCount = filledColumns;
+        lineStart = nextLineStart;
+        lineEnd = end;
+        nextLineStart = followingLineStart;
+        for (int column = columns; column < wantedColumns.length; column++) {
+            fieldStarts[column] = 0;
+            fieldEnds[column] = 0;
+        }
+    }
+
+    /**
+     * @return le nombre de colonnes jusqu'a la derniere non vide, ce champ compris
+     */
+    private int recordField(int column, int start, int end, int filledColumns) {
+        if (column < wantedColumns.length && wantedColumns[column]) {
+            fieldStarts[column] = start;
+            fieldEnds[column] = end;
+        }
+        return end > start ? column + 1 : filledColumns;
+    }
+
+    private void fillBuffer() throws IOException {
+        int pending = limit - nextLineStart;
+        if (nextLineStart > 0) {
+            System.arraycopy(buffer, nextLineStart, buffer, 0, pending);
+            nextLineStart = 0;
+            limit = pending;
+        }
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+
+        int read = reader.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    private int trimmedStart(int column) {
+        checkColumn(column);
+        int start = fieldStarts[column];
+        int end = fieldEnds[column];
+        while (start < end && buffer[start] <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimmedEnd(int column) {
+        checkColumn(column);
+        int start = fieldStarts[column];
+        int end = fieldEnds[column];
+        while (end > start && buffer[end - 1] <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private void checkColumn(int column) {
+        if (column < 0 || column >= wantedColumns.length || !wantedColumns[column]) {
+            throw new IllegalArgumentException("Colonne non suivie par le lecteur: " + column);
+        }
+    }
+
+    private boolean regionEquals(int start, String value) {
+        for (int index = 0; index < value.length(); index++) {
+            if (buffer[start + index] != value.charAt(index)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isNotAvailable(int start, int end) {
+        return end - start == 2
+                && (buffer[start] == 'N' || buffer[start] == 'n')
+                && (buffer[start + 1] == 'D' || buffer[start + 1] == 'd');
+    }
+
+    private double slowDecimal(int start, int end) {
+        try {
+            return Double.parseDouble(new String(buffer, start, end - start).replace(",", "."));
+        } catch (NumberFormatException exception) {
+            return Double.NaN;
+        }
+    }
+}
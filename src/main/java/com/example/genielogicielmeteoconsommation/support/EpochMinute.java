@@ -0,0 +1,39 @@
+package com.example.genielogicielmeteoconsommation.support;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Horodatage compact des releves: minutes ecoulees depuis 1970-01-01 00:00 en heure locale,
+ * dans un entier 32 bits. Remplace le couple (date, heure) en base; les secondes sont ignorees.
+ */
+public final class EpochMinute {
+
+    public static final int MINUTES_PER_DAY = 1_440;
+
+    private EpochMinute() {
+    }
+
+    public static int of(LocalDate date, LocalTime time) {
+        return Math.toIntExact(date.toEpochDay() * MINUTES_PER_DAY + time.getHour() * 60L + time.getMinute());
+    }
+
+    public static int startOf(LocalDate date) {
+        return of(date, LocalTime.MIDNIGHT);
+    }
+
+    /**
+     * Derniere minute de la journee, pour une borne {@code BETWEEN} inclusive.
+     */
+    public static int endOf(LocalDate date) {
+        return startOf(date) + MINUTES_PER_DAY - 1;
+    }
+
+    public static LocalDate date(int epochMinute) {
+        return LocalDate.ofEpochDay(Math.floorDiv(epochMinute, MINUTES_PER_DAY));
+    }
+
+    public static LocalTime time(int epochMinute) {
+        return LocalTime.ofSecondOfDay(Math.floorMod(epochMinute, MINUTES_PER_DAY) * 60L);
+    }
+}
@@ -25,6 +25,15 @@ public final class GrandEstReference {
             "Lorraine"
     );
 
+    // Code smallint stocke en base pour chaque region: position + 1, a ne jamais reordonner.
+    private static final List<String> REGION_CODES = List.of(
+            MERGED_REGION,
+            FALLBACK_REGION,
+            "Alsace",
+            "Champagne-Ardenne",
+            "Lorraine"
+    );
+
     public static final Map<String, String> DEPARTMENTS;
 
     static {
@@ -42,6 +51,9 @@ public final class GrandEstReference {
         DEPARTMENTS = Collections.unmodifiableMap(departments);
     }
 
+    private static final List<String> DEPARTMENT_CODES = List.copyOf(DEPARTMENTS.keySet());
+    public static final int ALL_DEPARTMENTS_MASK = (1 << DEPARTMENT_CODES.size()) - 1;
+
     private GrandEstReference() {
     }
 
@@ -53,18 +65,71 @@ public final class GrandEstReference {
         return DEPARTMENTS.getOrDefault(code, code);
     }
 
+    /**
+     * Departements valides de la selection, dans l'ordre de {@link #DEPARTMENTS}: deux
+     * selections equivalentes donnent la meme liste quel que soit l'ordre de saisie.
+     */
     public static List<String> normalizeDepartments(Collection<String> departments) {
-        if (departments == null || departments.isEmpty()) {
-            return defaultDepartments();
+        return departmentsOf(departmentMask(departments));
+    }
+
+    /**
+     * Selection sous forme de masque: le bit i correspond au i-eme departement de
+     * {@link #DEPARTMENTS}. Une selection vide ou sans departement connu vaut tous les departements.
+     */
+    public static int departmentMask(Collection<String> departments) {
+        int mask = 0;
+        if (departments != null) {
+            for (String department : departments) {
+                if (department == null || department.isBlank()) {
+                    continue;
+                }
+                int index = DEPARTMENT_CODES.indexOf(department.trim());
+                if (index >= 0) {
+                    mask |= 1 << index;
+                }
+            }
         }
+        return mask == 0 ? ALL_DEPARTMENTS_MASK : mask;
+    }
 
-        List<String> normalized = departments.stream()
-                .filter(value -> value != null && !value.isBlank())
-                .map(String::trim)
-                .filter(DEPARTMENTS::containsKey)
-                .distinct()
-                .toList();
+    /**
+     * Departements du masque, dans l'ordre de {@link #DEPARTMENTS}. La liste n'est pas
+     * modifiable: elle est conservee dans les selections mises en cache.
+     */
+    public static List<String> departmentsOf(int mask) {
+        List<String> departments = new ArrayList<>(Integer.bitCount(mask));
+        for (int index = 0; index < DEPARTMENT_CODES.size(); index++) {
+            if ((mask & (1 << index)) != 0) {
+                departments.add(DEPARTMENT_CODES.get(index));
+            }
+        }
+        return List.copyOf(departments);
+    }
+
+    public static short regionCode(String region) {
+        int index = REGION_CODES.indexOf(region);
+        if (index < 0) {
+            throw new IllegalArgumentException("Region inconnue: " + region);
+        }
+        return (short) (index + 1);
+    }
+
+    public static String regionOfCode(short code) {
+        if (code < 1 || code > REGION_CODES.size()) {
+            throw new IllegalArgumentException("Code region inconnu: " + code);
+        }
+        return REGION_CODES.get(code - 1);
+    }
+
+    /**
+     * Numero de departement stocke en base: "08" devient 8.
+     */
+    public static short departmentNumber(String department) {
+        return Short.parseShort(department.trim());
+    }
 
-        return normalized.isEmpty() ? defaultDepartments() : normalized;
+    public static String departmentOfNumber(short number) {
+        return "%02d".formatted(number);
     }
 }
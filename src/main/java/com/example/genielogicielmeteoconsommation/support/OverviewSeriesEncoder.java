@@ -0,0 +1,67 @@
+package com.example.genielogicielmeteoconsommation.support;
+
+import com.example.genielogicielmeteoconsommation.dto.DashboardOverviewResponse;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+/**
+ * Encodage binaire (type {@value #MEDIA_TYPE}) des deux series volumineuses de la synthese:
+ * tendances journalieres et nuage de points. Tout est en little-endian, lisible directement
+ * par des {@code Int32Array}/{@code Float32Array} cote navigateur:
+ * <pre>
+ * "MCS1" | int32 jours | int32 points
+ * jours:  int32 epochDay | float32 conso moyenne | float32 pic | float32 temperature
+ *         | float32 humidite | float32 vent | float32 precipitations  (NaN si absent)
+ * points: float32 temperature | float32 consommation | int32 heures regroupees
+ *         | int8 saison (index dans {@link #SEASON_LABELS}, -1 si inconnue)
+ * </pre>
+ * Chaque champ forme une colonne contigue; les octets de saison viennent en dernier pour
+ * garder les colonnes de 4 octets alignees. Une section absente compte zero element.
+ */
+public final class OverviewSeriesEncoder {
+
+    public static final String MEDIA_TYPE = "application/vnd.meteo.series";
+    public static final List<String> SEASON_LABELS = List.of("Hiver", "Printemps", "Ete", "Automne");
+
+    private static final byte[] MAGIC = {'M', 'C', 'S', '1'};
+    private static final int DAY_BYTES = 7 * Float.BYTES;
+    private static final int POINT_BYTES = 3 * Float.BYTES + 1;
+
+    private OverviewSeriesEncoder() {
+    }
+
+    public static byte[] encode(DashboardOverviewResponse response) {
+        List<DashboardOverviewResponse.DailyTrendPoint> days =
+                response.dailyTrends() == null ? List.of() : response.dailyTrends();
+        List<DashboardOverviewResponse.ScatterPoint> points =
+                response.scatterPoints() == null ? List.of() : response.scatterPoints();
+
+        ByteBuffer buffer = ByteBuffer
+                .allocate(MAGIC.length + 2 * Integer.BYTES + days.size() * DAY_BYTES + points.size() * POINT_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC);
+        buffer.putInt(days.size());
+        buffer.putInt(points.size());
+
+        days.forEach(day -> buffer.putInt((int) day.date().toEpochDay()));
+        days.forEach(day -> buffer.putFloat((float) day.averageConsumptionMw()));
+        days.forEach(day -> buffer.putFloat((float) day.peakConsumptionMw()));
+        days.forEach(day -> buffer.putFloat(floatOrNaN(day.averageTemperature())));
+        days.forEach(day -> buffer.putFloat(floatOrNaN(day.averageHumidity())));
+        days.forEach(day -> buffer.putFloat(floatOrNaN(day.averageWind())));
+        days.forEach(day -> buffer.putFloat(floatOrNaN(day.totalPrecipitations())));
+
+        points.forEach(point -> buffer.putFloat((float) point.temperature()));
+        points.forEach(point -> buffer.putFloat((float) point.consumptionMw()));
+        points.forEach(point -> buffer.putInt((int) Math.min(Integer.MAX_VALUE, point.observationCount())));
+        points.forEach(point -> buffer.put((byte) SEASON_LABELS.indexOf(point.season())));
+
+        return buffer.array();
+    }
+
+    private static float floatOrNaN(Double value) {
+        return value == null ? Float.NaN : value.floatValue();
+    }
+}
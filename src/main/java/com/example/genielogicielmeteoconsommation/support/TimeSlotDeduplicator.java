@@ -0,0 +1,57 @@
+package com.example.genielogicielmeteoconsommation.support;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Detection des doublons (cle, date, heure) pendant un import: un bitmap par cle
+ * (station ou region) couvre la periode d'etude avec un bit par creneau. La memoire
+ * depend du nombre de cles et de la periode, pas du nombre de lignes du fichier.
+ * Les horaires hors grille ou hors periode passent par un ensemble de secours.
+ */
+public final class TimeSlotDeduplicator {
+
+    private final long startEpochDay;
+    private final int dayCount;
+    private final int slotMinutes;
+    private final int slotsPerDay;
+    private final Map<String, BitSet> slotsByKey = new HashMap<>();
+    private final Set<String> overflow = new HashSet<>();
+
+    public TimeSlotDeduplicator(LocalDate startDate, LocalDate endDate, int slotMinutes) {
+        if (slotMinutes < 1 || 1_440 % slotMinutes != 0) {
+            throw new IllegalArgumentException("Le creneau doit diviser une journee: " + slotMinutes);
+        }
+        this.startEpochDay = startDate.toEpochDay();
+        this.dayCount = (int) ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        this.slotMinutes = slotMinutes;
+        this.slotsPerDay = 1_440 / slotMinutes;
+    }
+
+    /**
+     * @return {@code true} si la combinaison n'avait pas encore ete vue
+     */
+    public boolean add(String key, LocalDate date, LocalTime time) {
+        long day = date.toEpochDay() - startEpochDay;
+        int minuteOfDay = time.getHour() * 60 + time.getMinute();
+
+        if (day < 0 || day >= dayCount || minuteOfDay % slotMinutes != 0
+                || time.getSecond() != 0 || time.getNano() != 0) {
+            return overflow.add(key + "|" + date + "|" + time);
+        }
+
+        BitSet slots = slotsByKey.computeIfAbsent(key, ignored -> new BitSet(dayCount * slotsPerDay));
+        int index = (int) day * slotsPerDay + minuteOfDay / slotMinutes;
+        if (slots.get(index)) {
+            return false;
+        }
+        slots.set(index);
+        return true;
+    }
+}
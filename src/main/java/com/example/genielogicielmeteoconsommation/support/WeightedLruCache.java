@@ -0,0 +1,177 @@
+package com.example.genielogicielmeteoconsommation.support;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cache LRU borne par un poids total plutot que par un nombre d'entrees: une reponse portant
+ * des milliers de points pese plus qu'une reponse vide. Les entrees expirent apres une duree
+ * fixe; {@link #purgeExpired()} les retire sans attendre qu'elles soient relues.
+ * Une entree expiree peut encore etre servie pendant une periode de grace
+ * ({@link #getAllowStale(Object)}), le temps qu'un appelant la recalcule.
+ * Les compteurs (succes, succes perimes, echecs, evictions, expirations) sont cumules depuis la creation.
+ */
+public final class WeightedLruCache<K, V> {
+
+    private final long maxWeight;
+    private final long ttlMillis;
+    private final long staleMillis;
+    private final ToLongFunction<V> weigher;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long totalWeight;
+    private long hits;
+    private long staleHits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    public WeightedLruCache(long maxWeight, long ttlMillis, long staleMillis, ToLongFunction<V> weigher) {
+        this(maxWeight, ttlMillis, staleMillis, weigher, System::currentTimeMillis);
+    }
+
+    WeightedLruCache(long maxWeight, long ttlMillis, long staleMillis, ToLongFunction<V> weigher, LongSupplier clock) {
+        if (maxWeight < 1 || ttlMillis < 1 || staleMillis < 0) {
+            throw new IllegalArgumentException("Le poids maximal et la duree de vie doivent etre positifs.");
+        }
+        this.maxWeight = maxWeight;
+        this.ttlMillis = ttlMillis;
+        this.staleMillis = staleMillis;
+        this.weigher = weigher;
+        this.clock = clock;
+    }
+
+    /**
+     * @return la valeur si elle est presente et non expiree, {@code null} sinon
+     */
+    public synchronized V get(K key) {
+        Lookup<V> lookup = lookup(key, false);
+        return lookup == null ? null : lookup.value();
+    }
+
+    /**
+     * Comme {@link #get(Object)} mais renvoie aussi une valeur expiree depuis moins que la
+     * periode de grace, marquee comme perimee.
+     *
+     * @return la valeur trouvee, ou {@code null} si elle est absente ou hors periode de grace
+     */
+    public synchronized Lookup<V> getAllowStale(K key) {
+        return lookup(key, true);
+    }
+
+    /**
+     * Ajoute ou remplace une valeur puis evince les moins recemment utilisees tant que le
+     * poids total depasse le maximum. Une valeur plus lourde que le maximum n'est pas conservee.
+     */
+    public synchronized void put(K key, V value) {
+        long weight = Math.max(1L, weigher.applyAsLong(value));
+        Entry<V> previous = entries.remove(key);
+        if (previous != null) {
+            totalWeight -= previous.weight();
+        }
+        if (weight > maxWeight) {
+            return;
+        }
+
+        entries.put(key, new Entry<>(value, weight, clock.getAsLong()));
+        totalWeight += weight;
+
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (totalWeight > maxWeight && iterator.hasNext()) {
+            Map.Entry<K, Entry<V>> eldest = iterator.next();
+            if (eldest.getKey().equals(key)) {
+                continue;
+            }
+            totalWeight -= eldest.getValue().weight();
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Retire les entrees expirees et sorties de leur periode de grace.
+     *
+     * @return le nombre d'entrees retirees
+     */
+    public synchronized int purgeExpired() {
+        long now = clock.getAsLong();
+        int removed = 0;
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry<V> entry = iterator.next();
+            if (isExpired(entry, now)) {
+                totalWeight -= entry.weight();
+                iterator.remove();
+                removed++;
+            }
+        }
+        expirations += removed;
+        return removed;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalWeight = 0L;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, staleHits, misses, evictions, expirations, entries.size(), totalWeight, maxWeight);
+    }
+
+    private Lookup<V> lookup(K key, boolean allowStale) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+
+        long age = clock.getAsLong() - entry.storedAtMillis();
+        if (age > ttlMillis + staleMillis) {
+            remove(key, entry);
+            expirations++;
+            misses++;
+            return null;
+        }
+        if (age <= ttlMillis) {
+            hits++;
+            return new Lookup<>(entry.value(), false);
+        }
+        if (!allowStale) {
+            misses++;
+            return null;
+        }
+        staleHits++;
+        return new Lookup<>(entry.value(), true);
+    }
+
+    private boolean isExpired(Entry<V> entry, long now) {
+        return now - entry.storedAtMillis() > ttlMillis + staleMillis;
+    }
+
+    private void remove(K key, Entry<V> entry) {
+        entries.remove(key);
+        totalWeight -= entry.weight();
+    }
+
+    private record Entry<V>(V value, long weight, long storedAtMillis) {
+    }
+
+    public record Lookup<V>(V value, boolean stale) {
+    }
+
+    public record Stats(
+            long hits,
+            long staleHits,
+            long misses,
+            long evictions,
+            long expirations,
+            int size,
+            long weight,
+            long maxWeight
+    ) {
+    }
+}
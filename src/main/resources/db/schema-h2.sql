@@ -0,0 +1,87 @@
+-- Schema H2 (profil local), rejoue a chaque demarrage: chaque instruction est idempotente.
+-- Tables brutes des imports et index utilises par les recalculs d'agregats (plages d'horodatage).
+
+-- Les releves stockent des cles compactes: numero de departement et code de region en
+-- SMALLINT, station par identifiant de station_meteo, horodatage en minutes depuis le
+-- 1970-01-01 (voir EpochMinute).
+
+CREATE TABLE IF NOT EXISTS station_meteo (
+    id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    code VARCHAR(255) NOT NULL,
+    departement SMALLINT,
+    CONSTRAINT uk_station_meteo_code UNIQUE (code)
+);
+
+CREATE TABLE IF NOT EXISTS releve_meteo (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    station_id INTEGER,
+    departement SMALLINT,
+    horodatage INTEGER,
+    temperature DOUBLE PRECISION,
+    humidite DOUBLE PRECISION,
+    precipitations DOUBLE PRECISION,
+    vent DOUBLE PRECISION
+);
+
+CREATE INDEX IF NOT EXISTS idx_releve_meteo_horodatage_departement
+    ON releve_meteo (horodatage, departement);
+
+CREATE TABLE IF NOT EXISTS releve_consommation (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    region SMALLINT,
+    horodatage INTEGER,
+    consommation_mw DOUBLE PRECISION
+);
+
+CREATE INDEX IF NOT EXISTS idx_releve_consommation_horodatage_region
+    ON releve_consommation (horodatage, region);
+
+-- La reprise d'une base creee avant l'encodage (donnees_meteo, consommation_electrique)
+-- est faite par LegacyReleveMigration, seulement si ces tables existent encore.
+
+-- Agregats horaires (voir RollupWriter).
+
+CREATE TABLE IF NOT EXISTS meteo_horaire (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    departement VARCHAR(255),
+    date DATE,
+    heure TIME,
+    nombre_lignes BIGINT,
+    temperature_somme DOUBLE PRECISION,
+    temperature_nombre BIGINT,
+    temperature_min DOUBLE PRECISION,
+    temperature_max DOUBLE PRECISION,
+    humidite_somme DOUBLE PRECISION,
+    humidite_nombre BIGINT,
+    precipitations_somme DOUBLE PRECISION,
+    precipitations_nombre BIGINT,
+    vent_somme DOUBLE PRECISION,
+    vent_nombre BIGINT,
+    CONSTRAINT uk_meteo_horaire_departement_date_heure UNIQUE (departement, date, heure)
+);
+
+CREATE INDEX IF NOT EXISTS idx_meteo_horaire_date_heure ON meteo_horaire (date, heure);
+
+CREATE TABLE IF NOT EXISTS meteo_station_jour (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    departement VARCHAR(255),
+    station VARCHAR(255),
+    date DATE,
+    nombre_lignes BIGINT,
+    CONSTRAINT uk_meteo_station_jour_departement_station_date UNIQUE (departement, station, date)
+);
+
+CREATE INDEX IF NOT EXISTS idx_meteo_station_jour_date ON meteo_station_jour (date);
+
+CREATE TABLE IF NOT EXISTS consommation_horaire (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    region VARCHAR(255),
+    date DATE,
+    heure TIME,
+    nombre_lignes BIGINT,
+    consommation_somme DOUBLE PRECISION,
+    consommation_nombre BIGINT,
+    CONSTRAINT uk_consommation_horaire_region_date_heure UNIQUE (region, date, heure)
+);
+
+CREATE INDEX IF NOT EXISTS idx_consommation_horaire_date_heure ON consommation_horaire (date, heure);
@@ -0,0 +1,161 @@
+-- Schema PostgreSQL, rejoue a chaque demarrage: chaque instruction est idempotente.
+-- Les blocs DO contiennent des ';': les instructions sont separees par '@@'
+-- (spring.sql.init.separator dans application-postgres.properties).
+--
+-- Les releves stockent des cles compactes: numero de departement et code de region en
+-- SMALLINT, station par identifiant de station_meteo, horodatage en minutes depuis le
+-- 1970-01-01 (voir EpochMinute). releve_meteo et releve_consommation sont partitionnees
+-- par annee sur l'horodatage: un filtre de dates ne lit que les partitions concernees. La
+-- cle primaire inclut donc l'horodatage. Une partition par defaut recoit les annees hors
+-- 2010-2019.
+
+CREATE TABLE IF NOT EXISTS station_meteo (
+    id SERIAL PRIMARY KEY,
+    code VARCHAR(255) NOT NULL,
+    departement SMALLINT,
+    CONSTRAINT uk_station_meteo_code UNIQUE (code)
+)
+@@
+
+CREATE TABLE IF NOT EXISTS releve_meteo (
+    id BIGSERIAL,
+    station_id INTEGER,
+    departement SMALLINT,
+    horodatage INTEGER NOT NULL,
+    temperature DOUBLE PRECISION,
+    humidite DOUBLE PRECISION,
+    precipitations DOUBLE PRECISION,
+    vent DOUBLE PRECISION,
+    CONSTRAINT pk_releve_meteo PRIMARY KEY (id, horodatage)
+) PARTITION BY RANGE (horodatage)
+@@
+
+CREATE TABLE IF NOT EXISTS releve_consommation (
+    id BIGSERIAL,
+    region SMALLINT,
+    horodatage INTEGER NOT NULL,
+    consommation_mw DOUBLE PRECISION,
+    CONSTRAINT pk_releve_consommation PRIMARY KEY (id, horodatage)
+) PARTITION BY RANGE (horodatage)
+@@
+
+DO $$
+DECLARE
+    partitioned_table TEXT;
+    partition_year INT;
+BEGIN
+    FOREACH partitioned_table IN ARRAY ARRAY['releve_meteo', 'releve_consommation'] LOOP
+        FOR partition_year IN 2010..2019 LOOP
+            EXECUTE format(
+                'CREATE TABLE IF NOT EXISTS %I PARTITION OF %I FOR VALUES FROM (%s) TO (%s)',
+                partitioned_table || '_' || partition_year,
+                partitioned_table,
+                (make_date(partition_year, 1, 1) - DATE '1970-01-01') * 1440,
+                (make_date(partition_year + 1, 1, 1) - DATE '1970-01-01') * 1440
+            );
+        END LOOP;
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF %I DEFAULT',
+            partitioned_table || '_autres',
+            partitioned_table
+        );
+    END LOOP;
+END $$
+@@
+
+-- Crees sur la table partitionnee, les index sont declines sur chaque partition.
+CREATE INDEX IF NOT EXISTS idx_releve_meteo_horodatage_departement
+    ON releve_meteo (horodatage, departement)
+@@
+
+CREATE INDEX IF NOT EXISTS idx_releve_consommation_horodatage_region
+    ON releve_consommation (horodatage, region)
+@@
+
+-- Reprise d'une base creee avant l'encodage (donnees_meteo, consommation_electrique,
+-- partitionnees ou non): recopie avec conversion des cles puis suppression.
+DO $$
+BEGIN
+    IF to_regclass('donnees_meteo') IS NOT NULL THEN
+        INSERT INTO station_meteo (code, departement)
+        SELECT station, MIN(CAST(departement AS SMALLINT))
+        FROM donnees_meteo
+        WHERE station IS NOT NULL
+        GROUP BY station
+        ON CONFLICT (code) DO NOTHING;
+        INSERT INTO releve_meteo (station_id, departement, horodatage, temperature, humidite, precipitations, vent)
+        SELECT station_meteo.id, CAST(donnees_meteo.departement AS SMALLINT),
+            (date - DATE '1970-01-01') * 1440
+                + COALESCE(EXTRACT(HOUR FROM heure) * 60 + EXTRACT(MINUTE FROM heure), 0),
+            temperature, humidite, precipitations, vent
+        FROM donnees_meteo LEFT JOIN station_meteo ON station_meteo.code = donnees_meteo.station
+        WHERE date IS NOT NULL;
+        DROP TABLE donnees_meteo;
+    END IF;
+    IF to_regclass('consommation_electrique') IS NOT NULL THEN
+        INSERT INTO releve_consommation (region, horodatage, consommation_mw)
+        SELECT CASE region
+                WHEN 'Grand Est' THEN 1 WHEN 'France' THEN 2 WHEN 'Alsace' THEN 3
+                WHEN 'Champagne-Ardenne' THEN 4 WHEN 'Lorraine' THEN 5 END,
+            (date - DATE '1970-01-01') * 1440
+                + COALESCE(EXTRACT(HOUR FROM heure) * 60 + EXTRACT(MINUTE FROM heure), 0),
+            consommation_mw
+        FROM consommation_electrique
+        WHERE date IS NOT NULL;
+        DROP TABLE consommation_electrique;
+    END IF;
+END $$
+@@
+
+-- Agregats horaires (voir RollupWriter), petits: ni partitionnes ni recopies.
+
+CREATE TABLE IF NOT EXISTS meteo_horaire (
+    id BIGSERIAL PRIMARY KEY,
+    departement VARCHAR(255),
+    date DATE,
+    heure TIME,
+    nombre_lignes BIGINT,
+    temperature_somme DOUBLE PRECISION,
+    temperature_nombre BIGINT,
+    temperature_min DOUBLE PRECISION,
+    temperature_max DOUBLE PRECISION,
+    humidite_somme DOUBLE PRECISION,
+    humidite_nombre BIGINT,
+    precipitations_somme DOUBLE PRECISION,
+    precipitations_nombre BIGINT,
+    vent_somme DOUBLE PRECISION,
+    vent_nombre BIGINT,
+    CONSTRAINT uk_meteo_horaire_departement_date_heure UNIQUE (departement, date, heure)
+)
+@@
+
+CREATE INDEX IF NOT EXISTS idx_meteo_horaire_date_heure ON meteo_horaire (date, heure)
+@@
+
+CREATE TABLE IF NOT EXISTS meteo_station_jour (
+    id BIGSERIAL PRIMARY KEY,
+    departement VARCHAR(255),
+    station VARCHAR(255),
+    date DATE,
+    nombre_lignes BIGINT,
+    CONSTRAINT uk_meteo_station_jour_departement_station_date UNIQUE (departement, station, date)
+)
+@@
+
+CREATE INDEX IF NOT EXISTS idx_meteo_station_jour_date ON meteo_station_jour (date)
+@@
+
+CREATE TABLE IF NOT EXISTS consommation_horaire (
+    id BIGSERIAL PRIMARY KEY,
+    region VARCHAR(255),
+    date DATE,
+    heure TIME,
+    nombre_lignes BIGINT,
+    consommation_somme DOUBLE PRECISION,
+    consommation_nombre BIGINT,
+    CONSTRAINT uk_consommation_horaire_region_date_heure UNIQUE (region, date, heure)
+)
+@@
+
+CREATE INDEX IF NOT EXISTS idx_consommation_horaire_date_heure ON consommation_horaire (date, heure)
+@@
@@ -1,6 +1,19 @@
 const DEFAULT_START_DATE = "2014-01-01";
 const DEFAULT_END_DATE = "2014-12-31";
 const OVERVIEW_CACHE_TTL_MS = 10 * 60 * 1000;
+const IMPORT_JOB_POLL_MILLIS = 1000;
+const SCATTER_MAX_POINTS = 1800;
+// Sections de /overview utilisees par chaque bloc: une page ne demande que celles qu'elle affiche.
+const OVERVIEW_SECTION_HOSTS = {
+    dailyTrends: ["trendChart"],
+    departmentProfiles: ["departmentProfiles", "departmentSpotlight"],
+    departmentMonthlyTrends: ["departmentChart"],
+    temperatureBuckets: ["bucketChart"],
+    scatterPoints: ["scatterChart"],
+    seasonalComparisons: ["seasonCards"],
+    regressionModel: ["estimateResult"],
+    transparency: ["sourcesList"]
+};
 const STORAGE_KEYS = {
     departments: "dashboard.departments",
     filters: "dashboard.filters",
@@ -337,7 +350,9 @@ async function refreshOverview(options = {}) {
         const params = new URLSearchParams({
             startDate: filters.startDate,
             endDate: filters.endDate,
-            departments: filters.departments.join(",")
+            departments: filters.departments.join(","),
+            maxPoints: String(SCATTER_MAX_POINTS),
+            include: getOverviewSections().join(",")
         });
 
         state.overview = await fetchJson(`/api/dashboard/overview?${params.toString()}`);
@@ -859,15 +874,8 @@ async function handleElectricityImport(event) {
 
     const formData = new FormData();
     formData.append("file", input.files[0]);
-    const message = await fetchText("/api/donnees/importer-electricite", {
-        method: "POST",
-        body: formData
-    });
-
-    document.getElementById("importStatus").textContent = message;
-    showToast(message, "success");
     input.value = "";
-    await refreshOverview();
+    await runImportJob("/api/donnees/jobs/electricite", formData);
 }
 
 async function handleWeatherImport(event) {
@@ -883,17 +891,40 @@ async function handleWeatherImport(event) {
 
     const formData = new FormData();
     Array.from(input.files).forEach((file) => formData.append("files", file));
-    const message = await fetchText("/api/donnees/importer-meteo", {
-        method: "POST",
-        body: formData
-    });
-
-    document.getElementById("importStatus").textContent = message;
-    showToast(message, "success");
     input.value = "";
+    await runImportJob("/api/donnees/jobs/meteo", formData);
+}
+
+async function runImportJob(url, formData) {
+    const statusElement = document.getElementById("importStatus");
+    let job;
+    try {
+        job = await fetchJson(url, { method: "POST", body: formData });
+    } catch (error) {
+        showToast(error.message || "Une erreur est survenue.", "error");
+        return;
+    }
+
+    while (job.state === "QUEUED" || job.state === "RUNNING") {
+        statusElement.textContent = describeImportJob(job);
+        await new Promise((resolve) => setTimeout(resolve, IMPORT_JOB_POLL_MILLIS));
+        job = await fetchJson(`/api/donnees/jobs/${encodeURIComponent(job.id)}`);
+    }
+
+    statusElement.textContent = job.message || describeImportJob(job);
+    showToast(job.message || "Import termine.", job.state === "SUCCEEDED" ? "success" : "error");
     await refreshOverview();
 }
 
+function describeImportJob(job) {
+    if (job.state === "QUEUED") {
+        return "Import en attente...";
+    }
+    const percent = job.totalBytes > 0 ? Math.round((job.readBytes / job.totalBytes) * 100) : 0;
+    const eta = job.etaSeconds != null ? `, fin estimee dans ${job.etaSeconds} s` : "";
+    return `Import en cours : ${percent} %, ${job.insertedRows} lignes ajoutees, ${job.skippedRows} lignes ignorees${eta}.`;
+}
+
 function resetFilters() {
     if (!document.getElementById("startDate")) {
         return;
@@ -1119,11 +1150,18 @@ function renderListLoadingState(host) {
     `).join("");
 }
 
+function getOverviewSections() {
+    return Object.entries(OVERVIEW_SECTION_HOSTS)
+        .filter(([, hostIds]) => hostIds.some((hostId) => document.getElementById(hostId)))
+        .map(([section]) => section);
+}
+
 function getOverviewCacheKey(filters) {
     return STORAGE_KEYS.overviewPrefix + [
         filters.startDate,
         filters.endDate,
-        filters.departments.join(",")
+        filters.departments.join(","),
+        getOverviewSections().join(",")
     ].join("|");
 }
 
@@ -1175,16 +1213,6 @@ async function fetchJson(url, options = {}) {
     return response.json();
 }
 
-async function fetchText(url, options = {}) {
-    const response = await fetch(url, options);
-    const message = await response.text();
-    if (!response.ok) {
-        showToast(message || "Une erreur est survenue.", "error");
-        throw new Error(message || "Erreur API");
-    }
-    return message;
-}
-
 function renderNormalizedLineChart(container, points, seriesDefinitions, options = {}) {
     if (!points.length) {
         renderEmpty(container, "Aucune serie disponible pour cette visualisation.");
@@ -1323,8 +1351,10 @@ function renderScatter(container, points) {
         return;
     }
 
-    const sampleStep = Math.max(1, Math.ceil(points.length / 1800));
+    // Le serveur regroupe deja le nuage: le pas ne sert que pour une reponse non regroupee.
+    const sampleStep = Math.max(1, Math.ceil(points.length / SCATTER_MAX_POINTS));
     const sample = points.filter((_, index) => index % sampleStep === 0);
+    const maxObservations = Math.max(...sample.map((point) => point.observationCount || 1));
     const width = 800;
     const height = 320;
     const margin = { top: 20, right: 20, bottom: 42, left: 46 };
@@ -1345,7 +1375,7 @@ function renderScatter(container, points) {
         svg.appendChild(svgElement("circle", {
             cx: margin.left + normalize(point.temperature, minX, maxX) * usableWidth,
             cy: margin.top + (1 - normalize(point.consumptionMw, minY, maxY)) * usableHeight,
-            r: 3,
+            r: 2 + 3 * Math.sqrt((point.observationCount || 1) / maxObservations),
             fill: colors[point.season] || "#5f6a73",
             opacity: 0.72
         }));
@@ -0,0 +1,69 @@
+package com.example.genielogicielmeteoconsommation.controller;
+
+import com.example.genielogicielmeteoconsommation.dto.DashboardOverviewResponse;
+import com.example.genielogicielmeteoconsommation.service.DashboardService;
+import com.example.genielogicielmeteoconsommation.support.OverviewSeriesEncoder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(DashboardController.class)
+public class DashboardControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private DashboardService dashboardService;
+
+    @Test
+    public void testOverviewNegocieLeFormatSelonAccept() throws Exception {
+        given(dashboardService.buildOverview(any(), any(), any(), eq(null), any())).willReturn(overview());
+
+        mockMvc.perform(get("/api/dashboard/overview"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.scatterPoints[0].temperature").value(2.5))
+                .andExpect(jsonPath("$.regressionModel").doesNotExist());
+
+        mockMvc.perform(get("/api/dashboard/overview").accept("application/vnd.meteo.columnar+json"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.scatterPoints.temperature[0]").value(2.5))
+                .andExpect(jsonPath("$.scatterPoints.seasonLabels[0]").value("Hiver"));
+
+        mockMvc.perform(get("/api/dashboard/overview").accept(OverviewSeriesEncoder.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(OverviewSeriesEncoder.MEDIA_TYPE))
+                .andExpect(content().bytes(OverviewSeriesEncoder.encode(overview())));
+    }
+
+    @Test
+    public void testOverviewRefuseUneSectionInconnue() throws Exception {
+        mockMvc.perform(get("/api/dashboard/overview").param("include", "inconnue"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private DashboardOverviewResponse overview() {
+        return new DashboardOverviewResponse(
+                null, null, null, null,
+                List.of(new DashboardOverviewResponse.DailyTrendPoint(LocalDate.of(2014, 1, 5), 4500.0, 5000.0, 1.5, 80.0, 12.0, 0.5)),
+                null, null, null,
+                List.of(new DashboardOverviewResponse.ScatterPoint("2014-01-05 12:00", 2.5, 4600.0, "Hiver", 1L)),
+                null, null, null
+        );
+    }
+}
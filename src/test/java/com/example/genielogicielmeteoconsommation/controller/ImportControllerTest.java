@@ -1,9 +1,12 @@
 package com.example.genielogicielmeteoconsommation.controller;
 
+import com.example.genielogicielmeteoconsommation.dto.ImportJobStatus;
 import com.example.genielogicielmeteoconsommation.dto.ImportSummary;
 import com.example.genielogicielmeteoconsommation.service.DashboardService;
 import com.example.genielogicielmeteoconsommation.service.ImportDonneesService;
+import com.example.genielogicielmeteoconsommation.service.ImportJobService;
 import com.example.genielogicielmeteoconsommation.service.ImportMeteoService;
+import com.example.genielogicielmeteoconsommation.service.ImportProgress;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -11,10 +14,21 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ImportController.class)
@@ -32,6 +46,9 @@ public class ImportControllerTest {
     @MockBean
     private DashboardService dashboardService;
 
+    @MockBean
+    private ImportJobService importJobService;
+
     @Test
     public void testImporterElectricite_Success() throws Exception {
         MockMultipartFile file = new MockMultipartFile("file", "test.csv", "text/csv", "data".getBytes());
@@ -56,4 +73,72 @@ public class ImportControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string("Import meteo termine : 2 fichiers traites, 40 lignes valides ajoutees, 8 lignes ignorees."));
     }
+
+    @Test
+    public void testImportMeteoEnArrierePlan() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("files", "meteo1.csv", "text/csv", "data".getBytes());
+        ImportJobStatus queued = new ImportJobStatus(
+                "job-1", "meteo", ImportJobStatus.State.QUEUED, List.of("meteo1.csv"),
+                4L, 0L, 0L, 0L, 0L, 0.0, null, Instant.now(), null, null, null
+        );
+        given(importJobService.soumettreImportMeteo(any())).willReturn(queued);
+        given(importJobService.consulter("job-1")).willReturn(Optional.of(queued));
+        given(importJobService.consulter("inconnu")).willReturn(Optional.empty());
+
+        mockMvc.perform(multipart("/api/donnees/jobs/meteo").file(file))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value("job-1"))
+                .andExpect(jsonPath("$.state").value("QUEUED"));
+
+        mockMvc.perform(get("/api/donnees/jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fileNames[0]").value("meteo1.csv"));
+
+        mockMvc.perform(get("/api/donnees/jobs/inconnu"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testImporterFluxMeteo_Success() throws Exception {
+        given(importMeteoService.importerFluxMeteo(eq("H_08.csv"), any(InputStream.class)))
+                .willReturn(new ImportSummary("meteo", "H_08.csv", 7, 1));
+
+        mockMvc.perform(post("/api/donnees/flux/meteo")
+                        .param("fileName", "H_08.csv")
+                        .contentType("text/csv")
+                        .content("entete\nligne\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Import meteo termine : 1 fichiers traites, 7 lignes valides ajoutees, 1 lignes ignorees."));
+
+        verify(dashboardService).clearOverviewCache();
+    }
+
+    @Test
+    public void testImporterFluxElectricite_Success() throws Exception {
+        given(importDonneesService.remplacerDonneesRte(eq("eco2mix.csv"), any(InputStream.class), eq(ImportProgress.NONE)))
+                .willReturn(new ImportSummary("electricite", "eco2mix.csv", 5, 3));
+
+        mockMvc.perform(post("/api/donnees/flux/electricite")
+                        .param("fileName", "eco2mix.csv")
+                        .contentType("text/csv")
+                        .content("entete\nligne\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Import electricite termine : 5 lignes valides ajoutees, 3 lignes ignorees."));
+
+        verify(dashboardService).clearOverviewCache();
+    }
+
+    @Test
+    public void testImporterFluxElectricite_CorpsVide() throws Exception {
+        given(importDonneesService.remplacerDonneesRte(any(), any(InputStream.class), any()))
+                .willThrow(new IllegalArgumentException("Le flux RTE est vide."));
+
+        mockMvc.perform(post("/api/donnees/flux/electricite")
+                        .contentType("text/csv")
+                        .content(""))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Le flux RTE est vide."));
+
+        verify(dashboardService, never()).clearOverviewCache();
+    }
 }
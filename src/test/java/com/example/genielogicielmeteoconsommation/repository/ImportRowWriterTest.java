@@ -0,0 +1,56 @@
+package com.example.genielogicielmeteoconsommation.repository;
+
+import com.example.genielogicielmeteoconsommation.model.ConsommationElectrique;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ImportRowWriterTest {
+
+    @Mock
+    private JdbcBatchInsertWriter batchInsertWriter;
+
+    @Mock
+    private PostgresCopyWriter copyWriter;
+
+    @Mock
+    private StationDictionary stationDictionary;
+
+    @Test
+    void copyFallsBackToBatchInsertWhenUnsupported() {
+        ImportRowWriter writer = new ImportRowWriter(batchInsertWriter, copyWriter, stationDictionary, IngestStrategy.COPY);
+        given(copyWriter.isSupported()).willReturn(false);
+
+        IngestStrategy strategy = writer.resolve(null);
+        List<ConsommationElectrique> rows = List.of(new ConsommationElectrique());
+        writer.writeConsommation(rows, strategy);
+
+        assertEquals(IngestStrategy.BATCH_INSERT, strategy);
+        assertEquals(IngestStrategy.BATCH_INSERT, writer.resolve(IngestStrategy.COPY));
+        verify(batchInsertWriter).insertConsommation(rows);
+    }
+
+    @Test
+    void copyIsKeptWhenSupported() {
+        ImportRowWriter writer = new ImportRowWriter(batchInsertWriter, copyWriter, stationDictionary, IngestStrategy.BATCH_INSERT);
+        given(copyWriter.isSupported()).willReturn(true);
+
+        IngestStrategy strategy = writer.resolve(IngestStrategy.COPY);
+        List<ConsommationElectrique> rows = List.of(new ConsommationElectrique());
+        writer.writeConsommation(rows, strategy);
+
+        assertEquals(IngestStrategy.COPY, strategy);
+        assertEquals(IngestStrategy.BATCH_INSERT, writer.resolve(null));
+        verify(copyWriter).copyConsommation(rows);
+        verifyNoInteractions(batchInsertWriter);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.genielogicielmeteoconsommation.repository;
+
+import com.example.genielogicielmeteoconsommation.model.DonneesMeteo;
+import com.example.genielogicielmeteoconsommation.support.EpochMinute;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Ecriture et relecture des releves sur le schema H2 reel (db/schema-h2.sql, mode PostgreSQL).
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:releves;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.platform=h2",
+        "spring.sql.init.schema-locations=classpath:db/schema-h2.sql"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({JdbcBatchInsertWriter.class, PostgresCopyWriter.class, ImportRowWriter.class, RollupWriter.class, StationDictionary.class})
+class ReleveRoundTripTest {
+
+    @Autowired
+    private ImportRowWriter rowWriter;
+
+    @Autowired
+    private DonneesMeteoRepository donneesMeteoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void weatherRowsReadThroughJpaKeepTheirStationCode() {
+        rowWriter.writeMeteo(List.of(
+                meteo("08", "08001001", LocalDate.of(2014, 1, 5), LocalTime.of(12, 0), 1.5),
+                meteo("67", "67124001", LocalDate.of(2014, 1, 5), LocalTime.of(13, 0), 2.5)
+        ), IngestStrategy.BATCH_INSERT);
+
+        List<DonneesMeteo> rows = donneesMeteoRepository.findAll().stream()
+                .sorted(Comparator.comparing(DonneesMeteo::getHorodatage))
+                .toList();
+
+        assertEquals(2, rows.size());
+        assertEquals("08001001", rows.get(0).getStation());
+        assertEquals("08", rows.get(0).getDepartement());
+        assertEquals(LocalTime.of(12, 0), rows.get(0).getHeure());
+        assertEquals("67124001", rows.get(1).getStation());
+        assertEquals(2.5, rows.get(1).getTemperature());
+    }
+
+    /**
+     * Hors transaction de test: les DDL H2 valident la transaction en cours.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void legacyTablesAreCopiedOnceThenLeftAlone() {
+        LegacyReleveMigration migration = new LegacyReleveMigration(jdbcTemplate);
+        jdbcTemplate.execute("""
+                CREATE TABLE donnees_meteo (id BIGINT, departement VARCHAR(255), station VARCHAR(255), date DATE,
+                    heure TIME, temperature DOUBLE PRECISION, humidite DOUBLE PRECISION,
+                    precipitations DOUBLE PRECISION, vent DOUBLE PRECISION)
+                """);
+        jdbcTemplate.execute("""
+                CREATE TABLE consommation_electrique (id BIGINT, date DATE, heure TIME, region VARCHAR(255),
+                    consommation_mw DOUBLE PRECISION)
+                """);
+        jdbcTemplate.update("INSERT INTO donnees_meteo VALUES (1, '54', '54526001', DATE '2012-03-04', TIME '05:30:00', 4.5, 80, 0, 3)");
+        jdbcTemplate.update("INSERT INTO consommation_electrique VALUES (1, DATE '2012-03-04', TIME '05:30:00', 'Lorraine', 2100)");
+
+        try {
+            migration.migrate();
+            migration.migrate();
+
+            int horodatage = EpochMinute.of(LocalDate.of(2012, 3, 4), LocalTime.of(5, 30));
+            assertEquals(1, jdbcTemplate.queryForObject("""
+                    SELECT COUNT(*) FROM releve_meteo JOIN station_meteo ON station_meteo.id = releve_meteo.station_id
+                    WHERE code = '54526001' AND releve_meteo.departement = 54 AND horodatage = ?
+                    """, Integer.class, horodatage));
+            assertEquals(1, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM releve_consommation WHERE region = 5 AND horodatage = ? AND consommation_mw = 2100",
+                    Integer.class,
+                    horodatage
+            ));
+            assertEquals(0, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME IN ('DONNEES_METEO', 'CONSOMMATION_ELECTRIQUE')",
+                    Integer.class
+            ));
+        } finally {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS donnees_meteo");
+            jdbcTemplate.execute("DROP TABLE IF EXISTS consommation_electrique");
+            jdbcTemplate.update("DELETE FROM releve_meteo");
+            jdbcTemplate.update("DELETE FROM releve_consommation");
+            jdbcTemplate.update("DELETE FROM station_meteo");
+        }
+    }
+
+    private static DonneesMeteo meteo(String departement, String station, LocalDate date, LocalTime heure, double temperature) {
+        DonneesMeteo row = new DonneesMeteo();
+        row.setDepartement(departement);
+        row.setStation(station);
+        row.setDate(date);
+        row.setHeure(heure);
+        row.setTemperature(temperature);
+        return row;
+    }
+}
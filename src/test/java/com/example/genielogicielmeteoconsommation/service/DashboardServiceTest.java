@@ -1,46 +1,85 @@
 package com.example.genielogicielmeteoconsommation.service;
 
 import com.example.genielogicielmeteoconsommation.dto.DashboardOverviewResponse;
+import com.example.genielogicielmeteoconsommation.dto.EstimateBatchRequest;
+import com.example.genielogicielmeteoconsommation.dto.EstimateBatchResponse;
 import com.example.genielogicielmeteoconsommation.dto.EstimateRequest;
 import com.example.genielogicielmeteoconsommation.dto.EstimateResponse;
-import com.example.genielogicielmeteoconsommation.model.ConsommationElectrique;
+import com.example.genielogicielmeteoconsommation.dto.OverviewSection;
 import com.example.genielogicielmeteoconsommation.model.DonneesMeteo;
-import com.example.genielogicielmeteoconsommation.repository.ConsommationElectriqueRepository;
-import com.example.genielogicielmeteoconsommation.repository.DonneesMeteoRepository;
+import com.example.genielogicielmeteoconsommation.repository.ConsommationHoraireRepository;
+import com.example.genielogicielmeteoconsommation.repository.HourlyConsumptionAggregate;
+import com.example.genielogicielmeteoconsommation.repository.HourlyWeatherAggregate;
+import com.example.genielogicielmeteoconsommation.repository.MeteoHoraireRepository;
+import com.example.genielogicielmeteoconsommation.repository.MeteoStationJourRepository;
+import com.example.genielogicielmeteoconsommation.repository.RollupWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.security.MessageDigest;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 class DashboardServiceTest {
 
+    // Capturees sur l'annee synthetique de stubSyntheticYear() avant le calcul par colonnes.
+    private static final double REFERENCE_CORRELATION = -0.95;
+    private static final double REFERENCE_R_SQUARED = 0.9;
+    private static final double REFERENCE_ESTIMATE = 5158.21;
+    private static final double REFERENCE_JUNE_ESTIMATE = 2609.98;
+    private static final String REFERENCE_DIGEST = "dc0c9e825a4e42914d928435cda2da7d3c752233bd22fa9ce530bcbbd3c74f83";
+
+    @Mock
+    private ConsommationHoraireRepository consommationRepository;
+
     @Mock
-    private ConsommationElectriqueRepository consommationRepository;
+    private MeteoHoraireRepository meteoRepository;
 
     @Mock
-    private DonneesMeteoRepository meteoRepository;
+    private MeteoStationJourRepository stationJourRepository;
+
+    @Mock
+    private RollupWriter rollupWriter;
 
-    @InjectMocks
     private DashboardService dashboardService;
 
+    @BeforeEach
+    void setUp() {
+        dashboardService = new DashboardService(new HourlySeriesStore(consommationRepository, meteoRepository, stationJourRepository, rollupWriter), 16, 200_000, 10, 5, 1_024, false, 0, 31);
+    }
+
     @Test
     void buildOverviewAndEstimateProvideMeaningfulResults() {
-        List<ConsommationElectrique> consommations = List.of(
+        List<HourlyConsumptionAggregate> consommations = List.of(
                 consommation("Alsace", "2014-01-05", 12, 5000), consommation("Lorraine", "2014-01-05", 12, 4200),
                 consommation("Alsace", "2014-02-10", 12, 4900), consommation("Lorraine", "2014-02-10", 12, 4100),
                 consommation("Alsace", "2014-04-02", 12, 3800), consommation("Lorraine", "2014-04-02", 12, 3000),
@@ -51,19 +90,19 @@ class DashboardServiceTest {
                 consommation("Alsace", "2014-11-20", 12, 4500), consommation("Lorraine", "2014-11-20", 12, 3600)
         );
 
-        List<DonneesMeteo> meteoRows = List.of(
-                meteo("67", "6700001", "2014-01-05", 12, 0, 86, 20, 1.3),
-                meteo("67", "6700001", "2014-02-10", 12, 1, 82, 18, 0.8),
-                meteo("67", "6700001", "2014-04-02", 12, 12, 70, 14, 0.4),
-                meteo("67", "6700001", "2014-05-10", 12, 15, 65, 13, 0.1),
-                meteo("67", "6700001", "2014-07-03", 12, 25, 56, 9, 0.0),
-                meteo("67", "6700001", "2014-08-18", 12, 24, 58, 8, 0.0),
-                meteo("67", "6700001", "2014-10-08", 12, 11, 75, 12, 0.9),
-                meteo("67", "6700001", "2014-11-20", 12, 5, 80, 15, 1.1)
+        List<HourlyWeatherAggregate> meteoRows = List.of(
+                meteo("67", "2014-01-05", 12, 0, 86, 20, 1.3),
+                meteo("67", "2014-02-10", 12, 1, 82, 18, 0.8),
+                meteo("67", "2014-04-02", 12, 12, 70, 14, 0.4),
+                meteo("67", "2014-05-10", 12, 15, 65, 13, 0.1),
+                meteo("67", "2014-07-03", 12, 25, 56, 9, 0.0),
+                meteo("67", "2014-08-18", 12, 24, 58, 8, 0.0),
+                meteo("67", "2014-10-08", 12, 11, 75, 12, 0.9),
+                meteo("67", "2014-11-20", 12, 5, 80, 15, 1.1)
         );
 
-        given(consommationRepository.findAllByDateBetween(any(), any())).willReturn(consommations);
-        given(meteoRepository.findAllByDateBetweenAndDepartementIn(any(), any(), any())).willReturn(meteoRows);
+        given(consommationRepository.findHourlyAggregates(any(), any())).willReturn(consommations);
+        given(meteoRepository.findHourlyAggregates(any(), any())).willReturn(meteoRows);
 
         DashboardOverviewResponse overview = dashboardService.buildOverview(
                 List.of("67"),
@@ -92,22 +131,381 @@ class DashboardServiceTest {
         assertTrue(estimate.modelReady());
         assertNotNull(estimate.estimatedConsumptionMw());
         assertTrue(estimate.estimatedConsumptionMw() > 0);
-        verify(consommationRepository, times(1)).findAllByDateBetween(any(), any());
-        verify(meteoRepository, times(1)).findAllByDateBetweenAndDepartementIn(any(), any(), any());
+        verify(consommationRepository, times(1)).findHourlyAggregates(any(), any());
+        verify(meteoRepository, times(1)).findHourlyAggregates(any(), any());
+    }
+
+    @Test
+    void estimateUsesTheSameModelAsTheOverviewWithoutBuildingIt() {
+        given(consommationRepository.findHourlyAggregates(any(), any())).willReturn(List.of(
+                consommation("Alsace", "2014-01-05", 12, 5000), consommation("Alsace", "2014-02-10", 12, 4900),
+                consommation("Alsace", "2014-04-02", 12, 3800), consommation("Alsace", "2014-05-10", 12, 3600),
+                consommation("Alsace", "2014-07-03", 12, 3000), consommation("Alsace", "2014-08-18", 12, 3200),
+                consommation("Alsace", "2014-10-08", 12, 4100), consommation("Alsace", "2014-11-20", 12, 4500)
+        ));
+        given(meteoRepository.findHourlyAggregates(any(), any())).willReturn(List.of(
+                meteo("67", "2014-01-05", 12, 0, 86, 20, 1.3), meteo("67", "2014-02-10", 12, 1, 82, 18, 0.8),
+                meteo("67", "2014-04-02", 12, 12, 70, 14, 0.4), meteo("67", "2014-05-10", 12, 15, 65, 13, 0.1),
+                meteo("67", "2014-07-03", 12, 25, 56, 9, 0.0), meteo("67", "2014-08-18", 12, 24, 58, 8, 0.0),
+                meteo("67", "2014-10-08", 12, 11, 75, 12, 0.9), meteo("67", "2014-11-20", 12, 5, 80, 15, 1.1)
+        ));
+
+        EstimateResponse estimate = dashboardService.estimate(new EstimateRequest(
+                List.of("67"), null, null, 6.0, null, null, null
+        ));
+        assertEquals(0, dashboardService.overviewCacheStats().size());
+
+        DashboardOverviewResponse.RegressionModel model =
+                dashboardService.buildOverview(List.of("67"), null, null).regressionModel();
+        assertTrue(estimate.modelReady());
+        assertEquals(model.intercept(), estimate.intercept());
+        assertEquals(model.coefficients(), estimate.coefficients());
+        assertEquals(model.rSquared(), estimate.rSquared());
+    }
+
+    @Test
+    void estimateBatchMatchesSingleEstimatesOverAGrid() {
+        given(consommationRepository.findHourlyAggregates(any(), any())).willReturn(List.of(
+                consommation("Alsace", "2014-01-05", 12, 5000), consommation("Alsace", "2014-02-10", 12, 4900),
+                consommation("Alsace", "2014-04-02", 12, 3800), consommation("Alsace", "2014-05-10", 12, 3600),
+                consommation("Alsace", "2014-07-03", 12, 3000), consommation("Alsace", "2014-08-18", 12, 3200),
+                consommation("Alsace", "2014-10-08", 12, 4100), consommation("Alsace", "2014-11-20", 12, 4500)
+        ));
+        given(meteoRepository.findHourlyAggregates(any(), any())).willReturn(List.of(
+                meteo("67", "2014-01-05", 12, 0, 86, 20, 1.3), meteo("67", "2014-02-10", 12, 1, 82, 18, 0.8),
+                meteo("67", "2014-04-02", 12, 12, 70, 14, 0.4), meteo("67", "2014-05-10", 12, 15, 65, 13, 0.1),
+                meteo("67", "2014-07-03", 12, 25, 56, 9, 0.0), meteo("67", "2014-08-18", 12, 24, 58, 8, 0.0),
+                meteo("67", "2014-10-08", 12, 11, 75, 12, 0.9), meteo("67", "2014-11-20", 12, 5, 80, 15, 1.1)
+        ));
+
+        EstimateBatchResponse batch = dashboardService.estimateBatch(new EstimateBatchRequest(
+                List.of("67"), null, null, null,
+                new EstimateBatchRequest.Grid(
+                        new EstimateBatchRequest.Axis(-5.0, 25.0, 10.0),
+                        new EstimateBatchRequest.Axis(60.0, 80.0, 20.0),
+                        null,
+                        null
+                )
+        ));
+
+        assertTrue(batch.modelReady());
+        assertEquals(List.of(-5.0, 5.0, 15.0, 25.0), batch.axes().get("temperature"));
+        assertEquals(8, batch.estimatedConsumptionMw().length);
+        EstimateResponse single = dashboardService.estimate(new EstimateRequest(
+                List.of("67"), null, null, 15.0, 80.0, null, null
+        ));
+        assertEquals(single.estimatedConsumptionMw(), batch.estimatedConsumptionMw()[2 * 2 + 1]);
+    }
+
+    @Test
+    void buildOverviewBinsScatterPointsBeyondMaxPoints() {
+        List<HourlyConsumptionAggregate> consommations = new ArrayList<>();
+        List<HourlyWeatherAggregate> meteoRows = new ArrayList<>();
+        for (int hour = 0; hour < 24; hour++) {
+            consommations.add(consommation("Alsace", "2014-01-05", hour, 4000 + hour * 10));
+            meteoRows.add(meteo("67", "2014-01-05", hour, hour % 6, 80, 10, 0.0));
+        }
+        given(consommationRepository.findHourlyAggregates(any(), any())).willReturn(consommations);
+        given(meteoRepository.findHourlyAggregates(any(), any())).willReturn(meteoRows);
+
+        DashboardOverviewResponse full = dashboardService.buildOverview(List.of("67"), null, null);
+        DashboardOverviewResponse binned = dashboardService.buildOverview(List.of("67"), null, null, 4);
+
+        assertEquals(24, full.scatterPoints().size());
+        assertTrue(binned.scatterPoints().size() <= 4);
+        assertEquals(24L, binned.scatterPoints().stream()
+                .mapToLong(DashboardOverviewResponse.ScatterPoint::observationCount)
+                .sum());
+        assertEquals(full.summary(), binned.summary());
+        assertEquals(24, dashboardService.buildOverview(List.of("67"), null, null).scatterPoints().size());
+    }
+
+    @Test
+    void buildOverviewComputesOnlyRequestedSections() {
+        given(consommationRepository.findHourlyAggregates(any(), any())).willReturn(List.of(
+                consommation("Alsace", "2014-01-05", 12, 5000),
+                consommation("Alsace", "2014-07-03", 12, 3000)
+        ));
+        given(meteoRepository.findHourlyAggregates(any(), any())).willReturn(List.of(
+                meteo("67", "2014-01-05", 12, 0, 86, 20, 1.3),
+                meteo("67", "2014-07-03", 12, 25, 56, 9, 0.0)
+        ));
+
+        DashboardOverviewResponse partial = dashboardService.buildOverview(
+                List.of("67"), null, null, null, EnumSet.of(OverviewSection.TEMPERATURE_BUCKETS)
+        );
+
+        assertEquals(2, partial.summary().hourlyObservations());
+        assertFalse(partial.temperatureBuckets().isEmpty());
+        assertNull(partial.scatterPoints());
+        assertNull(partial.regressionModel());
+        assertNull(partial.dailyTrends());
+        assertNull(partial.narrativeHighlights());
+
+        DashboardOverviewResponse full = dashboardService.buildOverview(List.of("67"), null, null);
+        DashboardOverviewResponse projected = dashboardService.buildOverview(
+                List.of("67"), null, null, null, EnumSet.of(OverviewSection.SCATTER_POINTS)
+        );
+        assertEquals(full.scatterPoints(), projected.scatterPoints());
+        assertNull(projected.temperatureBuckets());
+        assertEquals(full.summary(), partial.summary());
+    }
+
+    @Test
+    void buildOverviewKeepsTemperatureBucketsOrderedAcrossZero() {
+        given(consommationRepository.findHourlyAggregates(any(), any())).willReturn(List.of(
+                consommation("Alsace", "2014-01-05", 12, 5200),
+                consommation("Alsace", "2014-01-06", 8, 5000),
+                consommation("Alsace", "2014-03-10", 12, 4000),
+                consommation("Alsace", "2014-07-03", 12, 3000)
+        ));
+        given(meteoRepository.findHourlyAggregates(any(), any())).willReturn(List.of(
+                meteo("67", "2014-01-05", 12, -7, 86, 20, 1.3),
+                meteo("67", "2014-01-06", 8, -3, 84, 18, 0.6),
+                meteo("67", "2014-03-10", 12, 1, 70, 14, 0.4),
+                meteo("67", "2014-07-03", 12, 25, 56, 9, 0.0)
+        ));
+
+        DashboardOverviewResponse overview = dashboardService.buildOverview(List.of("67"), null, null);
+
+        assertEquals(
+                List.of(-8.0, -4.0, 0.0, 24.0),
+                overview.temperatureBuckets().stream().map(DashboardOverviewResponse.TemperatureBucketPoint::bucketStart).toList()
+        );
+        assertEquals(4, overview.scatterPoints().size());
+        assertEquals("2014-01-06 08:00", overview.scatterPoints().get(1).timestamp());
+        assertEquals("Hiver", overview.scatterPoints().get(1).season());
+        assertEquals("Ete", overview.scatterPoints().get(3).season());
+    }
+
+    @Test
+    void correlationAndModelStayExactForLargeConsumptionLevels() {
+        double[] temperatures = {-4, 0, 3, 8, 12, 17, 21, 26, 9, 14};
+        List<HourlyConsumptionAggregate> consommations = new ArrayList<>();
+        List<HourlyWeatherAggregate> meteoRows = new ArrayList<>();
+        for (int index = 0; index < temperatures.length; index++) {
+            String date = LocalDate.of(2014, 1 + index, 10).toString();
+            consommations.add(consommation("Alsace", date, 12, 1.0e9 - 100.0 * temperatures[index]));
+            meteoRows.add(meteo("67", date, 12, temperatures[index], 60 + index, 10 + index % 3, 0.1 * (index % 4)));
+        }
+        given(consommationRepository.findHourlyAggregates(any(), any())).willReturn(consommations);
+        given(meteoRepository.findHourlyAggregates(any(), any())).willReturn(meteoRows);
+
+        DashboardOverviewResponse overview = dashboardService.buildOverview(List.of("67"), null, null);
+
+        assertEquals(-1.0, overview.summary().correlationTemperatureConsumption());
+        assertTrue(overview.regressionModel().ready());
+        assertEquals(1.0, overview.regressionModel().rSquared());
+        assertEquals(-100.0, overview.regressionModel().coefficients().get("temperature"));
+    }
+
+    @Test
+    void parallelModeMatchesSequentialOverview() {
+        List<HourlyConsumptionAggregate> consommations = new ArrayList<>();
+        List<HourlyWeatherAggregate> meteoRows = new ArrayList<>();
+        for (int index = 0; index < 40; index++) {
+            String date = LocalDate.of(2014, 1, 1).plusDays(index * 9L).toString();
+            double temperature = -5 + (index * 7) % 31;
+            consommations.add(consommation("Alsace", date, 12, 5200 - 60 * temperature + index));
+            meteoRows.add(meteo("67", date, 12, temperature, 60 + index % 25, 8 + index % 6, 0.1 * (index % 5)));
+            meteoRows.add(meteo("54", date, 12, temperature + 1, 65 + index % 20, 9 + index % 4, 0.2 * (index % 3)));
+        }
+        given(consommationRepository.findHourlyAggregates(any(), any())).willReturn(consommations);
+        given(meteoRepository.findHourlyAggregates(any(), any())).willReturn(meteoRows);
+        DashboardService parallelService = new DashboardService(
+                new HourlySeriesStore(consommationRepository, meteoRepository, stationJourRepository, rollupWriter),
+                16, 200_000, 10, 5, 1_024, true, 4, 2
+        );
+
+        try {
+            assertEquals(
+                    dashboardService.buildOverview(List.of("54", "67"), null, null),
+                    parallelService.buildOverview(List.of("54", "67"), null, null)
+            );
+        } finally {
+            parallelService.shutdown();
+        }
+    }
+
+    @Test
+    void buildOverviewReflectsAppendedRowsWithoutReloading() {
+        HourlySeriesStore store = new HourlySeriesStore(consommationRepository, meteoRepository, stationJourRepository, rollupWriter);
+        dashboardService = new DashboardService(store, 16, 200_000, 10, 5, 1_024, false, 0, 31);
+        given(consommationRepository.findHourlyAggregates(any(), any())).willReturn(List.of(
+                consommation("Alsace", "2014-01-05", 12, 5000),
+                consommation("Alsace", "2014-07-03", 12, 3000)
+        ));
+        given(meteoRepository.findHourlyAggregates(any(), any())).willReturn(List.of(
+                meteo("67", "2014-01-05", 12, 0, 86, 20, 1.3)
+        ));
+
+        DashboardOverviewResponse before = dashboardService.buildOverview(List.of("67"), null, null);
+        assertEquals(1, before.coverage().joinedHourlyObservations());
+
+        DonneesMeteo row = new DonneesMeteo();
+        row.setDepartement("67");
+        row.setStation("67124001");
+        row.setDate(LocalDate.of(2014, 7, 3));
+        row.setHeure(LocalTime.of(12, 0));
+        row.setTemperature(25.0);
+        store.appendWeather(List.of(row), rows -> {
+        });
+        dashboardService.clearOverviewCache();
+
+        DashboardOverviewResponse after = dashboardService.buildOverview(List.of("67"), null, null);
+        assertEquals(2, after.coverage().joinedHourlyObservations());
+        assertEquals(2, after.dailyTrends().size());
+        assertEquals(12.5, after.summary().averageTemperature());
+        verify(meteoRepository, times(1)).findHourlyAggregates(any(), any());
+    }
+
+    @Test
+    void concurrentBuildsOfTheSameOverviewReadTheStoreOnce() throws Exception {
+        HourlySeriesStore store = spy(new HourlySeriesStore(consommationRepository, meteoRepository, stationJourRepository, rollupWriter));
+        dashboardService = new DashboardService(store, 16, 200_000, 10, 5, 1_024, false, 0, 31);
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            building.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return invocation.callRealMethod();
+        }).when(store).summarize(any(), any(), any());
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<DashboardOverviewResponse> first = callers.submit(() -> dashboardService.buildOverview(List.of("67"), null, null));
+            assertTrue(building.await(5, TimeUnit.SECONDS));
+            Future<DashboardOverviewResponse> second = callers.submit(() -> dashboardService.buildOverview(List.of("67"), null, null));
+            // Le second appel attend le calcul en cours plutot que d'en lancer un autre.
+            Thread.sleep(100L);
+            release.countDown();
+
+            assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        } finally {
+            callers.shutdownNow();
+        }
+        verify(store, times(1)).summarize(any(), any(), any());
     }
 
-    private ConsommationElectrique consommation(String region, String date, int hour, double value) {
-        ConsommationElectrique consommation = new ConsommationElectrique();
-        consommation.setRegion(region);
-        consommation.setDate(LocalDate.parse(date));
-        consommation.setHeure(LocalTime.of(hour, 0));
-        consommation.setConsommationMw(value);
-        return consommation;
+    @Test
+    void buildFinishingAfterClearOverviewCacheIsNotCached() {
+        HourlySeriesStore store = spy(new HourlySeriesStore(consommationRepository, meteoRepository, stationJourRepository, rollupWriter));
+        dashboardService = new DashboardService(store, 16, 200_000, 10, 5, 1_024, false, 0, 31);
+        doAnswer(invocation -> {
+            // Un import se termine pendant le calcul.
+            dashboardService.clearOverviewCache();
+            return invocation.callRealMethod();
+        }).doCallRealMethod().when(store).summarize(any(), any(), any());
+
+        dashboardService.buildOverview(List.of("67"), null, null);
+        assertEquals(0, dashboardService.overviewCacheStats().size());
+
+        dashboardService.buildOverview(List.of("67"), null, null);
+        assertEquals(1, dashboardService.overviewCacheStats().size());
+        verify(store, times(2)).summarize(any(), any(), any());
     }
 
-    private DonneesMeteo meteo(
+    /**
+     * Sorties de reference capturees avant l'alimentation des agregats journaliers par les
+     * colonnes de la serie jointe: synthese complete, filtree, nuage regroupe et estimations
+     * doivent rester identiques au bit pres, en mode sequentiel comme en mode parallele.
+     */
+    @Test
+    void overviewAndEstimatesMatchReferenceOutputsBitForBit() throws Exception {
+        stubSyntheticYear();
+        DashboardService parallelService = new DashboardService(
+                new HourlySeriesStore(consommationRepository, meteoRepository, stationJourRepository, rollupWriter),
+                16, 200_000, 10, 5, 1_024, true, 4, 7
+        );
+
+        try {
+            for (DashboardService service : List.of(dashboardService, parallelService)) {
+                List<Object> outputs = referenceOutputs(service);
+                DashboardOverviewResponse full = (DashboardOverviewResponse) outputs.get(0);
+                EstimateResponse estimate = (EstimateResponse) outputs.get(3);
+                EstimateResponse juneEstimate = (EstimateResponse) outputs.get(4);
+
+                assertEquals(REFERENCE_CORRELATION, full.summary().correlationTemperatureConsumption());
+                assertEquals(REFERENCE_R_SQUARED, full.regressionModel().rSquared());
+                assertEquals(REFERENCE_ESTIMATE, estimate.estimatedConsumptionMw());
+                assertEquals(REFERENCE_JUNE_ESTIMATE, juneEstimate.estimatedConsumptionMw());
+                assertEquals(REFERENCE_DIGEST, sha256(outputs));
+            }
+        } finally {
+            parallelService.shutdown();
+        }
+    }
+
+    private List<Object> referenceOutputs(DashboardService service) {
+        return List.of(
+                service.buildOverview(null, null, null),
+                service.buildOverview(List.of("67", "54"), LocalDate.of(2014, 3, 3), LocalDate.of(2014, 9, 20)),
+                service.buildOverview(List.of("08"), LocalDate.of(2014, 12, 1), LocalDate.of(2014, 12, 31), 50, null),
+                service.estimate(new EstimateRequest(List.of("57"), null, null, 3.0, 80.0, 10.0, 0.2)),
+                service.estimate(new EstimateRequest(
+                        List.of("10", "51"), LocalDate.of(2014, 6, 1), LocalDate.of(2014, 6, 30), 3.0, null, null, null
+                ))
+        );
+    }
+
+    /**
+     * Empreinte du JSON des sorties: Jackson ecrit les doubles par {@link Double#toString(double)},
+     * qui distingue deux valeurs differentes d'un seul bit.
+     */
+    private String sha256(List<Object> outputs) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        byte[] json = objectMapper.writeValueAsBytes(outputs);
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+    }
+
+    /**
+     * Une annee 2014 pseudo-aleatoire (graine fixe) sur les huit departements, avec des trous
+     * horaires et des mesures meteo partielles.
+     */
+    private void stubSyntheticYear() {
+        Random random = new Random(42);
+        List<HourlyConsumptionAggregate> consommations = new ArrayList<>();
+        List<HourlyWeatherAggregate> meteoRows = new ArrayList<>();
+        List<String> departments = List.of("08", "10", "51", "54", "57", "67", "68", "88");
+        for (LocalDate date = LocalDate.of(2014, 1, 1); date.getYear() == 2014; date = date.plusDays(1)) {
+            double season = Math.cos(date.getDayOfYear() / 58.0);
+            for (int hour = 0; hour < 24; hour++) {
+                if (random.nextInt(20) == 0) {
+                    continue;
+                }
+                LocalTime time = LocalTime.of(hour, 0);
+                double base = 4000 + 1500 * season + random.nextGaussian() * 300;
+                consommations.add(new HourlyConsumptionAggregate(date, time, "Alsace", 1L, base * 0.4, 1L));
+                consommations.add(new HourlyConsumptionAggregate(date, time, "Lorraine", 1L, base * 0.6 + random.nextDouble(), 1L));
+                for (String department : departments) {
+                    if (random.nextInt(10) == 0) {
+                        continue;
+                    }
+                    double temperature = 12 - 10 * season + random.nextGaussian() * 3;
+                    boolean withHumidity = random.nextInt(7) != 0;
+                    boolean withWind = random.nextInt(5) != 0;
+                    boolean withRain = random.nextInt(3) != 0;
+                    long stations = 1 + random.nextInt(3);
+                    meteoRows.add(new HourlyWeatherAggregate(
+                            date, time, department,
+                            stations, temperature * stations, stations, temperature - 1, temperature + 1,
+                            withHumidity ? (60 + random.nextDouble() * 30) * stations : null, withHumidity ? stations : 0L,
+                            withRain ? random.nextDouble() * stations : null, withRain ? stations : 0L,
+                            withWind ? random.nextDouble() * 20 * stations : null, withWind ? stations : 0L
+                    ));
+                }
+            }
+        }
+        given(consommationRepository.findHourlyAggregates(any(), any())).willReturn(consommations);
+        given(meteoRepository.findHourlyAggregates(any(), any())).willReturn(meteoRows);
+    }
+
+    private HourlyConsumptionAggregate consommation(String region, String date, int hour, double value) {
+        return new HourlyConsumptionAggregate(LocalDate.parse(date), LocalTime.of(hour, 0), region, 1L, value, 1L);
+    }
+
+    private HourlyWeatherAggregate meteo(
             String departement,
-            String station,
             String date,
             int hour,
             double temperature,
@@ -115,15 +513,21 @@ class DashboardServiceTest {
             double wind,
             double rain
     ) {
-        DonneesMeteo meteo = new DonneesMeteo();
-        meteo.setDepartement(departement);
-        meteo.setStation(station);
-        meteo.setDate(LocalDate.parse(date));
-        meteo.setHeure(LocalTime.of(hour, 0));
-        meteo.setTemperature(temperature);
-        meteo.setHumidite(humidity);
-        meteo.setVent(wind);
-        meteo.setPrecipitations(rain);
-        return meteo;
+        return new HourlyWeatherAggregate(
+                LocalDate.parse(date),
+                LocalTime.of(hour, 0),
+                departement,
+                1L,
+                temperature,
+                1L,
+                temperature,
+                temperature,
+                humidity,
+                1L,
+                rain,
+                1L,
+                wind,
+                1L
+        );
     }
 }
@@ -8,17 +8,26 @@ import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
 
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 class DatasetBootstrapServiceTest {
@@ -38,6 +47,9 @@ class DatasetBootstrapServiceTest {
     @Mock
     private ImportMeteoService importMeteoService;
 
+    @Mock
+    private HourlySeriesStore hourlySeriesStore;
+
     @Test
     void bootstrapIfNeededShouldImportWhenDatabaseIsEmpty() throws Exception {
         Path zipPath = tempDir.resolve("dataset.zip");
@@ -63,8 +75,10 @@ class DatasetBootstrapServiceTest {
                 meteoRepository,
                 importDonneesService,
                 importMeteoService,
+                hourlySeriesStore,
                 true,
-                zipPath.toString()
+                zipPath.toString(),
+                2
         );
 
         service.bootstrapIfNeeded();
@@ -77,5 +91,71 @@ class DatasetBootstrapServiceTest {
                 eq("DatasetGenieLogiciel/DatasetGenieLogiciel/H_08_2010-2019.csv"),
                 any(InputStream.class)
         );
+        verify(hourlySeriesStore).ensureLoaded();
+    }
+
+    @Test
+    void bootstrapIfNeededImportsWeatherFilesInParallelAndStopsOnFirstFailure() throws Exception {
+        Path zipPath = tempDir.resolve("dataset.zip");
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(Files.newOutputStream(zipPath))) {
+            for (String department : List.of("08", "10", "51", "54")) {
+                zipOutputStream.putNextEntry(new ZipEntry(weatherEntry(department)));
+                zipOutputStream.write("header\n".getBytes());
+                zipOutputStream.closeEntry();
+            }
+        }
+
+        given(consommationRepository.count()).willReturn(1L);
+        given(meteoRepository.count()).willReturn(0L);
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch sleeping = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("Fichier meteo illisible");
+        // 08 et 10 ne se terminent que s'ils tournent en meme temps.
+        Answer<ImportSummary> concurrentImport = invocation -> {
+            started.countDown();
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            return new ImportSummary("meteo", invocation.getArgument(0), 10, 1);
+        };
+        given(importMeteoService.importerFluxMeteo(eq(weatherEntry("08")), any(InputStream.class))).willAnswer(concurrentImport);
+        given(importMeteoService.importerFluxMeteo(eq(weatherEntry("10")), any(InputStream.class))).willAnswer(concurrentImport);
+        given(importMeteoService.importerFluxMeteo(eq(weatherEntry("51")), any(InputStream.class))).willAnswer(invocation -> {
+            // L'echec n'arrive qu'une fois 54 en cours: il doit alors etre interrompu.
+            started.await(5, TimeUnit.SECONDS);
+            sleeping.await(5, TimeUnit.SECONDS);
+            throw failure;
+        });
+        given(importMeteoService.importerFluxMeteo(eq(weatherEntry("54")), any(InputStream.class))).willAnswer(invocation -> {
+            sleeping.countDown();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException exception) {
+                interrupted.countDown();
+                throw exception;
+            }
+            return new ImportSummary("meteo", invocation.getArgument(0), 10, 1);
+        });
+
+        DatasetBootstrapService service = new DatasetBootstrapService(
+                consommationRepository,
+                meteoRepository,
+                importDonneesService,
+                importMeteoService,
+                hourlySeriesStore,
+                true,
+                zipPath.toString(),
+                4
+        );
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, service::bootstrapIfNeeded);
+
+        assertSame(failure, exception.getCause());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        verifyNoInteractions(importDonneesService);
+        verify(hourlySeriesStore, never()).ensureLoaded();
+    }
+
+    private static String weatherEntry(String department) {
+        return "DatasetGenieLogiciel/DatasetGenieLogiciel/H_" + department + "_2010-2019.csv";
     }
 }
@@ -0,0 +1,175 @@
+package com.example.genielogicielmeteoconsommation.service;
+
+import com.example.genielogicielmeteoconsommation.model.ConsommationElectrique;
+import com.example.genielogicielmeteoconsommation.model.DonneesMeteo;
+import com.example.genielogicielmeteoconsommation.repository.ConsommationHoraireRepository;
+import com.example.genielogicielmeteoconsommation.repository.JdbcBatchInsertWriter;
+import com.example.genielogicielmeteoconsommation.repository.MeteoHoraireRepository;
+import com.example.genielogicielmeteoconsommation.repository.MeteoStationJourRepository;
+import com.example.genielogicielmeteoconsommation.repository.RollupWriter;
+import com.example.genielogicielmeteoconsommation.repository.StationDictionary;
+import com.example.genielogicielmeteoconsommation.support.GrandEstReference;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Aller-retour sur le schema H2 reel: releves ecrits en cles compactes, agregats recalcules
+ * par RollupWriter (decodage departement, date/heure et CASE des regions), puis chargement
+ * des series horaires.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:series;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.platform=h2",
+        "spring.sql.init.schema-locations=classpath:db/schema-h2.sql"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({JdbcBatchInsertWriter.class, RollupWriter.class, StationDictionary.class})
+class HourlySeriesStoreRoundTripTest {
+
+    private static final LocalDate START = GrandEstReference.STUDY_START_DATE;
+    private static final LocalDate END = GrandEstReference.STUDY_END_DATE;
+
+    @Autowired
+    private JdbcBatchInsertWriter batchInsertWriter;
+
+    @Autowired
+    private StationDictionary stationDictionary;
+
+    @Autowired
+    private RollupWriter rollupWriter;
+
+    @Autowired
+    private ConsommationHoraireRepository consommationHoraireRepository;
+
+    @Autowired
+    private MeteoHoraireRepository meteoHoraireRepository;
+
+    @Autowired
+    private MeteoStationJourRepository stationJourRepository;
+
+    @Test
+    void rowsWrittenWithCompactKeysComeBackAsHourlySeries() {
+        List<DonneesMeteo> meteoRows = List.of(
+                meteo("08", "08105005", "2014-01-05", 12, 1.0, 80.0),
+                meteo("08", "08409001", "2014-01-05", 12, 3.0, 70.0),
+                meteo("10", "10387001", "2014-02-28", 0, 0.5, null),
+                meteo("67", "67124001", "2014-12-31", 23, -2.0, 90.0)
+        );
+        stationDictionary.resolve(meteoRows);
+        batchInsertWriter.insertMeteo(meteoRows);
+        batchInsertWriter.insertConsommation(List.of(
+                consommation("Alsace", "2014-01-05", 12, 5000),
+                consommation("Lorraine", "2014-01-05", 12, 4200),
+                consommation("Champagne-Ardenne", "2014-02-28", 0, 3100),
+                consommation("Grand Est", "2014-12-31", 23, 6000),
+                consommation("France", "2014-12-31", 23, 61000)
+        ));
+        rollupWriter.refreshWeather(List.of("08", "10", "67"), START, END);
+        rollupWriter.refreshConsumption(START, END);
+
+        HourlySeriesStore store = new HourlySeriesStore(
+                consommationHoraireRepository,
+                meteoHoraireRepository,
+                stationJourRepository,
+                rollupWriter
+        );
+        HourlySeriesStore.Selection selection = store.select(START, END, GrandEstReference.defaultDepartments());
+
+        assertEquals(5, selection.consumptionRows());
+        assertEquals(4, selection.weatherRows());
+        assertEquals(4, selection.stationCount());
+        assertEquals(
+                Set.of("Alsace", "Lorraine", "Champagne-Ardenne", "Grand Est", "France"),
+                Set.copyOf(selection.importedRegions())
+        );
+
+        HourlySeriesStore.JoinedSeries series = selection.series();
+        assertArrayEquals(
+                new int[]{hourOf("2014-01-05", 12), hourOf("2014-02-28", 0), hourOf("2014-12-31", 23)},
+                series.hours()
+        );
+        // Anciennes regions additionnees; Grand Est prime sur France.
+        assertArrayEquals(new double[]{9200.0, 3100.0, 6000.0}, series.consumptions());
+        assertArrayEquals(new double[]{2.0, 0.5, -2.0}, series.temperatures());
+
+        HourlySeriesStore.DepartmentStats ardennes = selection.departmentStats().stream()
+                .filter(stats -> stats.departement().equals("08"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(2, ardennes.observationCount());
+        assertEquals(2, ardennes.stationCount());
+        assertEquals(75.0, ardennes.humidity().average());
+    }
+
+    /**
+     * Premier chargement pendant un import: les lots deja ecrits n'ont pas encore leurs
+     * agregats (rafraichis en fin d'import) et doivent pourtant etre charges.
+     */
+    @Test
+    void rowsWrittenByAnImportInProgressAreLoaded() {
+        // Import precedent termine: agregats deja presents, rebuildIfMissing n'y touche pas.
+        List<DonneesMeteo> previousRows = List.of(meteo("08", "08031001", "2014-03-09", 8, 1.0, null));
+        stationDictionary.resolve(previousRows);
+        batchInsertWriter.insertMeteo(previousRows);
+        batchInsertWriter.insertConsommation(List.of(consommation("Grand Est", "2014-03-09", 8, 6500)));
+        rollupWriter.refreshWeather(List.of("08"), START, END);
+        rollupWriter.refreshConsumption(START, END);
+
+        HourlySeriesStore store = new HourlySeriesStore(
+                consommationHoraireRepository,
+                meteoHoraireRepository,
+                stationJourRepository,
+                rollupWriter
+        );
+        List<DonneesMeteo> meteoRows = List.of(meteo("08", "08031001", "2014-03-10", 8, 4.0, null));
+        stationDictionary.resolve(meteoRows);
+        store.appendWeather(meteoRows, batchInsertWriter::insertMeteo);
+        store.appendConsumption(
+                List.of(consommation("Grand Est", "2014-03-10", 8, 7000)),
+                batchInsertWriter::insertConsommation
+        );
+
+        HourlySeriesStore.JoinedSeries series = store.select(START, END, List.of("08")).series();
+
+        assertArrayEquals(new int[]{hourOf("2014-03-09", 8), hourOf("2014-03-10", 8)}, series.hours());
+        assertArrayEquals(new double[]{6500.0, 7000.0}, series.consumptions());
+        assertArrayEquals(new double[]{1.0, 4.0}, series.temperatures());
+    }
+
+    private static int hourOf(String date, int hour) {
+        return HourlySeriesStore.dayIndex(LocalDate.parse(date)) * 24 + hour;
+    }
+
+    private static DonneesMeteo meteo(String departement, String station, String date, int hour, double temperature, Double humidite) {
+        DonneesMeteo row = new DonneesMeteo();
+        row.setDepartement(departement);
+        row.setStation(station);
+        row.setDate(LocalDate.parse(date));
+        row.setHeure(LocalTime.of(hour, 0));
+        row.setTemperature(temperature);
+        row.setHumidite(humidite);
+        return row;
+    }
+
+    private static ConsommationElectrique consommation(String region, String date, int hour, double value) {
+        ConsommationElectrique row = new ConsommationElectrique();
+        row.setRegion(region);
+        row.setDate(LocalDate.parse(date));
+        row.setHeure(LocalTime.of(hour, 0));
+        row.setConsommationMw(value);
+        return row;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.genielogicielmeteoconsommation.service;
+
+import com.example.genielogicielmeteoconsommation.model.DonneesMeteo;
+import com.example.genielogicielmeteoconsommation.repository.ConsommationHoraireRepository;
+import com.example.genielogicielmeteoconsommation.repository.HourlyConsumptionAggregate;
+import com.example.genielogicielmeteoconsommation.repository.HourlyWeatherAggregate;
+import com.example.genielogicielmeteoconsommation.repository.MeteoHoraireRepository;
+import com.example.genielogicielmeteoconsommation.repository.MeteoStationJourRepository;
+import com.example.genielogicielmeteoconsommation.repository.RollupWriter;
+import com.example.genielogicielmeteoconsommation.repository.StationDay;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class HourlySeriesStoreTest {
+
+    @Mock
+    private ConsommationHoraireRepository consommationRepository;
+
+    @Mock
+    private MeteoHoraireRepository meteoRepository;
+
+    @Mock
+    private MeteoStationJourRepository stationJourRepository;
+
+    @Mock
+    private RollupWriter rollupWriter;
+
+    @Test
+    void selectJoinsRegionalConsumptionWithDepartmentAverages() {
+        given(consommationRepository.findHourlyAggregates(any(), any())).willReturn(List.of(
+                consommation("Alsace", "2014-01-05", 12, 0, 5000),
+                consommation("Lorraine", "2014-01-05", 12, 0, 4200),
+                consommation("Alsace", "2014-01-05", 12, 30, 5100),
+                consommation("Grand Est", "2014-01-05", 13, 0, 9000)
+        ));
+        given(meteoRepository.findHourlyAggregates(any(), any())).willReturn(List.of(
+                new HourlyWeatherAggregate(
+                        LocalDate.of(2014, 1, 5), LocalTime.of(12, 0), "67", 2L,
+                        6.0, 2L, 2.0, 4.0, null, 0L, null, 0L, null, 0L
+                ),
+                new HourlyWeatherAggregate(
+                        LocalDate.of(2014, 1, 5), LocalTime.of(12, 0), "57", 1L,
+                        9.0, 1L, 9.0, 9.0, null, 0L, null, 0L, null, 0L
+                ),
+                new HourlyWeatherAggregate(
+                        LocalDate.of(2014, 1, 5), LocalTime.of(13, 0), "67", 1L,
+                        null, 0L, null, null, null, 0L, null, 0L, null, 0L
+                )
+        ));
+        given(stationJourRepository.findStationDays(any(), any())).willReturn(List.of(
+                new StationDay("67", "67000001", LocalDate.of(2014, 1, 5)),
+                new StationDay("67", "67000002", LocalDate.of(2014, 1, 5)),
+                new StationDay("57", "57000001", LocalDate.of(2014, 1, 5))
+        ));
+
+        HourlySeriesStore store = new HourlySeriesStore(consommationRepository, meteoRepository, stationJourRepository, rollupWriter);
+        HourlySeriesStore.Selection selection = store.select(
+                LocalDate.of(2014, 1, 1),
+                LocalDate.of(2014, 1, 31),
+                List.of("67")
+        );
+
+        HourlySeriesStore.JoinedSeries series = selection.series();
+        assertEquals(2, series.size());
+        assertEquals(9200.0, series.consumptions()[0]);
+        assertEquals(3.0, series.temperatures()[0]);
+        assertEquals(9000.0, series.consumptions()[1]);
+        assertTrue(Double.isNaN(series.temperatures()[1]));
+        assertEquals(4, selection.consumptionRows());
+        assertEquals(3, selection.weatherRows());
+        assertEquals(2, selection.stationCount());
+        assertEquals(List.of("Alsace", "Grand Est", "Lorraine"), selection.importedRegions());
+        assertEquals(1, selection.departmentStats().size());
+        assertEquals(4.0, selection.departmentStats().get(0).temperature().highest());
+    }
+
+    @Test
+    void summarizeComposesCachedDepartmentStatsAndRefreshesThemAfterWrites() {
+        given(meteoRepository.findHourlyAggregates(any(), any())).willReturn(List.of(
+                new HourlyWeatherAggregate(
+                        LocalDate.of(2014, 1, 5), LocalTime.of(12, 0), "67", 1L,
+                        2.0, 1L, 2.0, 2.0, null, 0L, null, 0L, null, 0L
+                ),
+                new HourlyWeatherAggregate(
+                        LocalDate.of(2014, 1, 5), LocalTime.of(12, 0), "57", 1L,
+                        8.0, 1L, 8.0, 8.0, null, 0L, null, 0L, null, 0L
+                )
+        ));
+
+        HourlySeriesStore store = new HourlySeriesStore(consommationRepository, meteoRepository, stationJourRepository, rollupWriter);
+        LocalDate start = LocalDate.of(2014, 1, 1);
+        LocalDate end = LocalDate.of(2014, 1, 31);
+        assertEquals(1, store.summarize(start, end, List.of("67")).weatherRows());
+        assertEquals(2, store.summarize(start, end, List.of("57", "67")).weatherRows());
+
+        DonneesMeteo row = new DonneesMeteo();
+        row.setDepartement("67");
+        row.setStation("67124001");
+        row.setDate(LocalDate.of(2014, 1, 6));
+        row.setHeure(LocalTime.of(12, 0));
+        row.setTemperature(4.0);
+        store.appendWeather(List.of(row), rows -> {
+        });
+
+        HourlySeriesStore.Selection selection = store.summarize(start, end, List.of("57", "67"));
+        assertEquals(3, selection.weatherRows());
+        assertEquals(4.0, selection.departmentStats().get(1).temperature().highest());
+    }
+
+    private HourlyConsumptionAggregate consommation(String region, String date, int hour, int minute, double value) {
+        return new HourlyConsumptionAggregate(LocalDate.parse(date), LocalTime.of(hour, minute), region, 1L, value, 1L);
+    }
+}
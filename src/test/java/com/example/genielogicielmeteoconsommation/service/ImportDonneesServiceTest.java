@@ -2,17 +2,29 @@ package com.example.genielogicielmeteoconsommation.service;
 
 import com.example.genielogicielmeteoconsommation.model.ConsommationElectrique;
 import com.example.genielogicielmeteoconsommation.repository.ConsommationElectriqueRepository;
+import com.example.genielogicielmeteoconsommation.repository.ConsommationHoraireRepository;
+import com.example.genielogicielmeteoconsommation.repository.ImportRowWriter;
+import com.example.genielogicielmeteoconsommation.repository.MeteoHoraireRepository;
+import com.example.genielogicielmeteoconsommation.repository.MeteoStationJourRepository;
+import com.example.genielogicielmeteoconsommation.repository.RollupWriter;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockMultipartFile;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,9 +33,36 @@ class ImportDonneesServiceTest {
     @Mock
     private ConsommationElectriqueRepository repository;
 
-    @InjectMocks
+    @Mock
+    private ConsommationHoraireRepository consommationHoraireRepository;
+
+    @Mock
+    private MeteoHoraireRepository meteoRepository;
+
+    @Mock
+    private MeteoStationJourRepository stationJourRepository;
+
+    @Mock
+    private ImportRowWriter rowWriter;
+
+    @Mock
+    private RollupWriter rollupWriter;
+
     private ImportDonneesService importService;
 
+    @BeforeEach
+    void setUp() {
+        importService = new ImportDonneesService(
+                repository,
+                rowWriter,
+                rollupWriter,
+                new HourlySeriesStore(consommationHoraireRepository, meteoRepository, stationJourRepository, rollupWriter),
+                5_000,
+                2,
+                1
+        );
+    }
+
     @Test
     void testImporterFichierRte() {
         String csvContent = "Code INSEE region;Region;Nature;Date;Heure;Date - Heure;Consommation (MW)\n"
@@ -41,7 +80,7 @@ class ImportDonneesServiceTest {
         importService.importerFichierRte(mockFile);
 
         ArgumentCaptor<List<ConsommationElectrique>> captor = ArgumentCaptor.forClass(List.class);
-        verify(repository).saveAll(captor.capture());
+        verify(rowWriter).writeConsommation(captor.capture(), any());
 
         List<ConsommationElectrique> savedList = captor.getValue();
         assertEquals(1, savedList.size());
@@ -49,5 +88,61 @@ class ImportDonneesServiceTest {
         assertEquals(5500.5, savedList.get(0).getConsommationMw());
         assertEquals("2014-01-01", savedList.get(0).getDate().toString());
         assertEquals("12:00", savedList.get(0).getHeure().toString());
+        verify(rollupWriter).clearConsumption();
+        verify(rollupWriter).refreshConsumption(LocalDate.of(2014, 1, 1), LocalDate.of(2014, 1, 1));
+    }
+
+    @Test
+    void testRemplacerDonneesRteSansLigneDeDonnees() {
+        String header = "Code INSEE region;Region;Nature;Date;Heure;Date - Heure;Consommation (MW)\n";
+
+        for (String content : List.of("", header, header + "\n\n", "entete\n44;Grand Est\n")) {
+            assertThrows(IllegalArgumentException.class, () -> importService.remplacerDonneesRte(
+                    "eco2mix.csv",
+                    new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+                    ImportProgress.NONE
+            ));
+        }
+
+        verify(repository, never()).deleteAllInBatch();
+        verify(rollupWriter, never()).clearConsumption();
+    }
+
+    @Test
+    void testRemplacerDonneesRteDebutTropLong() {
+        String header = "Code INSEE region;Region;Nature;Date;Heure;Date - Heure;Consommation (MW)\n";
+        String row = "44;Grand Est;Def;01/01/2014;12:00;2014-01-01T12:00:00+00:00;5500.5\n";
+
+        for (String content : List.of(header.replace("Nature", "N".repeat(70_000)) + row, header + "\n".repeat(70_000) + row)) {
+            assertThrows(IllegalArgumentException.class, () -> importService.remplacerDonneesRte(
+                    "eco2mix.csv",
+                    new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+                    ImportProgress.NONE
+            ));
+        }
+
+        verify(repository, never()).deleteAllInBatch();
+        verify(rollupWriter, never()).clearConsumption();
+    }
+
+    @Test
+    void testRemplacerDonneesRteAnnuleAvantSuppression() {
+        String content = "Code INSEE region;Region;Nature;Date;Heure;Date - Heure;Consommation (MW)\n"
+                + "44;Grand Est;Def;01/01/2014;12:00;2014-01-01T12:00:00+00:00;5500.5\n";
+        ImportProgress cancelled = new ImportProgress() {
+            @Override
+            public boolean isCancelled() {
+                return true;
+            }
+        };
+
+        assertThrows(CancellationException.class, () -> importService.remplacerDonneesRte(
+                "eco2mix.csv",
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+                cancelled
+        ));
+
+        verify(repository, never()).deleteAllInBatch();
+        verify(rowWriter, never()).writeConsommation(any(), any());
     }
 }
@@ -0,0 +1,186 @@
+package com.example.genielogicielmeteoconsommation.service;
+
+import com.example.genielogicielmeteoconsommation.dto.ImportJobStatus;
+import com.example.genielogicielmeteoconsommation.dto.ImportSummary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ImportJobServiceTest {
+
+    @Mock
+    private ImportDonneesService importDonneesService;
+
+    @Mock
+    private ImportMeteoService importMeteoService;
+
+    @Mock
+    private DashboardService dashboardService;
+
+    private ImportJobService importJobService;
+
+    @BeforeEach
+    void setUp() {
+        importJobService = new ImportJobService(importDonneesService, importMeteoService, dashboardService, 1, 60);
+    }
+
+    @AfterEach
+    void tearDown() {
+        importJobService.shutdown();
+    }
+
+    @Test
+    void testImportMeteoEnArrierePlan() throws Exception {
+        given(importMeteoService.importerFluxMeteo(eq("meteo.csv"), any(InputStream.class), any(ImportProgress.class)))
+                .willAnswer(invocation -> {
+                    InputStream inputStream = invocation.getArgument(1);
+                    ImportProgress progress = invocation.getArgument(2);
+                    inputStream.readAllBytes();
+                    progress.rowsRead(3, 1);
+                    progress.rowsWritten(2);
+                    return new ImportSummary("meteo", "meteo.csv", 2, 1);
+                });
+
+        MultipartFile file = new MockMultipartFile("files", "meteo.csv", "text/csv", "entete\na\nb\nc\n".getBytes());
+        ImportJobStatus submitted = importJobService.soumettreImportMeteo(new MultipartFile[]{file});
+
+        ImportJobStatus status = awaitCompletion(submitted.id());
+
+        assertEquals(ImportJobStatus.State.SUCCEEDED, status.state());
+        assertEquals(status.totalBytes(), status.readBytes());
+        assertEquals(3, status.readRows());
+        assertEquals(2, status.insertedRows());
+        assertEquals(1, status.skippedRows());
+        assertEquals("Import meteo termine : 1 fichiers traites, 2 lignes valides ajoutees, 1 lignes ignorees.", status.message());
+        verify(dashboardService).clearOverviewCache();
+    }
+
+    @Test
+    void testAnnulationAvantDemarrage() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(importMeteoService.importerFluxMeteo(eq("meteo.csv"), any(InputStream.class), any(ImportProgress.class)))
+                .willAnswer(invocation -> {
+                    started.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return new ImportSummary("meteo", "meteo.csv", 0, 0);
+                });
+
+        ImportJobStatus running = importJobService.soumettreImportMeteo(new MultipartFile[]{meteoFile()});
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        ImportJobStatus queued = importJobService.soumettreImportElectricite(electriciteFile());
+
+        ImportJobStatus cancelled = importJobService.annuler(queued.id()).orElseThrow();
+        release.countDown();
+
+        assertEquals(ImportJobStatus.State.CANCELLED, cancelled.state());
+        assertEquals(0, cancelled.readRows());
+        assertEquals(0, cancelled.insertedRows());
+        assertEquals(ImportJobStatus.State.SUCCEEDED, awaitCompletion(running.id()).state());
+        verify(importDonneesService, never()).remplacerDonneesRte(any(), any(), any());
+    }
+
+    @Test
+    void testAnnulationPendantImportMeteo() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        given(importMeteoService.importerFluxMeteo(eq("meteo.csv"), any(InputStream.class), any(ImportProgress.class)))
+                .willAnswer(invocation -> {
+                    ImportProgress progress = invocation.getArgument(2);
+                    progress.rowsRead(8_192, 2);
+                    progress.rowsWritten(5_000);
+                    started.countDown();
+                    while (!progress.isCancelled()) {
+                        Thread.sleep(5L);
+                    }
+                    throw new CancellationException("Import meteo annule.");
+                });
+
+        ImportJobStatus submitted = importJobService.soumettreImportMeteo(new MultipartFile[]{meteoFile()});
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        importJobService.annuler(submitted.id());
+
+        ImportJobStatus status = awaitCompletion(submitted.id());
+
+        assertEquals(ImportJobStatus.State.CANCELLED, status.state());
+        assertEquals("Import annule.", status.message());
+        assertEquals(8_192, status.readRows());
+        assertEquals(5_000, status.insertedRows());
+        assertEquals(2, status.skippedRows());
+        verify(dashboardService).clearOverviewCache();
+    }
+
+    @Test
+    void testAnnulationRefuseeApresSuppressionElectricite() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(importDonneesService.remplacerDonneesRte(eq("eco2mix.csv"), any(InputStream.class), any(ImportProgress.class)))
+                .willAnswer(invocation -> {
+                    ImportProgress progress = invocation.getArgument(2);
+                    assertTrue(progress.disableCancellation());
+                    progress.rowsRead(8_192, 1);
+                    started.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    progress.rowsWritten(8_191);
+                    assertFalse(progress.isCancelled());
+                    return new ImportSummary("electricite", "eco2mix.csv", 8_191, 1);
+                });
+
+        ImportJobStatus submitted = importJobService.soumettreImportElectricite(electriciteFile());
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        ImportJobStatus refused = importJobService.annuler(submitted.id()).orElseThrow();
+        release.countDown();
+
+        assertEquals(ImportJobStatus.State.RUNNING, refused.state());
+        ImportJobStatus status = awaitCompletion(submitted.id());
+        assertEquals(ImportJobStatus.State.SUCCEEDED, status.state());
+        assertEquals(8_192, status.readRows());
+        assertEquals(8_191, status.insertedRows());
+        assertEquals("Import electricite termine : 8191 lignes valides ajoutees, 1 lignes ignorees.", status.message());
+    }
+
+    @Test
+    void testImportInconnu() {
+        assertTrue(importJobService.consulter("inconnu").isEmpty());
+        assertTrue(importJobService.annuler("inconnu").isEmpty());
+    }
+
+    private MultipartFile meteoFile() {
+        return new MockMultipartFile("files", "meteo.csv", "text/csv", "entete\na\n".getBytes());
+    }
+
+    private MultipartFile electriciteFile() {
+        return new MockMultipartFile("file", "eco2mix.csv", "text/csv", "entete\na\n".getBytes());
+    }
+
+    private ImportJobStatus awaitCompletion(String id) throws InterruptedException {
+        for (int attempt = 0; attempt < 200; attempt++) {
+            ImportJobStatus status = importJobService.consulter(id).orElseThrow();
+            if (status.finishedAt() != null) {
+                return status;
+            }
+            Thread.sleep(25L);
+        }
+        throw new AssertionError("Le job ne s'est pas termine a temps.");
+    }
+}
@@ -1,30 +1,60 @@
 package com.example.genielogicielmeteoconsommation.service;
 
 import com.example.genielogicielmeteoconsommation.model.DonneesMeteo;
-import com.example.genielogicielmeteoconsommation.repository.DonneesMeteoRepository;
+import com.example.genielogicielmeteoconsommation.repository.ConsommationHoraireRepository;
+import com.example.genielogicielmeteoconsommation.repository.ImportRowWriter;
+import com.example.genielogicielmeteoconsommation.repository.MeteoHoraireRepository;
+import com.example.genielogicielmeteoconsommation.repository.MeteoStationJourRepository;
+import com.example.genielogicielmeteoconsommation.repository.RollupWriter;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockMultipartFile;
 
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 class ImportMeteoServiceTest {
 
     @Mock
-    private DonneesMeteoRepository meteoRepository;
+    private MeteoHoraireRepository meteoRepository;
+
+    @Mock
+    private ConsommationHoraireRepository consommationRepository;
+
+    @Mock
+    private MeteoStationJourRepository stationJourRepository;
+
+    @Mock
+    private ImportRowWriter rowWriter;
+
+    @Mock
+    private RollupWriter rollupWriter;
 
-    @InjectMocks
     private ImportMeteoService importMeteoService;
 
+    @BeforeEach
+    void setUp() {
+        importMeteoService = new ImportMeteoService(
+                rowWriter,
+                rollupWriter,
+                new HourlySeriesStore(consommationRepository, meteoRepository, stationJourRepository, rollupWriter),
+                5_000,
+                2,
+                1
+        );
+    }
+
     @Test
     void testImporterFichierMeteo() {
         String[] columns = new String[80];
@@ -49,12 +79,13 @@ class ImportMeteoServiceTest {
         importMeteoService.importerFichierMeteo(mockFile);
 
         ArgumentCaptor<List<DonneesMeteo>> captor = ArgumentCaptor.forClass(List.class);
-        verify(meteoRepository).saveAll(captor.capture());
+        verify(rowWriter).writeMeteo(captor.capture(), any());
 
         List<DonneesMeteo> savedList = captor.getValue();
         assertEquals(1, savedList.size());
         assertEquals("08", savedList.get(0).getDepartement());
         assertEquals("13:00", savedList.get(0).getHeure().toString());
         assertEquals(10.2, savedList.get(0).getTemperature());
+        verify(rollupWriter).refreshWeather(Set.of("08"), LocalDate.of(2014, 1, 1), LocalDate.of(2014, 1, 1));
     }
 }
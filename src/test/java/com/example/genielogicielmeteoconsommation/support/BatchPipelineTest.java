@@ -0,0 +1,102 @@
+package com.example.genielogicielmeteoconsommation.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchPipelineTest {
+
+    @Test
+    void testEcritTousLesLots() {
+        List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+
+        int written;
+        try (BatchPipeline<Integer> pipeline = new BatchPipeline<>("test", 3, 1, 2, batches::add)) {
+            for (int value = 0; value < 10; value++) {
+                pipeline.add(value);
+            }
+            written = pipeline.finish();
+        }
+
+        assertEquals(10, written);
+        assertEquals(4, batches.size());
+        assertEquals(10, batches.stream().mapToInt(List::size).sum());
+    }
+
+    @Test
+    void testPropageLEchecDUnEcrivain() {
+        IllegalStateException failure = new IllegalStateException("ecriture impossible");
+
+        try (BatchPipeline<Integer> pipeline = new BatchPipeline<>("test", 1, 1, 1, batch -> {
+            throw failure;
+        })) {
+            IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> {
+                for (int value = 0; value < 1_000; value++) {
+                    pipeline.add(value);
+                }
+                pipeline.finish();
+            });
+            assertEquals(failure, thrown);
+        }
+    }
+
+    /**
+     * Un ecrivain echoue alors que finish() a deja depose les marqueurs de fin: l'autre
+     * ecrivain, encore occupe, doit trouver le sien en sortant de son lot.
+     */
+    @Test
+    void testEchecDUnEcrivainApresLesMarqueursDeFin() throws InterruptedException {
+        IllegalStateException failure = new IllegalStateException("ecriture impossible");
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+
+        try (BatchPipeline<Integer> pipeline = new BatchPipeline<>("test", 1, 4, 2, batch -> {
+            if (batch.get(0) > 1) {
+                return;
+            }
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            if (batch.get(0) == 0) {
+                throw failure;
+            }
+        })) {
+            pipeline.add(0);
+            pipeline.add(1);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            pipeline.add(2);
+            pipeline.add(3);
+
+            Thread finisher = new Thread(() -> {
+                try {
+                    pipeline.finish();
+                } catch (Throwable throwable) {
+                    thrown.set(throwable);
+                }
+            });
+            finisher.start();
+            // Les marqueurs sont deposes quand finish() attend les ecrivains (join sans delai).
+            while (finisher.getState() != Thread.State.WAITING && finisher.isAlive()) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            finisher.join(TimeUnit.SECONDS.toMillis(5));
+            assertFalse(finisher.isAlive(), "finish() ne doit pas attendre indefiniment un ecrivain");
+            assertEquals(failure, thrown.get());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.genielogicielmeteoconsommation.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DelimitedLineTokenizerTest {
+
+    @Test
+    void testColonnesEtDecimales() throws IOException {
+        String content = " 08001001 ;x;2014010112;12,5;ND\r\n"
+                + "67124001;y;2014010113; -0.25 ;\n"
+                + "67124001;z;2014010114;1e2;abc";
+
+        try (DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer(new StringReader(content), ';', 0, 2, 3, 4)) {
+            assertTrue(tokenizer.nextLine());
+            assertEquals(5, tokenizer.columnCount());
+            assertEquals("08", tokenizer.matchPrefix(0, List.of("67", "08")));
+            assertEquals("08001001", tokenizer.text(0));
+            assertEquals(2014, tokenizer.digits(2, 0, 4));
+            assertEquals(12, tokenizer.digits(2, 8, 2));
+            assertEquals(12.5, tokenizer.decimal(3));
+            assertTrue(Double.isNaN(tokenizer.decimal(4)));
+
+            assertTrue(tokenizer.nextLine());
+            String station = tokenizer.internedText(0);
+            assertNull(tokenizer.matchPrefix(0, List.of("08")));
+            assertEquals(-0.25, tokenizer.decimal(3));
+            assertTrue(tokenizer.isBlank(4));
+
+            assertTrue(tokenizer.nextLine());
+            assertSame(station, tokenizer.internedText(0));
+            assertEquals(100.0, tokenizer.decimal(3));
+            assertTrue(Double.isNaN(tokenizer.decimal(4)));
+
+            assertFalse(tokenizer.nextLine());
+        }
+    }
+
+    @Test
+    void testLignesPlusLonguesQueLeTampon() throws IOException {
+        String longValue = "1".repeat(100_000);
+        String content = "a;" + longValue + "\nb;0,1\n";
+
+        try (DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer(new StringReader(content), ';', 1)) {
+            assertTrue(tokenizer.nextLine());
+            assertEquals(longValue.length(), tokenizer.length(1));
+            assertTrue(tokenizer.nextLine());
+            assertEquals(0.1, tokenizer.decimal(1));
+            assertFalse(tokenizer.nextLine());
+        }
+    }
+
+    @Test
+    void testColonnesVidesEnFinDeLigneCommeSplit() throws IOException {
+        String[] lines = {"a;b;;", "a;;b", ";;", "a", "", " ;"};
+        String content = String.join("\n", lines) + "\n";
+
+        try (DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer(new StringReader(content), ';', 0, 1, 2)) {
+            for (String line : lines) {
+                assertTrue(tokenizer.nextLine());
+                int expected = line.isEmpty() ? 0 : line.split(";").length;
+                assertEquals(expected, tokenizer.columnCount(), line);
+            }
+            assertFalse(tokenizer.nextLine());
+        }
+    }
+
+    @Test
+    void testRetourChariotSeulCommeFinDeLigne() throws IOException {
+        String content = "a;1\rb;2\r\nc;3\r";
+
+        try (DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer(new StringReader(content), ';', 0, 1)) {
+            assertTrue(tokenizer.nextLine());
+            assertEquals("a", tokenizer.text(0));
+            assertEquals(1.0, tokenizer.decimal(1));
+            assertTrue(tokenizer.nextLine());
+            assertEquals("b", tokenizer.text(0));
+            assertEquals(2.0, tokenizer.decimal(1));
+            assertTrue(tokenizer.nextLine());
+            assertEquals("c", tokenizer.text(0));
+            assertEquals(3.0, tokenizer.decimal(1));
+            assertFalse(tokenizer.nextLine());
+        }
+    }
+
+    @Test
+    void testRetourChariotEnFinDeTampon() throws IOException {
+        String first = "x;" + "1".repeat(64 * 1024 - 3);
+        String content = first + "\r\ny;2\n";
+
+        try (DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer(new StringReader(content), ';', 0, 1)) {
+            assertTrue(tokenizer.nextLine());
+            assertEquals("x", tokenizer.text(0));
+            assertTrue(tokenizer.nextLine());
+            assertEquals("y", tokenizer.text(0));
+            assertFalse(tokenizer.nextLine());
+        }
+    }
+}
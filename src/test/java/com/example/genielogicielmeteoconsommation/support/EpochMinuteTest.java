@@ -0,0 +1,31 @@
+package com.example.genielogicielmeteoconsommation.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EpochMinuteTest {
+
+    @Test
+    void dateAndTimeRoundTripThroughEpochMinutes() {
+        LocalDate date = LocalDate.of(2014, 1, 1);
+        int epochMinute = EpochMinute.of(date, LocalTime.of(20, 30));
+
+        assertEquals(date.toEpochDay() * 1_440 + 20 * 60 + 30, epochMinute);
+        assertEquals(date, EpochMinute.date(epochMinute));
+        assertEquals(LocalTime.of(20, 30), EpochMinute.time(epochMinute));
+    }
+
+    @Test
+    void dayBoundsCoverEveryMinuteOfTheDay() {
+        LocalDate date = LocalDate.of(2014, 3, 30);
+
+        assertEquals(LocalTime.MIDNIGHT, EpochMinute.time(EpochMinute.startOf(date)));
+        assertEquals(LocalTime.of(23, 59), EpochMinute.time(EpochMinute.endOf(date)));
+        assertEquals(date, EpochMinute.date(EpochMinute.endOf(date)));
+        assertEquals(date.plusDays(1), EpochMinute.date(EpochMinute.endOf(date) + 1));
+    }
+}
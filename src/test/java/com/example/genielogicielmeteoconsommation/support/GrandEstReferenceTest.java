@@ -0,0 +1,41 @@
+package com.example.genielogicielmeteoconsommation.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GrandEstReferenceTest {
+
+    @Test
+    void equivalentSelectionsShareTheSameMaskAndOrder() {
+        int mask = GrandEstReference.departmentMask(List.of("57", " 54", "57", "99"));
+
+        assertEquals(mask, GrandEstReference.departmentMask(List.of("54", "57")));
+        assertEquals(List.of("54", "57"), GrandEstReference.departmentsOf(mask));
+        assertThrows(UnsupportedOperationException.class, () -> GrandEstReference.departmentsOf(mask).add("08"));
+        assertEquals(List.of("54", "57"), GrandEstReference.normalizeDepartments(List.of("57", "54")));
+    }
+
+    @Test
+    void emptyOrUnknownSelectionMeansAllDepartments() {
+        assertEquals(GrandEstReference.ALL_DEPARTMENTS_MASK, GrandEstReference.departmentMask(null));
+        assertEquals(GrandEstReference.ALL_DEPARTMENTS_MASK, GrandEstReference.departmentMask(Arrays.asList("", null, "99")));
+        assertEquals(GrandEstReference.defaultDepartments(), GrandEstReference.departmentsOf(GrandEstReference.ALL_DEPARTMENTS_MASK));
+    }
+
+    @Test
+    void storedCodesRoundTripToLabels() {
+        assertEquals((short) 8, GrandEstReference.departmentNumber("08"));
+        assertEquals("08", GrandEstReference.departmentOfNumber((short) 8));
+        assertEquals("67", GrandEstReference.departmentOfNumber(GrandEstReference.departmentNumber("67")));
+        for (String region : GrandEstReference.IMPORT_REGIONS) {
+            assertEquals(region, GrandEstReference.regionOfCode(GrandEstReference.regionCode(region)));
+        }
+        assertEquals((short) 1, GrandEstReference.regionCode(GrandEstReference.MERGED_REGION));
+        assertThrows(IllegalArgumentException.class, () -> GrandEstReference.regionCode("Bretagne"));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.genielogicielmeteoconsommation.support;
+
+import com.example.genielogicielmeteoconsommation.dto.DashboardOverviewResponse;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OverviewSeriesEncoderTest {
+
+    @Test
+    void testEncodeLesSeriesEnColonnes() {
+        DashboardOverviewResponse response = new DashboardOverviewResponse(
+                null, null, null, null,
+                List.of(
+                        new DashboardOverviewResponse.DailyTrendPoint(LocalDate.of(2014, 1, 5), 4500.0, 5000.0, 1.5, 80.0, 12.0, 0.5),
+                        new DashboardOverviewResponse.DailyTrendPoint(LocalDate.of(2014, 1, 6), 4400.0, 4800.0, null, null, null, null)
+                ),
+                null, null, null,
+                List.of(new DashboardOverviewResponse.ScatterPoint(null, 2.5, 4600.0, "Hiver", 3L)),
+                null, null, null
+        );
+
+        ByteBuffer buffer = ByteBuffer.wrap(OverviewSeriesEncoder.encode(response)).order(ByteOrder.LITTLE_ENDIAN);
+
+        assertEquals(4 + 2 * 4 + 2 * 7 * 4 + 3 * 4 + 1, buffer.capacity());
+        assertEquals('M', buffer.get(0));
+        assertEquals(2, buffer.getInt(4));
+        assertEquals(1, buffer.getInt(8));
+        assertEquals(LocalDate.of(2014, 1, 6).toEpochDay(), buffer.getInt(12 + 4));
+        assertEquals(4500.0f, buffer.getFloat(12 + 2 * 4));
+        assertEquals(1.5f, buffer.getFloat(12 + 6 * 4));
+        assertTrue(Float.isNaN(buffer.getFloat(12 + 7 * 4)));
+
+        int points = 12 + 2 * 7 * 4;
+        assertEquals(2.5f, buffer.getFloat(points));
+        assertEquals(4600.0f, buffer.getFloat(points + 4));
+        assertEquals(3, buffer.getInt(points + 8));
+        assertEquals(0, buffer.get(points + 12));
+    }
+}
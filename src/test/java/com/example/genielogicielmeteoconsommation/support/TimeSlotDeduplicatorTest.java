@@ -0,0 +1,33 @@
+package com.example.genielogicielmeteoconsommation.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeSlotDeduplicatorTest {
+
+    @Test
+    void testDetecteLesDoublons() {
+        TimeSlotDeduplicator deduplicator = new TimeSlotDeduplicator(
+                LocalDate.of(2014, 1, 1),
+                LocalDate.of(2014, 12, 31),
+                15
+        );
+        LocalDate date = LocalDate.of(2014, 3, 30);
+
+        assertTrue(deduplicator.add("Alsace", date, LocalTime.of(2, 15)));
+        assertFalse(deduplicator.add("Alsace", date, LocalTime.of(2, 15)));
+        assertTrue(deduplicator.add("Lorraine", date, LocalTime.of(2, 15)));
+        assertTrue(deduplicator.add("Alsace", date, LocalTime.of(2, 30)));
+
+        // Hors grille et hors periode: ensemble de secours.
+        assertTrue(deduplicator.add("Alsace", date, LocalTime.of(2, 20)));
+        assertFalse(deduplicator.add("Alsace", date, LocalTime.of(2, 20)));
+        assertTrue(deduplicator.add("Alsace", LocalDate.of(2015, 1, 1), LocalTime.MIDNIGHT));
+        assertFalse(deduplicator.add("Alsace", LocalDate.of(2015, 1, 1), LocalTime.MIDNIGHT));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.genielogicielmeteoconsommation.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeightedLruCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesBeyondMaxWeight() {
+        AtomicLong now = new AtomicLong();
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>(10, 1_000, 0, String::length, now::get);
+
+        cache.put("a", "aaaa");
+        cache.put("b", "bbbb");
+        assertEquals("aaaa", cache.get("a"));
+        cache.put("c", "cccc");
+
+        assertNull(cache.get("b"));
+        assertEquals("aaaa", cache.get("a"));
+        assertEquals("cccc", cache.get("c"));
+
+        cache.put("d", "d".repeat(11));
+        assertNull(cache.get("d"));
+
+        WeightedLruCache.Stats stats = cache.stats();
+        assertEquals(3, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(1, stats.evictions());
+        assertEquals(2, stats.size());
+        assertEquals(8, stats.weight());
+    }
+
+    @Test
+    void expiresEntriesOnReadAndOnPurge() {
+        AtomicLong now = new AtomicLong();
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>(100, 1_000, 0, String::length, now::get);
+
+        cache.put("a", "a");
+        cache.put("b", "b");
+        now.set(1_001);
+
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.purgeExpired());
+
+        WeightedLruCache.Stats stats = cache.stats();
+        assertEquals(2, stats.expirations());
+        assertEquals(0, stats.size());
+        assertEquals(0, stats.weight());
+    }
+
+    @Test
+    void servesStaleEntriesDuringGracePeriodOnly() {
+        AtomicLong now = new AtomicLong();
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>(100, 1_000, 500, String::length, now::get);
+
+        cache.put("a", "a");
+        now.set(1_200);
+
+        assertNull(cache.get("a"));
+        WeightedLruCache.Lookup<String> lookup = cache.getAllowStale("a");
+        assertEquals("a", lookup.value());
+        assertTrue(lookup.stale());
+
+        now.set(1_501);
+        assertNull(cache.getAllowStale("a"));
+
+        WeightedLruCache.Stats stats = cache.stats();
+        assertEquals(1, stats.staleHits());
+        assertEquals(2, stats.misses());
+        assertEquals(1, stats.expirations());
+    }
+}